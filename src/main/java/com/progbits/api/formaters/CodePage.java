@@ -0,0 +1,120 @@
+package com.progbits.api.formaters;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A single byte code page, such as Cp037 for EBCDIC.
+ *
+ * Fixed-width records are read and written as chars of the code page. The
+ * bytes of packed and binary fields are recovered from, and turned back
+ * into, those chars through a table of the 256 bytes of the code page.
+ *
+ * @author scarr
+ */
+public final class CodePage {
+
+	public static final CodePage ISO_8859_1 = new CodePage(StandardCharsets.ISO_8859_1);
+
+	private static final Map<String, CodePage> _codePages = new ConcurrentHashMap<>();
+
+	private final Charset charset;
+	private final char[] chars = new char[256];
+	private final byte[] bytes;
+
+	private CodePage(Charset charset) {
+		if (charset.newEncoder().maxBytesPerChar() != 1.0f) {
+			throw new IllegalArgumentException("Code Page " + charset.name() + " is not single byte");
+		}
+
+		byte[] allBytes = new byte[256];
+
+		for (int x = 0; x < allBytes.length; x++) {
+			allBytes[x] = (byte) x;
+		}
+
+		String strChars = new String(allBytes, charset);
+
+		if (strChars.length() != chars.length) {
+			throw new IllegalArgumentException("Code Page " + charset.name() + " is not single byte");
+		}
+
+		int iMaxChar = 0;
+
+		for (int x = 0; x < chars.length; x++) {
+			chars[x] = strChars.charAt(x);
+
+			iMaxChar = Math.max(iMaxChar, chars[x]);
+		}
+
+		this.charset = charset;
+		this.bytes = new byte[iMaxChar + 1];
+
+		// Bytes the code page does not define share the replacement char,
+		// the lowest of them is kept
+		for (int x = chars.length - 1; x >= 0; x--) {
+			bytes[chars[x]] = (byte) x;
+		}
+	}
+
+	/**
+	 * @param name Name of a single byte Charset, such as Cp037 or IBM500
+	 * @return The code page, created once per name
+	 * @throws IllegalArgumentException The Charset is not supported, or is not
+	 * single byte
+	 */
+	public static CodePage forName(String name) {
+		return _codePages.computeIfAbsent(name, n -> new CodePage(Charset.forName(n)));
+	}
+
+	/**
+	 * Pick the Charset a fixed-width file is read or written with
+	 *
+	 * @param charset Name of a Charset, used if set
+	 * @param codePage Name of a code page, used if charset is not set
+	 * @param binary true if the layout has packed or binary fields, which
+	 * are chars of ISO-8859-1 when no code page is set
+	 * @return The Charset, ISO-8859-1 for a binary layout or UTF-8 if neither
+	 * is set
+	 */
+	public static Charset charsetOf(String charset, String codePage, boolean binary) {
+		if (charset != null) {
+			return Charset.forName(charset);
+		} else if (codePage != null) {
+			return Charset.forName(codePage);
+		}
+
+		return binary ? ISO_8859_1.getCharset() : StandardCharsets.UTF_8;
+	}
+
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * @param b A byte of the code page
+	 * @return The char the byte decodes to
+	 */
+	public char toChar(int b) {
+		return chars[b & 0xFF];
+	}
+
+	/**
+	 * @param c A char decoded with the code page
+	 * @return The byte the char encodes to, 0 to 255
+	 * @throws IllegalArgumentException The char is not in the code page
+	 */
+	public int toByte(char c) {
+		if (c < bytes.length) {
+			int b = bytes[c] & 0xFF;
+
+			if (chars[b] == c) {
+				return b;
+			}
+		}
+
+		throw new IllegalArgumentException("Char " + (int) c + " is not in Code Page " + charset.name());
+	}
+}
@@ -0,0 +1,267 @@
+package com.progbits.api.formaters;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Packed decimal (COMP-3), zoned decimal and binary (COMP) fields of
+ * mainframe fixed-width records.
+ *
+ * Fields are read from, and written as, chars decoded with a CodePage. Scale
+ * is the number of digits after the implied decimal point.
+ *
+ * @author scarr
+ */
+public class TransformMainframe {
+
+	// Digits that always fit in a long
+	private static final int LONG_DIGITS = 18;
+
+	private static final String ZONED_POSITIVE = "{ABCDEFGHI";
+	private static final String ZONED_NEGATIVE = "}JKLMNOPQR";
+
+	/**
+	 * Read a packed decimal, two digits per byte with the sign in the last
+	 * half byte. D and B are negative, A, C, E and F are positive.
+	 */
+	public static BigDecimal transformPacked(char[] buf, int start, int end, int scale, CodePage codePage) {
+		int iDigits = (end - start) * 2 - 1;
+		char[] digits = iDigits > LONG_DIGITS ? new char[iDigits + 1] : null;
+		long value = 0;
+		int iDigit = 1;
+		int sign = 0;
+
+		for (int pos = start; pos < end; pos++) {
+			int b = codePage.toByte(buf[pos]);
+
+			int high = b >> 4;
+			int low = b & 0x0F;
+
+			if (high > 9 || (pos < end - 1 && low > 9)) {
+				throw new NumberFormatException("Invalid Packed Decimal");
+			}
+
+			if (digits != null) {
+				digits[iDigit++] = (char) ('0' + high);
+			} else {
+				value = value * 10 + high;
+			}
+
+			if (pos < end - 1) {
+				if (digits != null) {
+					digits[iDigit++] = (char) ('0' + low);
+				} else {
+					value = value * 10 + low;
+				}
+			} else {
+				sign = low;
+			}
+		}
+
+		if (sign < 0x0A) {
+			throw new NumberFormatException("Invalid Packed Decimal Sign");
+		}
+
+		boolean negative = sign == 0x0D || sign == 0x0B;
+
+		if (digits != null) {
+			digits[0] = negative ? '-' : '+';
+
+			return new BigDecimal(digits).movePointLeft(scale);
+		}
+
+		return BigDecimal.valueOf(negative ? -value : value, scale);
+	}
+
+	/**
+	 * Read a zoned decimal, one digit per char. The sign is either
+	 * overpunched on the last digit, { and A to I for positive, } and J to R
+	 * for negative, or a leading + or -.
+	 */
+	public static BigDecimal transformZoned(char[] buf, int start, int end, int scale) {
+		boolean negative = false;
+
+		if (start < end && (buf[start] == '-' || buf[start] == '+')) {
+			negative = buf[start] == '-';
+			start++;
+		}
+
+		if (start == end) {
+			throw new NumberFormatException("Invalid Zoned Decimal");
+		}
+
+		char[] digits = end - start > LONG_DIGITS ? new char[end - start + 1] : null;
+		long value = 0;
+
+		for (int pos = start; pos < end; pos++) {
+			char c = buf[pos];
+			int digit;
+
+			if (c >= '0' && c <= '9') {
+				digit = c - '0';
+			} else if (pos == end - 1 && ZONED_POSITIVE.indexOf(c) > -1) {
+				digit = ZONED_POSITIVE.indexOf(c);
+			} else if (pos == end - 1 && ZONED_NEGATIVE.indexOf(c) > -1) {
+				digit = ZONED_NEGATIVE.indexOf(c);
+				negative = true;
+			} else {
+				throw new NumberFormatException("Invalid Zoned Decimal");
+			}
+
+			if (digits != null) {
+				digits[pos - start + 1] = (char) ('0' + digit);
+			} else {
+				value = value * 10 + digit;
+			}
+		}
+
+		if (digits != null) {
+			digits[0] = negative ? '-' : '+';
+
+			return new BigDecimal(digits).movePointLeft(scale);
+		}
+
+		return BigDecimal.valueOf(negative ? -value : value, scale);
+	}
+
+	/**
+	 * Read a big-endian two's complement binary number
+	 */
+	public static BigDecimal transformBinary(char[] buf, int start, int end, int scale, CodePage codePage) {
+		if (end - start > 8) {
+			byte[] bytes = new byte[end - start];
+
+			for (int pos = start; pos < end; pos++) {
+				bytes[pos - start] = (byte) codePage.toByte(buf[pos]);
+			}
+
+			return new BigDecimal(new BigInteger(bytes), scale);
+		}
+
+		// The first byte carries the sign
+		long value = (byte) codePage.toByte(buf[start]);
+
+		for (int pos = start + 1; pos < end; pos++) {
+			value = (value << 8) | codePage.toByte(buf[pos]);
+		}
+
+		return BigDecimal.valueOf(value, scale);
+	}
+
+	/**
+	 * Write a packed decimal of length bytes. A positive value is signed C if
+	 * signed, otherwise F, a negative value is signed D. A null value is
+	 * written as spaces.
+	 */
+	public static String formatPacked(Object value, int length, int scale, boolean signed, CodePage codePage) {
+		if (value == null) {
+			return " ".repeat(length);
+		}
+
+		BigInteger unscaled = unscaledValue(value, scale);
+		String strDigits = unscaled.abs().toString();
+
+		int iDigits = length * 2 - 1;
+
+		if (strDigits.length() > iDigits) {
+			throw new NumberFormatException("Value " + value + " does not fit in " + length + " bytes");
+		}
+
+		int[] nibbles = new int[length * 2];
+
+		for (int x = 0; x < strDigits.length(); x++) {
+			nibbles[iDigits - strDigits.length() + x] = strDigits.charAt(x) - '0';
+		}
+
+		if (unscaled.signum() < 0) {
+			nibbles[iDigits] = 0x0D;
+		} else {
+			nibbles[iDigits] = signed ? 0x0C : 0x0F;
+		}
+
+		char[] chars = new char[length];
+
+		for (int x = 0; x < length; x++) {
+			chars[x] = codePage.toChar(nibbles[x * 2] << 4 | nibbles[x * 2 + 1]);
+		}
+
+		return new String(chars);
+	}
+
+	/**
+	 * Write a zoned decimal of length digits. A negative value, or a
+	 * positive value if signed, is overpunched on the last digit. A null
+	 * value is written as spaces.
+	 */
+	public static String formatZoned(Object value, int length, int scale, boolean signed) {
+		if (value == null) {
+			return " ".repeat(length);
+		}
+
+		BigInteger unscaled = unscaledValue(value, scale);
+		String strDigits = unscaled.abs().toString();
+
+		if (strDigits.length() > length) {
+			throw new NumberFormatException("Value " + value + " does not fit in " + length + " digits");
+		}
+
+		char[] chars = new char[length];
+
+		for (int x = 0; x < length; x++) {
+			int iLoc = x - (length - strDigits.length());
+
+			chars[x] = iLoc < 0 ? '0' : strDigits.charAt(iLoc);
+		}
+
+		int last = chars[length - 1] - '0';
+
+		if (unscaled.signum() < 0) {
+			chars[length - 1] = ZONED_NEGATIVE.charAt(last);
+		} else if (signed) {
+			chars[length - 1] = ZONED_POSITIVE.charAt(last);
+		}
+
+		return new String(chars);
+	}
+
+	/**
+	 * Write a big-endian two's complement binary number of length bytes. A
+	 * null value is written as zero.
+	 */
+	public static String formatBinary(Object value, int length, int scale, CodePage codePage) {
+		BigInteger unscaled = value != null ? unscaledValue(value, scale) : BigInteger.ZERO;
+
+		if (unscaled.bitLength() >= length * 8) {
+			throw new NumberFormatException("Value " + value + " does not fit in " + length + " bytes");
+		}
+
+		byte[] bytes = unscaled.toByteArray();
+		char[] chars = new char[length];
+
+		for (int x = 0; x < length; x++) {
+			int iLoc = x - (length - bytes.length);
+
+			// Sign extend to the length of the field
+			int b = iLoc < 0 ? (unscaled.signum() < 0 ? 0xFF : 0) : bytes[iLoc];
+
+			chars[x] = codePage.toChar(b);
+		}
+
+		return new String(chars);
+	}
+
+	private static BigInteger unscaledValue(Object value, int scale) {
+		BigDecimal bdValue;
+
+		if (value instanceof BigDecimal) {
+			bdValue = (BigDecimal) value;
+		} else if (value instanceof Integer || value instanceof Long) {
+			bdValue = BigDecimal.valueOf(((Number) value).longValue());
+		} else {
+			bdValue = new BigDecimal(value.toString().trim());
+		}
+
+		return bdValue.setScale(scale, RoundingMode.HALF_UP).unscaledValue();
+	}
+}
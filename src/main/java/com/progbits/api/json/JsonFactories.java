@@ -0,0 +1,112 @@
+package com.progbits.api.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.core.util.RecyclerPool;
+import com.progbits.api.exception.ApiException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process wide Jackson JsonFactory instances.
+ *
+ * <p>
+ * A JsonFactory holds the root symbol table and the buffer recycler pool, so
+ * creating one per parser or writer throws both away. Factories are shared by
+ * JsonObjectParser and JsonObjectWriter, one per distinct set of the
+ * properties below. Other properties do not change the factory used.
+ * </p>
+ *
+ * <ul>
+ * <li>RecyclerPool: threadLocal, concurrentDeque, bounded or none. The thread
+ * local pool does not recycle across virtual threads, use concurrentDeque or
+ * bounded for those. lockFree is read as concurrentDeque, Jackson deprecates
+ * its lock free pool.</li>
+ * <li>CanonicalizeFieldNames: true (default) or false</li>
+ * <li>InternFieldNames: true or false (default)</li>
+ * <li>StrictDuplicateDetection: true or false (default)</li>
+ * </ul>
+ */
+public final class JsonFactories {
+
+    public static enum CONSTANTS {
+        RecyclerPool, CanonicalizeFieldNames, InternFieldNames, StrictDuplicateDetection
+    };
+
+    private static final Map<Options, JsonFactory> FACTORIES = new ConcurrentHashMap<>();
+
+    private static volatile RecyclerPool<BufferRecycler> defaultPool = JsonRecyclerPools.defaultPool();
+
+    private JsonFactories() {
+    }
+
+    /**
+     * @return The shared factory with default settings
+     */
+    public static JsonFactory get() {
+        return FACTORIES.computeIfAbsent(new Options(defaultPool, true, false, false),
+                JsonFactories::build);
+    }
+
+    /**
+     * Return the shared factory for the settings in a parser or writer
+     * properties map
+     *
+     * @param properties The properties, may be null
+     * @return The shared factory
+     * @throws ApiException If RecyclerPool is not a known pool
+     */
+    public static JsonFactory get(Map<String, String> properties) throws ApiException {
+        if (properties == null) {
+            return get();
+        }
+
+        String pool = properties.get(CONSTANTS.RecyclerPool.name());
+
+        Options options = new Options(
+                pool == null ? defaultPool : resolvePool(pool.toLowerCase()),
+                !"false".equalsIgnoreCase(properties.get(CONSTANTS.CanonicalizeFieldNames.name())),
+                "true".equalsIgnoreCase(properties.get(CONSTANTS.InternFieldNames.name())),
+                "true".equalsIgnoreCase(properties.get(CONSTANTS.StrictDuplicateDetection.name())));
+
+        return FACTORIES.computeIfAbsent(options, JsonFactories::build);
+    }
+
+    /**
+     * Set the pool used by factories that do not name a RecyclerPool. The
+     * pool is part of the key of a factory, so parsers and writers created
+     * afterwards use the new pool, and factories of the old pool stay cached
+     * for it.
+     *
+     * @param pool The pool to use
+     */
+    public static void setDefaultRecyclerPool(RecyclerPool<BufferRecycler> pool) {
+        defaultPool = pool;
+    }
+
+    private static JsonFactory build(Options options) {
+        return JsonFactory.builder()
+                .recyclerPool(options.pool())
+                .configure(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES, options.canonicalize())
+                .configure(JsonFactory.Feature.INTERN_FIELD_NAMES, options.canonicalize() && options.intern())
+                .configure(StreamReadFeature.STRICT_DUPLICATE_DETECTION, options.strict())
+                .build();
+    }
+
+    private static RecyclerPool<BufferRecycler> resolvePool(String name) throws ApiException {
+        return switch (name) {
+            case "threadlocal" -> JsonRecyclerPools.threadLocalPool();
+            case "concurrentdeque", "lockfree" -> JsonRecyclerPools.sharedConcurrentDequePool();
+            case "bounded" -> JsonRecyclerPools.sharedBoundedPool();
+            case "none" -> JsonRecyclerPools.nonRecyclingPool();
+            default -> throw new ApiException(520, "Unknown RecyclerPool: " + name);
+        };
+    }
+
+    private static record Options(RecyclerPool<BufferRecycler> pool, boolean canonicalize,
+            boolean intern, boolean strict) {
+
+    }
+}
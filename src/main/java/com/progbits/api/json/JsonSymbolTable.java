@@ -0,0 +1,169 @@
+package com.progbits.api.json;
+
+/**
+ * Bounded table of canonical key names for UTF8JsonParser.
+ *
+ * <p>
+ * Keys are hashed while they are scanned, and looked up against the chars in
+ * the parser buffer, so a repeated key returns the same String instance
+ * without allocating. Once maxSize keys are stored new keys are returned as
+ * plain Strings and not added, which keeps documents with unbounded key sets
+ * from growing the table.
+ * </p>
+ *
+ * <p>
+ * A table is not thread safe, it may be reused by parsers that run one after
+ * the other.
+ * </p>
+ */
+public class JsonSymbolTable {
+
+    /**
+     * Default number of keys to hold
+     */
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    /**
+     * Keys longer than this are never canonicalized
+     */
+    public static final int MAX_KEY_LENGTH = 256;
+
+    private final int maxSize;
+    private String[] symbols = new String[64];
+    private int size = 0;
+
+    public JsonSymbolTable() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize Maximum number of keys to store
+     */
+    public JsonSymbolTable(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Find the canonical String for a key
+     *
+     * @param buffer Buffer holding the key chars
+     * @param length Number of chars in the key
+     * @param hash String.hashCode of the key chars
+     * @return The canonical String
+     */
+    public String lookup(char[] buffer, int length, int hash) {
+        if (length > MAX_KEY_LENGTH) {
+            return new String(buffer, 0, length);
+        }
+
+        int mask = symbols.length - 1;
+        int idx = spread(hash) & mask;
+
+        String symbol;
+
+        while ((symbol = symbols[idx]) != null) {
+            if (symbol.hashCode() == hash && matches(symbol, buffer, length)) {
+                return symbol;
+            }
+
+            idx = (idx + 1) & mask;
+        }
+
+        symbol = new String(buffer, 0, length);
+
+        add(symbol, idx);
+
+        return symbol;
+    }
+
+    /**
+     * Add an existing String as the canonical instance for its value, so a
+     * parsed key is the same instance as the one passed in. If the value is
+     * already present the existing instance is kept.
+     *
+     * @param subject The String to add
+     * @return The canonical String
+     */
+    public String canonicalize(String subject) {
+        if (subject == null || subject.length() > MAX_KEY_LENGTH) {
+            return subject;
+        }
+
+        int hash = subject.hashCode();
+        int mask = symbols.length - 1;
+        int idx = spread(hash) & mask;
+
+        String symbol;
+
+        while ((symbol = symbols[idx]) != null) {
+            if (symbol.hashCode() == hash && symbol.equals(subject)) {
+                return symbol;
+            }
+
+            idx = (idx + 1) & mask;
+        }
+
+        add(subject, idx);
+
+        return subject;
+    }
+
+    /**
+     * @return Number of canonical keys stored
+     */
+    public int size() {
+        return size;
+    }
+
+    private void add(String symbol, int idx) {
+        if (size >= maxSize) {
+            return;
+        }
+
+        symbols[idx] = symbol;
+        size++;
+
+        // Keep the load factor at or below one half
+        if (size * 2 > symbols.length) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        String[] oldSymbols = symbols;
+
+        symbols = new String[oldSymbols.length * 2];
+
+        int mask = symbols.length - 1;
+
+        for (String symbol : oldSymbols) {
+            if (symbol != null) {
+                int idx = spread(symbol.hashCode()) & mask;
+
+                while (symbols[idx] != null) {
+                    idx = (idx + 1) & mask;
+                }
+
+                symbols[idx] = symbol;
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String symbol, char[] buffer, int length) {
+        if (symbol.length() != length) {
+            return false;
+        }
+
+        for (int x = 0; x < length; x++) {
+            if (symbol.charAt(x) != buffer[x]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,578 @@
+package com.progbits.api.json;
+
+import com.progbits.api.exception.ApiException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Structural index of a UTF-8 JSON document.
+ *
+ * <p>
+ * A single pass over the bytes records one entry per token in an int array:
+ * the token type, the byte offset where it starts, and either the offset where
+ * it ends or, for objects and arrays, the entry index of the matching end.
+ * The scan checks that the document is a single valid JSON value. Values are
+ * not decoded while scanning, {@link #getString} decodes a single string on
+ * request, {@link #getText} returns the raw text of a number or literal, and
+ * {@link #createParser} returns a UTF8JsonParser over the bytes of one value.
+ * </p>
+ */
+public class JsonTape {
+
+    public static final int OBJECT = 1;
+    public static final int ARRAY = 2;
+    public static final int END = 3;
+    public static final int KEY = 4;
+    public static final int STRING = 5;
+    public static final int NUMBER = 6;
+    public static final int TRUE = 7;
+    public static final int FALSE = 8;
+    public static final int NULL = 9;
+
+    // Set on KEY and STRING entries that contain escape sequences
+    private static final int ESCAPED = 0x10;
+    private static final int TYPE_MASK = 0x0F;
+
+    private static final int ENTRY_SIZE = 3;
+
+    // Entries to start with, the tape doubles as tokens are added
+    private static final int INITIAL_ENTRIES = 64;
+
+    // What the scan expects next
+    private static final int S_VALUE = 0;
+    private static final int S_FIRST_VALUE = 1;
+    private static final int S_KEY = 2;
+    private static final int S_FIRST_KEY = 3;
+    private static final int S_COLON = 4;
+    private static final int S_COMMA = 5;
+    private static final int S_DONE = 6;
+
+    private static final byte[] TRUE_BYTES = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE_BYTES = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] NULL_BYTES = {'n', 'u', 'l', 'l'};
+
+    private final byte[] _bytes;
+    private int[] _tape;
+    private int _count = 0;
+
+    private JsonTape(byte[] bytes) {
+        _bytes = bytes;
+        _tape = new int[INITIAL_ENTRIES * ENTRY_SIZE];
+    }
+
+    /**
+     * Index a UTF-8 JSON document. The array is used directly, and is not
+     * copied.
+     *
+     * @param subject The bytes to index
+     * @return The tape for the document
+     * @throws ApiException The document is not valid JSON
+     */
+    public static JsonTape parse(byte[] subject) throws ApiException {
+        return parse(subject, 0, subject.length);
+    }
+
+    /**
+     * Index a range of a UTF-8 JSON document. The array is used directly, and
+     * is not copied.
+     *
+     * @param subject The bytes to index
+     * @param offset First byte of the document
+     * @param length Number of bytes in the document
+     * @return The tape for the document
+     * @throws ApiException The document is not valid JSON
+     */
+    public static JsonTape parse(byte[] subject, int offset, int length) throws ApiException {
+        JsonTape tape = new JsonTape(subject);
+
+        tape.scan(offset, offset + length);
+
+        return tape;
+    }
+
+    /**
+     * Index a JSON String
+     *
+     * @param subject The String to index
+     * @return The tape for the document
+     * @throws ApiException The document is not valid JSON
+     */
+    public static JsonTape parse(String subject) throws ApiException {
+        return parse(subject.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void scan(int pos, int end) throws ApiException {
+        int[] stack = new int[32];
+        int depth = 0;
+        int state = S_VALUE;
+
+        while (pos < end) {
+            int c = _bytes[pos];
+
+            switch (c) {
+                case ' ', '\t', '\n', '\r' -> pos++;
+                case ':' -> {
+                    if (state != S_COLON) {
+                        throw stateError(pos);
+                    }
+
+                    state = S_VALUE;
+                    pos++;
+                }
+                case ',' -> {
+                    if (state != S_COMMA) {
+                        throw stateError(pos);
+                    }
+
+                    state = getType(stack[depth - 1]) == OBJECT ? S_KEY : S_VALUE;
+                    pos++;
+                }
+                case '{', '[' -> {
+                    if (state != S_VALUE && state != S_FIRST_VALUE) {
+                        throw stateError(pos);
+                    }
+
+                    if (depth == stack.length) {
+                        int[] newStack = new int[stack.length * 2];
+
+                        System.arraycopy(stack, 0, newStack, 0, depth);
+
+                        stack = newStack;
+                    }
+
+                    stack[depth++] = add(c == '{' ? OBJECT : ARRAY, pos, -1);
+                    state = c == '{' ? S_FIRST_KEY : S_FIRST_VALUE;
+                    pos++;
+                }
+                case '}', ']' -> {
+                    boolean bObject = c == '}';
+
+                    if (depth == 0 || getType(stack[depth - 1]) != (bObject ? OBJECT : ARRAY)
+                            || (state != S_COMMA && state != (bObject ? S_FIRST_KEY : S_FIRST_VALUE))) {
+                        throw stateError(pos);
+                    }
+
+                    int endIndex = add(END, pos, pos + 1);
+
+                    _tape[stack[--depth] * ENTRY_SIZE + 2] = endIndex;
+                    state = depth == 0 ? S_DONE : S_COMMA;
+                    pos++;
+                }
+                case '"' -> {
+                    int type;
+
+                    if (state == S_KEY || state == S_FIRST_KEY) {
+                        type = KEY;
+                    } else if (state == S_VALUE || state == S_FIRST_VALUE) {
+                        type = STRING;
+                    } else {
+                        throw stateError(pos);
+                    }
+
+                    int start = pos;
+
+                    pos = scanString(pos + 1, end);
+
+                    if (pos < 0) {
+                        type |= ESCAPED;
+                        pos = -pos;
+                    }
+
+                    add(type, start, pos);
+                    state = (type & TYPE_MASK) == KEY ? S_COLON
+                            : depth == 0 ? S_DONE : S_COMMA;
+                }
+                default -> {
+                    if (state != S_VALUE && state != S_FIRST_VALUE) {
+                        throw stateError(pos);
+                    }
+
+                    int start = pos;
+                    int type = literalType(c);
+
+                    pos = scanLiteral(pos, end);
+
+                    if (type == NUMBER ? !isNumber(start, pos) : !isLiteral(type, start, pos)) {
+                        throw new ApiException(520, "Unexpected Character at Offset: " + start);
+                    }
+
+                    add(type, start, pos);
+                    state = depth == 0 ? S_DONE : S_COMMA;
+                }
+            }
+        }
+
+        // An empty document has no root, anything else must be complete
+        if (depth != 0 || (state != S_DONE && _count > 0)) {
+            throw new ApiException(520, "Unexpected End of Input");
+        }
+    }
+
+    private static ApiException stateError(int pos) {
+        return new ApiException(520, "State Incorrect at Offset: " + pos);
+    }
+
+    /**
+     * Find the end of a String, checking its escape sequences
+     *
+     * @param pos Offset after the opening quote
+     * @return Offset after the closing quote, negated if the String has
+     * escape sequences
+     */
+    private int scanString(int pos, int end) throws ApiException {
+        boolean bEscaped = false;
+
+        while (true) {
+            if (pos >= end) {
+                throw new ApiException(520, "Unterminated String");
+            }
+
+            byte b = _bytes[pos++];
+
+            if (b == '"') {
+                return bEscaped ? -pos : pos;
+            } else if (b == '\\') {
+                bEscaped = true;
+
+                byte e = pos < end ? _bytes[pos] : 0;
+
+                if (e == 'u') {
+                    for (int x = 1; x <= 4; x++) {
+                        if (pos + x >= end || Character.digit(_bytes[pos + x], 16) < 0) {
+                            throw new ApiException(520, "Invalid Escape at Offset: " + (pos - 1));
+                        }
+                    }
+
+                    pos += 5;
+                } else if (e == '"' || e == '\\' || e == '/' || e == 'b' || e == 'f'
+                        || e == 'n' || e == 'r' || e == 't') {
+                    pos++;
+                } else {
+                    throw new ApiException(520, "Invalid Escape at Offset: " + (pos - 1));
+                }
+            } else if (b >= 0 && b < 0x20) {
+                throw new ApiException(520, "Control Character in String at Offset: " + (pos - 1));
+            }
+        }
+    }
+
+    private static int literalType(int c) {
+        return switch (c) {
+            case 't' -> TRUE;
+            case 'f' -> FALSE;
+            case 'n' -> NULL;
+            default -> NUMBER;
+        };
+    }
+
+    private int scanLiteral(int pos, int end) {
+        while (pos < end) {
+            switch (_bytes[pos]) {
+                case ',', '}', ']', ':', ' ', '\t', '\n', '\r' -> {
+                    return pos;
+                }
+                default -> pos++;
+            }
+        }
+
+        return pos;
+    }
+
+    private boolean isLiteral(int type, int start, int end) {
+        byte[] literal = type == TRUE ? TRUE_BYTES : type == FALSE ? FALSE_BYTES : NULL_BYTES;
+
+        if (end - start != literal.length) {
+            return false;
+        }
+
+        for (int x = 0; x < literal.length; x++) {
+            if (_bytes[start + x] != literal[x]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Check a number against the JSON grammar, -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?
+     */
+    private boolean isNumber(int pos, int end) {
+        if (pos < end && _bytes[pos] == '-') {
+            pos++;
+        }
+
+        if (pos < end && _bytes[pos] == '0') {
+            pos++;
+        } else {
+            int digits = skipDigits(pos, end);
+
+            if (digits == pos) {
+                return false;
+            }
+
+            pos = digits;
+        }
+
+        if (pos < end && _bytes[pos] == '.') {
+            int digits = skipDigits(pos + 1, end);
+
+            if (digits == pos + 1) {
+                return false;
+            }
+
+            pos = digits;
+        }
+
+        if (pos < end && (_bytes[pos] == 'e' || _bytes[pos] == 'E')) {
+            pos++;
+
+            if (pos < end && (_bytes[pos] == '+' || _bytes[pos] == '-')) {
+                pos++;
+            }
+
+            int digits = skipDigits(pos, end);
+
+            if (digits == pos) {
+                return false;
+            }
+
+            pos = digits;
+        }
+
+        return pos == end;
+    }
+
+    private int skipDigits(int pos, int end) {
+        while (pos < end && _bytes[pos] >= '0' && _bytes[pos] <= '9') {
+            pos++;
+        }
+
+        return pos;
+    }
+
+    private int add(int type, int start, int end) {
+        int idx = _count * ENTRY_SIZE;
+
+        if (idx + ENTRY_SIZE > _tape.length) {
+            int[] newTape = new int[_tape.length * 2];
+
+            System.arraycopy(_tape, 0, newTape, 0, idx);
+
+            _tape = newTape;
+        }
+
+        _tape[idx] = type;
+        _tape[idx + 1] = start;
+        _tape[idx + 2] = end;
+
+        return _count++;
+    }
+
+    /**
+     * @return Number of entries in the tape
+     */
+    public int size() {
+        return _count;
+    }
+
+    /**
+     * @return Entry index of the top level value, or -1 for an empty document
+     */
+    public int root() {
+        return _count > 0 ? 0 : -1;
+    }
+
+    /**
+     * @param index Entry index
+     * @return The entry type, one of the type constants
+     */
+    public int getType(int index) {
+        return _tape[index * ENTRY_SIZE] & TYPE_MASK;
+    }
+
+    /**
+     * Return the entry after a value and all its children
+     *
+     * @param index Entry index of a value
+     * @return Entry index of the next sibling, or of the parent END
+     */
+    public int next(int index) {
+        int type = getType(index);
+
+        if (type == OBJECT || type == ARRAY) {
+            return _tape[index * ENTRY_SIZE + 2] + 1;
+        }
+
+        return index + 1;
+    }
+
+    /**
+     * Find the value of a key in an object
+     *
+     * @param object Entry index of an OBJECT
+     * @param key The key to find
+     * @return Entry index of the value, or -1 if the key is not present
+     */
+    public int find(int object, String key) {
+        if (getType(object) != OBJECT) {
+            return -1;
+        }
+
+        byte[] keyBytes = null;
+        int idx = object + 1;
+
+        while (getType(idx) == KEY) {
+            boolean bMatch;
+
+            if ((_tape[idx * ENTRY_SIZE] & ESCAPED) != 0) {
+                bMatch = key.equals(getString(idx));
+            } else {
+                if (keyBytes == null) {
+                    keyBytes = key.getBytes(StandardCharsets.UTF_8);
+                }
+
+                bMatch = matches(idx, keyBytes);
+            }
+
+            if (bMatch) {
+                return idx + 1;
+            }
+
+            idx = next(idx + 1);
+        }
+
+        return -1;
+    }
+
+    private boolean matches(int index, byte[] keyBytes) {
+        int start = _tape[index * ENTRY_SIZE + 1] + 1;
+        int length = _tape[index * ENTRY_SIZE + 2] - 1 - start;
+
+        if (length != keyBytes.length) {
+            return false;
+        }
+
+        for (int x = 0; x < length; x++) {
+            if (_bytes[start + x] != keyBytes[x]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Return the text of a KEY or STRING entry, decoding escape sequences
+     *
+     * @param index Entry index
+     * @return The text, without quotes
+     */
+    public String getString(int index) {
+        int start = _tape[index * ENTRY_SIZE + 1];
+        int end = _tape[index * ENTRY_SIZE + 2];
+
+        if ((_tape[index * ENTRY_SIZE] & ESCAPED) == 0) {
+            return new String(_bytes, start + 1, end - start - 2, StandardCharsets.UTF_8);
+        }
+
+        return unescape(start + 1, end - 1);
+    }
+
+    /**
+     * Decode a String whose escape sequences were checked by the scan. The
+     * runs between escapes are decoded as UTF-8, a backslash never splits a
+     * multi-byte char.
+     */
+    private String unescape(int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        int run = start;
+        int pos = start;
+
+        while (pos < end) {
+            if (_bytes[pos] != '\\') {
+                pos++;
+
+                continue;
+            }
+
+            if (pos > run) {
+                sb.append(new String(_bytes, run, pos - run, StandardCharsets.UTF_8));
+            }
+
+            byte e = _bytes[pos + 1];
+
+            switch (e) {
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    int value = 0;
+
+                    for (int x = 2; x < 6; x++) {
+                        value = value * 16 + Character.digit(_bytes[pos + x], 16);
+                    }
+
+                    sb.append((char) value);
+                    pos += 4;
+                }
+                default -> sb.append((char) e);
+            }
+
+            pos += 2;
+            run = pos;
+        }
+
+        if (pos > run) {
+            sb.append(new String(_bytes, run, pos - run, StandardCharsets.UTF_8));
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Return the raw text of a NUMBER, TRUE, FALSE or NULL entry
+     *
+     * @param index Entry index
+     * @return The text of the value
+     */
+    public String getText(int index) {
+        int start = _tape[index * ENTRY_SIZE + 1];
+
+        return new String(_bytes, start, _tape[index * ENTRY_SIZE + 2] - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * @param index Entry index
+     * @return Byte offset of the first byte of the value
+     */
+    public int getStart(int index) {
+        return _tape[index * ENTRY_SIZE + 1];
+    }
+
+    /**
+     * @param index Entry index
+     * @return Number of bytes in the value, including quotes and brackets
+     */
+    public int getLength(int index) {
+        int type = getType(index);
+        int start = _tape[index * ENTRY_SIZE + 1];
+
+        if (type == OBJECT || type == ARRAY) {
+            return _tape[_tape[index * ENTRY_SIZE + 2] * ENTRY_SIZE + 2] - start;
+        }
+
+        return _tape[index * ENTRY_SIZE + 2] - start;
+    }
+
+    /**
+     * Create a parser over the bytes of a single value
+     *
+     * @param index Entry index of the value
+     * @return The parser, positioned before the value
+     */
+    public UTF8JsonParser createParser(int index) {
+        return new UTF8JsonParser(_bytes, getStart(index), getLength(index));
+    }
+}
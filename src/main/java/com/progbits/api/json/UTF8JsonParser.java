@@ -4,15 +4,23 @@ import com.progbits.api.exception.ApiException;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
-import java.util.ArrayList;
-import java.util.List;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
 
 /**
  * Simple JSON Streaming Parser
  *
+ * <p>
+ * The parser reads either characters from a Reader, or UTF-8 bytes from an
+ * InputStream, byte[] or ByteBuffer. In byte mode structural characters are
+ * matched directly on the bytes, and only multi-byte sequences inside strings
+ * are decoded. Token text is kept in a reusable buffer, a String is only
+ * created when {@link #getString} is called.
+ * </p>
+ *
  * @author scarr
  */
 public class UTF8JsonParser implements Closeable, AutoCloseable {
@@ -72,24 +80,56 @@ public class UTF8JsonParser implements Closeable, AutoCloseable {
          * End of a JSON array. The position of the parser is after ']'.
          */
         END_ARRAY,
-        
+
         /**
          * End of File found
          */
         EOF
     }
 
+    /**
+     * Smallest type able to hold the current number value
+     */
+    public static enum NumberType {
+        INT, LONG, BIG_INTEGER, DOUBLE, BIG_DECIMAL
+    }
+
+    /**
+     * Default size of the read buffer, in chars or bytes depending on the mode
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 4000;
+
     private Reader _reader;
-    private final StringBuilder _textBuffer = new StringBuilder();
-    private String _currentName;
+    private InputStream _stream;
+    private ByteBuffer _byteSource;
+    private final boolean _byteMode;
+
+    private char[] _textBuffer = new char[128];
+    private int _textLength = 0;
+    private String _currentText;
+    private int _textHash = 0;
+    private JsonSymbolTable _symbols;
     private Event _currentEvent;
     private final byte[] currStateLst = new byte[256];
     private int currStateCnt = 0;
-    
+
     private byte currState = -1;
-    
-    private char iRead;
+
+    private int iRead;
     private boolean usePrev = false;
+    private int pendingChar = -1;
+
+    private boolean numberParsed = false;
+    private boolean numberOverflow = false;
+    private long numberLong;
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Largest mantissa that is exactly representable as a double, 2^53
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
 
     final static char STRUCT_BEGIN_ARRAY = '['; // [
     final static char STRUCT_END_ARRAY = ']'; // ]
@@ -108,116 +148,305 @@ public class UTF8JsonParser implements Closeable, AutoCloseable {
     final static char INT_LINEFEED = '\f';
     final static char INT_CARRIAGERETURN = '\r';
 
+    final static int CHAR_EOF = -1;
+
     int iCurrPtr = 0;
     int iEnd = 0;
-    char[] charBuff = new char[4000];
+    char[] charBuff;
+    byte[] byteBuff;
 
     /**
      * Create a JsonParser using String
-     * 
+     *
      * @param subject The String to Parse
      */
     public UTF8JsonParser(String subject) {
-        _reader = new StringReader(subject);
+        this(new StringReader(subject));
     }
 
     /**
      * Create a JsonParser using a Reader
-     * 
+     *
      * @param reader The Reader To Parse
      */
     public UTF8JsonParser(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a JsonParser using a Reader
+     *
+     * @param reader The Reader To Parse
+     * @param bufferSize Number of chars to read at a time
+     */
+    public UTF8JsonParser(Reader reader, int bufferSize) {
         _reader = reader;
+        _byteMode = false;
+        charBuff = new char[bufferSize];
     }
 
     /**
-     * Create a JsonParser using InputStream
-     * 
+     * Create a JsonParser reading UTF-8 bytes from an InputStream
+     *
      * @param is The InputStream to Parse
      */
     public UTF8JsonParser(InputStream is) {
-        _reader = new InputStreamReader(is);
+        this(is, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a JsonParser reading UTF-8 bytes from an InputStream
+     *
+     * @param is The InputStream to Parse
+     * @param bufferSize Number of bytes to read at a time
+     */
+    public UTF8JsonParser(InputStream is, int bufferSize) {
+        _stream = is;
+        _byteMode = true;
+        byteBuff = new byte[bufferSize];
+    }
+
+    /**
+     * Create a JsonParser over UTF-8 encoded bytes. The array is used
+     * directly, and is not copied.
+     *
+     * @param subject The bytes to Parse
+     */
+    public UTF8JsonParser(byte[] subject) {
+        this(subject, 0, subject.length);
+    }
+
+    /**
+     * Create a JsonParser over a range of UTF-8 encoded bytes. The array is
+     * used directly, and is not copied.
+     *
+     * @param subject The bytes to Parse
+     * @param offset First byte to parse
+     * @param length Number of bytes to parse
+     */
+    public UTF8JsonParser(byte[] subject, int offset, int length) {
+        _byteMode = true;
+        byteBuff = subject;
+        iCurrPtr = offset;
+        iEnd = offset + length;
+    }
+
+    /**
+     * Create a JsonParser over the remaining UTF-8 bytes of a ByteBuffer
+     *
+     * @param subject The ByteBuffer to Parse
+     */
+    public UTF8JsonParser(ByteBuffer subject) {
+        this(subject, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a JsonParser over the remaining UTF-8 bytes of a ByteBuffer. Heap
+     * buffers are read in place, direct buffers are copied in chunks of
+     * bufferSize.
+     *
+     * @param subject The ByteBuffer to Parse
+     * @param bufferSize Number of bytes to copy at a time for direct buffers
+     */
+    public UTF8JsonParser(ByteBuffer subject, int bufferSize) {
+        _byteMode = true;
+
+        if (subject.hasArray()) {
+            byteBuff = subject.array();
+            iCurrPtr = subject.arrayOffset() + subject.position();
+            iEnd = subject.arrayOffset() + subject.limit();
+        } else {
+            _byteSource = subject;
+            byteBuff = new byte[bufferSize];
+        }
     }
 
     /**
      * Close the Parser
-     * 
-     * @throws IOException 
+     *
+     * @throws IOException
      */
     @Override
     public void close() throws IOException {
         _reader = null;
+        _stream = null;
+        _byteSource = null;
     }
 
     /**
      * Get the Current Token Event
-     * 
+     *
      * @return The Current Token Event
      */
     public Event currentEvent() {
         return _currentEvent;
     }
 
-    private char getNextChar() throws ApiException {
-        if (iCurrPtr >= iEnd) {
-            loadMore();
+    /**
+     * Set the table used to canonicalize key names. Sharing a table between
+     * parsers that run one after the other keeps the key Strings of repeated
+     * documents identical.
+     *
+     * @param symbols The Symbol Table to use
+     */
+    public void setSymbolTable(JsonSymbolTable symbols) {
+        _symbols = symbols;
+    }
+
+    /**
+     * Get the table used to canonicalize key names
+     *
+     * @return The Symbol Table, created on first use
+     */
+    public JsonSymbolTable getSymbolTable() {
+        if (_symbols == null) {
+            _symbols = new JsonSymbolTable();
+        }
+
+        return _symbols;
+    }
+
+    private int getNextChar() throws ApiException {
+        if (_byteMode) {
+            return getNextByteChar();
+        }
+
+        if (iCurrPtr >= iEnd && !loadMore()) {
+            return CHAR_EOF;
         }
 
         return charBuff[iCurrPtr++];
     }
 
-    private char getNextCharIgnoreWhitespace() throws ApiException {
-        char respChar = 0;
+    private int getNextByte() throws ApiException {
+        if (iCurrPtr >= iEnd && !loadMore()) {
+            return CHAR_EOF;
+        }
+
+        return byteBuff[iCurrPtr++] & 0xFF;
+    }
+
+    private int getNextByteChar() throws ApiException {
+        if (pendingChar != -1) {
+            int respChar = pendingChar;
+            pendingChar = -1;
+
+            return respChar;
+        }
+
+        int lead = getNextByte();
+
+        if (lead < 0x80) {
+            // ASCII, and CHAR_EOF
+            return lead;
+        }
+
+        int codePoint;
+        int needed;
+
+        if ((lead & 0xE0) == 0xC0) {
+            codePoint = lead & 0x1F;
+            needed = 1;
+        } else if ((lead & 0xF0) == 0xE0) {
+            codePoint = lead & 0x0F;
+            needed = 2;
+        } else if ((lead & 0xF8) == 0xF0) {
+            codePoint = lead & 0x07;
+            needed = 3;
+        } else {
+            throw new ApiException(521, "Invalid UTF-8 Byte: " + lead);
+        }
+
+        for (int x = 0; x < needed; x++) {
+            int next = getNextByte();
+
+            if (next == CHAR_EOF || (next & 0xC0) != 0x80) {
+                throw new ApiException(521, "Invalid UTF-8 Sequence");
+            }
+
+            codePoint = (codePoint << 6) | (next & 0x3F);
+        }
+
+        if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            pendingChar = Character.lowSurrogate(codePoint);
+
+            return Character.highSurrogate(codePoint);
+        }
+
+        return codePoint;
+    }
+
+    private int getNextCharIgnoreWhitespace() throws ApiException {
+        int respChar = 0;
         boolean bContinue = true;
-        
+
         while (bContinue) {
             respChar = getNextChar();
-            
+
             switch (respChar) {
                 case INT_SPACE, INT_NEWLINE, INT_TAB, INT_CARRIAGERETURN -> bContinue = true;
                 default -> bContinue = false;
             }
         }
-        
+
         return respChar;
     }
-    
+
     private boolean loadMore() throws ApiException {
         try {
-            if (_reader != null) {
-                int count = _reader.read(charBuff, 0, charBuff.length);
+            int count = -1;
 
-                if (count > 0) {
-                    iCurrPtr = 0;
-                    iEnd = count;
+            if (_reader != null) {
+                count = _reader.read(charBuff, 0, charBuff.length);
+            } else if (_stream != null) {
+                count = _stream.read(byteBuff, 0, byteBuff.length);
+            } else if (_byteSource != null && _byteSource.hasRemaining()) {
+                count = Math.min(_byteSource.remaining(), byteBuff.length);
 
-                    return true;
-                }
+                _byteSource.get(byteBuff, 0, count);
+            }
 
-                iCurrPtr = iEnd = 0;
+            if (count > 0) {
+                iCurrPtr = 0;
+                iEnd = count;
 
-                return false;
+                return true;
             }
         } catch (IOException io) {
             throw new ApiException(710, io.getMessage());
         }
 
+        iCurrPtr = iEnd;
+
         return false;
     }
 
+    private void appendText(int c) {
+        if (_textLength == _textBuffer.length) {
+            char[] newBuffer = new char[_textBuffer.length * 2];
+
+            System.arraycopy(_textBuffer, 0, newBuffer, 0, _textLength);
+
+            _textBuffer = newBuffer;
+        }
+
+        _textBuffer[_textLength++] = (char) c;
+    }
+
     /**
      * Get the next Token Event
-     * 
+     *
      * @return The Token Event for the new Current Token
-     * 
+     *
      * @throws ApiException The function ran into an exception
      */
     public Event nextToken() throws ApiException {
         Event event = null;
 
-        _textBuffer.setLength(0);
-        _currentName = null;
-        
+        _textLength = 0;
+        _currentText = null;
+        numberParsed = false;
+
         while (true) {
             if (!usePrev) {
                 iRead = getNextCharIgnoreWhitespace();
@@ -225,7 +454,7 @@ public class UTF8JsonParser implements Closeable, AutoCloseable {
                 usePrev = false;
             }
 
-            if (iRead == -1) {
+            if (iRead == CHAR_EOF) {
                 event = Event.EOF;
                 break;
             }
@@ -236,10 +465,9 @@ public class UTF8JsonParser implements Closeable, AutoCloseable {
                 break;
             }
 
-            if (_currentName == null && currState != 2) {
+            if (currState != 2) {
                 if (iRead == STRUCT_QUOTES) {
                     readToEndQuote();
-                    _currentName = getString();
                     event = Event.KEY_NAME;
                     break;
                 }
@@ -256,7 +484,7 @@ public class UTF8JsonParser implements Closeable, AutoCloseable {
             if (currState == 2) {
                 // Outside specific codes
                 usePrev = true;
-                
+
                 event = readValue();
                 if (event != null) {
                     break;
@@ -272,34 +500,30 @@ public class UTF8JsonParser implements Closeable, AutoCloseable {
     private void readToEndQuote() throws ApiException {
 
         boolean inBackslash = false;
+        int hash = 0;
+        int length = _textLength;
 
         OUTER:
         while (true) {
             iRead = getNextChar();
-            if (inBackslash) {
-                switch (iRead) {
-                    case 110 -> {
-                        _textBuffer.append(INT_NEWLINE);
-                    }
-
-                    case 116 -> {
-                        _textBuffer.append(INT_TAB);
-                    }
-
-                    case 34 -> {
-                        _textBuffer.append(STRUCT_QUOTES);
-                    }
 
-                    case 102 -> {
-                        _textBuffer.append(INT_LINEFEED);
-                    }
+            if (iRead == CHAR_EOF) {
+                throw new ApiException(520, "Unterminated String");
+            }
 
-                    case 114 -> {
-                        _textBuffer.append(INT_CARRIAGERETURN);
+            if (inBackslash) {
+                switch (iRead) {
+                    case 'n' -> appendText(INT_NEWLINE);
+                    case 't' -> appendText(INT_TAB);
+                    case '"' -> appendText(STRUCT_QUOTES);
+                    case 'f' -> appendText(INT_LINEFEED);
+                    case 'r' -> appendText(INT_CARRIAGERETURN);
+                    case 'b' -> appendText('\b');
+                    case INT_BACKSLASH, INT_SLASH -> appendText(iRead);
+                    case 'u' -> appendText(readUnicodeEscape());
+                    default -> {
+                        // Unknown escapes are dropped
                     }
-
-                    default ->
-                        _textBuffer.append("");
                 }
 
                 inBackslash = false;
@@ -309,11 +533,34 @@ public class UTF8JsonParser implements Closeable, AutoCloseable {
                         break OUTER;
                     }
                     case INT_BACKSLASH -> inBackslash = true;
-                    default -> _textBuffer.append(iRead);
+                    default -> appendText(iRead);
                 }
             }
+
+            // Hash matches String.hashCode, so the symbol table can compare
+            // against the canonical Strings without rehashing
+            if (_textLength > length) {
+                hash = 31 * hash + _textBuffer[length++];
+            }
+        }
+
+        _textHash = hash;
+    }
+
+    private int readUnicodeEscape() throws ApiException {
+        int value = 0;
+
+        for (int x = 0; x < 4; x++) {
+            int digit = Character.digit(getNextChar(), 16);
+
+            if (digit < 0) {
+                throw new ApiException(520, "Invalid Unicode Escape");
+            }
+
+            value = (value << 4) | digit;
         }
 
+        return value;
     }
 
     private Event readValue() throws ApiException {
@@ -322,7 +569,7 @@ public class UTF8JsonParser implements Closeable, AutoCloseable {
             int iType = 0;
 
             boolean bContinue = true;
-            
+
             while (bContinue) {
                 if (usePrev) {
                     usePrev = false;
@@ -330,11 +577,15 @@ public class UTF8JsonParser implements Closeable, AutoCloseable {
                     iRead = getNextChar();
                 }
 
+                if (iRead == CHAR_EOF) {
+                    break;
+                }
+
                 if (iRead == STRUCT_QUOTES) {
                     iType = 1;
-                    _textBuffer.setLength(0);
+                    _textLength = 0;
                     readToEndQuote();
-                    
+
                     bContinue = readToControlChar(false);
                 } else if (((iRead >= 48 && iRead <= 57) || iRead == 45 || iRead == 46 || iRead == 101) && (iType == 0 || iType == 2)) {
                     // Number Parsing
@@ -351,7 +602,7 @@ public class UTF8JsonParser implements Closeable, AutoCloseable {
                     } else {
                         iType = 5;
                     }
-                    
+
                     bContinue = readToControlChar(false);
                 } else if (iRead == STRUCT_BEGIN_ARRAY || iRead == STRUCT_BEGIN_OBJECT ) {
                     usePrev = true;
@@ -363,7 +614,7 @@ public class UTF8JsonParser implements Closeable, AutoCloseable {
                 case 1 ->
                     event = Event.VALUE_STRING;
                 case 2 -> {
-                    if (_textBuffer.indexOf(".") > -1) {
+                    if (isFloatText()) {
                         event = Event.VALUE_NUMBER_FLOAT;
                     } else {
                         event = Event.VALUE_NUMBER_INT;
@@ -383,34 +634,115 @@ public class UTF8JsonParser implements Closeable, AutoCloseable {
         return event;
     }
 
+    private boolean isFloatText() {
+        for (int x = 0; x < _textLength; x++) {
+            switch (_textBuffer[x]) {
+                case '.', 'e', 'E' -> {
+                    return true;
+                }
+                default -> {
+                }
+            }
+        }
+
+        return false;
+    }
+
     private boolean readToControlChar(boolean useTextBuffer) throws ApiException {
         boolean bRet = true;
-        
-        if (useTextBuffer) _textBuffer.append(iRead);
-        
+
+        if (useTextBuffer) appendText(iRead);
+
         while (bRet) {
             iRead = getNextChar();
-            
+
             switch (iRead) {
-                case STRUCT_BEGIN_ARRAY, STRUCT_BEGIN_OBJECT, 
+                case STRUCT_BEGIN_ARRAY, STRUCT_BEGIN_OBJECT,
                     STRUCT_END_OBJECT, STRUCT_END_ARRAY  -> {
                     usePrev = true;
                     bRet = false;
                 }
-                    
-                case STRUCT_COMMA -> {
+
+                case STRUCT_COMMA, CHAR_EOF -> {
                     bRet = false;
                 }
-                    
+
+                case INT_SPACE, INT_NEWLINE, INT_TAB, INT_CARRIAGERETURN -> {
+                    // Whitespace is never part of a value
+                }
+
                 default -> {
-                    if (useTextBuffer) _textBuffer.append(iRead);
+                    if (useTextBuffer) appendText(iRead);
                 }
             }
         }
-        
+
         return bRet;
     }
-    
+
+    /**
+     * Skip the children of the current START_OBJECT or START_ARRAY, leaving
+     * the parser on the matching END_OBJECT or END_ARRAY. Brackets are matched
+     * on the raw input, no tokens or text are created for the skipped values.
+     * For any other event nothing is skipped.
+     *
+     * @throws ApiException The input ended before the matching bracket
+     */
+    public void skipChildren() throws ApiException {
+        Event endEvent;
+
+        if (_currentEvent == Event.START_OBJECT) {
+            endEvent = Event.END_OBJECT;
+        } else if (_currentEvent == Event.START_ARRAY) {
+            endEvent = Event.END_ARRAY;
+        } else {
+            return;
+        }
+
+        int depth = 1;
+        boolean inString = false;
+        boolean inBackslash = false;
+
+        while (depth > 0) {
+            // Structural chars are ASCII, so bytes do not need decoding
+            int c = _byteMode ? getNextByte() : getNextChar();
+
+            if (c == CHAR_EOF) {
+                throw new ApiException(520, "Unexpected End of Input");
+            }
+
+            if (inString) {
+                if (inBackslash) {
+                    inBackslash = false;
+                } else if (c == INT_BACKSLASH) {
+                    inBackslash = true;
+                } else if (c == STRUCT_QUOTES) {
+                    inString = false;
+                }
+            } else {
+                switch (c) {
+                    case STRUCT_QUOTES -> inString = true;
+                    case STRUCT_BEGIN_ARRAY, STRUCT_BEGIN_OBJECT -> depth++;
+                    case STRUCT_END_ARRAY, STRUCT_END_OBJECT -> depth--;
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        currStateCnt--;
+
+        if (currStateCnt > -1) {
+            currState = currStateLst[currStateCnt];
+        } else {
+            currState = -1;
+        }
+
+        _textLength = 0;
+        _currentText = null;
+        _currentEvent = endEvent;
+    }
+
     private Event isStruct() throws ApiException {
         switch (iRead) {
             case STRUCT_BEGIN_ARRAY -> {
@@ -428,7 +760,7 @@ public class UTF8JsonParser implements Closeable, AutoCloseable {
             case STRUCT_END_OBJECT -> {
                 if (currState == 1) {
                     currStateCnt--;
-                    
+
                     if (currStateCnt > -1) {
                         currState = currStateLst[currStateCnt];
                     } else {
@@ -437,13 +769,13 @@ public class UTF8JsonParser implements Closeable, AutoCloseable {
                 } else {
                     throw new ApiException(520, "State Incorrect");
                 }
-                
+
                 return Event.END_OBJECT;
             }
             case STRUCT_END_ARRAY -> {
                 if (currState == 2) {
                     currStateCnt--;
-                    
+
                     if (currStateCnt > -1) {
                         currState = currStateLst[currStateCnt];
                     } else {
@@ -452,7 +784,7 @@ public class UTF8JsonParser implements Closeable, AutoCloseable {
                 } else {
                     throw new ApiException(520, "State Incorrect");
                 }
-                
+
                 return Event.END_ARRAY;
             }
             default -> {
@@ -462,47 +794,364 @@ public class UTF8JsonParser implements Closeable, AutoCloseable {
     }
 
     /**
-     * Get Current Token Buffer as String
-     * 
+     * Get Current Token Buffer as String. Key names are returned as the
+     * canonical String from the Symbol Table.
+     *
      * @return String Representation of the Buffer
      */
     public String getString() {
-        return _textBuffer.toString();
+        if (_currentText == null) {
+            if (_currentEvent == Event.KEY_NAME) {
+                _currentText = getSymbolTable().lookup(_textBuffer, _textLength, _textHash);
+            } else {
+                _currentText = new String(_textBuffer, 0, _textLength);
+            }
+        }
+
+        return _currentText;
+    }
+
+    /**
+     * Compare the Current Token Buffer to a String, without creating a String
+     *
+     * @param value The String to compare
+     * @return true if the buffer holds the same text
+     */
+    public boolean textEquals(String value) {
+        if (value.length() != _textLength) {
+            return false;
+        }
+
+        for (int x = 0; x < _textLength; x++) {
+            if (value.charAt(x) != _textBuffer[x]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private String getText() {
+        return new String(_textBuffer, 0, _textLength);
+    }
+
+    /**
+     * Parse the integral value in the text buffer. Sets numberOverflow if the
+     * value does not fit in a long.
+     */
+    private void parseIntegral() {
+        if (numberParsed) {
+            return;
+        }
+
+        if (_currentEvent != Event.VALUE_NUMBER_INT) {
+            throw new NumberFormatException("Not an Integer Value: " + getText());
+        }
+
+        numberParsed = true;
+        numberOverflow = false;
+        numberLong = 0;
+
+        int x = 0;
+        boolean negative = false;
+
+        if (_textLength > 0 && (_textBuffer[0] == '-' || _textBuffer[0] == '+')) {
+            negative = _textBuffer[0] == '-';
+            x = 1;
+        }
+
+        if (x == _textLength) {
+            throw new NumberFormatException("Invalid Number: " + getText());
+        }
+
+        // Accumulate negatively, the negative range is larger than the positive
+        long result = 0;
+        long multMin = Long.MIN_VALUE / 10;
+
+        for (; x < _textLength; x++) {
+            int digit = _textBuffer[x] - '0';
+
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid Number: " + getText());
+            }
+
+            if (result < multMin) {
+                numberOverflow = true;
+                return;
+            }
+
+            result *= 10;
+
+            if (result < Long.MIN_VALUE + digit) {
+                numberOverflow = true;
+                return;
+            }
+
+            result -= digit;
+        }
+
+        if (!negative) {
+            if (result == Long.MIN_VALUE) {
+                numberOverflow = true;
+                return;
+            }
+
+            result = -result;
+        }
+
+        numberLong = result;
+    }
+
+    /**
+     * Get the type required to hold the current number without loss
+     *
+     * @return NumberType for the current VALUE_NUMBER_INT or
+     * VALUE_NUMBER_FLOAT
+     */
+    public NumberType getNumberType() {
+        if (_currentEvent == Event.VALUE_NUMBER_FLOAT) {
+            return Double.isInfinite(getDoubleValue()) ? NumberType.BIG_DECIMAL : NumberType.DOUBLE;
+        }
+
+        parseIntegral();
+
+        if (numberOverflow) {
+            return NumberType.BIG_INTEGER;
+        } else if (numberLong >= Integer.MIN_VALUE && numberLong <= Integer.MAX_VALUE) {
+            return NumberType.INT;
+        } else {
+            return NumberType.LONG;
+        }
+    }
+
+    /**
+     * Get the current number as the smallest type that holds it
+     *
+     * @return Integer, Long, BigInteger, Double or BigDecimal
+     */
+    public Number getNumberValue() {
+        return switch (getNumberType()) {
+            case INT -> (int) numberLong;
+            case LONG -> numberLong;
+            case BIG_INTEGER -> getBigIntegerValue();
+            case DOUBLE -> getDoubleValue();
+            case BIG_DECIMAL -> getBigDecimalValue();
+        };
+    }
+
+    /**
+     * Get the current integer number, without creating a String
+     *
+     * @return The value as an int
+     * @throws ArithmeticException If the value is outside the int range
+     */
+    public int getIntValue() {
+        long value = getLongValue();
+
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new ArithmeticException("Numeric value out of range of int: " + getText());
+        }
+
+        return (int) value;
+    }
+
+    /**
+     * Get the current integer number, without creating a String
+     *
+     * @return The value as a long
+     * @throws ArithmeticException If the value is outside the long range
+     */
+    public long getLongValue() {
+        parseIntegral();
+
+        if (numberOverflow) {
+            throw new ArithmeticException("Numeric value out of range of long: " + getText());
+        }
+
+        return numberLong;
+    }
+
+    /**
+     * Get the current number as a double. Values with up to 15 significant
+     * digits and a small exponent are converted without creating a String.
+     *
+     * @return The value as a double
+     */
+    public double getDoubleValue() {
+        if (_currentEvent == Event.VALUE_NUMBER_INT) {
+            parseIntegral();
+
+            if (!numberOverflow) {
+                return numberLong;
+            }
+        }
+
+        int x = 0;
+        boolean negative = false;
+
+        if (_textLength > 0 && (_textBuffer[0] == '-' || _textBuffer[0] == '+')) {
+            negative = _textBuffer[0] == '-';
+            x = 1;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean inFraction = false;
+        boolean bFast = x < _textLength;
+
+        for (; x < _textLength && bFast; x++) {
+            char c = _textBuffer[x];
+
+            if (c >= '0' && c <= '9') {
+                if (mantissa == 0 && c == '0') {
+                    // Leading zeros are not significant
+                    if (inFraction) {
+                        scale--;
+                    }
+                } else {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digits++;
+
+                    if (inFraction) {
+                        scale--;
+                    }
+                }
+
+                bFast = digits <= 15;
+            } else if (c == '.' && !inFraction) {
+                inFraction = true;
+            } else if (c == 'e' || c == 'E') {
+                int exponent = 0;
+                boolean negExponent = false;
+
+                x++;
+
+                if (x < _textLength && (_textBuffer[x] == '-' || _textBuffer[x] == '+')) {
+                    negExponent = _textBuffer[x] == '-';
+                    x++;
+                }
+
+                if (x == _textLength) {
+                    bFast = false;
+                }
+
+                for (; x < _textLength && bFast; x++) {
+                    int digit = _textBuffer[x] - '0';
+
+                    if (digit < 0 || digit > 9 || exponent > 1000) {
+                        bFast = false;
+                    } else {
+                        exponent = exponent * 10 + digit;
+                    }
+                }
+
+                scale += negExponent ? -exponent : exponent;
+                break;
+            } else {
+                bFast = false;
+            }
+        }
+
+        if (bFast && mantissa < MAX_EXACT_MANTISSA) {
+            double value;
+
+            if (mantissa == 0) {
+                value = 0D;
+            } else if (scale >= 0 && scale < POWERS_OF_TEN.length) {
+                value = mantissa * POWERS_OF_TEN[scale];
+            } else if (scale < 0 && -scale < POWERS_OF_TEN.length) {
+                value = mantissa / POWERS_OF_TEN[-scale];
+            } else {
+                return Double.parseDouble(getText());
+            }
+
+            return negative ? -value : value;
+        }
+
+        return Double.parseDouble(getText());
+    }
+
+    /**
+     * Get the current number as a float
+     *
+     * @return The value as a float
+     */
+    public float getFloatValue() {
+        if (_currentEvent == Event.VALUE_NUMBER_INT) {
+            parseIntegral();
+
+            if (!numberOverflow) {
+                return numberLong;
+            }
+        }
+
+        return Float.parseFloat(getText());
+    }
+
+    /**
+     * Get the current number as a BigDecimal, for values outside the double
+     * range or precision
+     *
+     * @return The value as a BigDecimal
+     */
+    public BigDecimal getBigDecimalValue() {
+        return new BigDecimal(_textBuffer, 0, _textLength);
+    }
+
+    /**
+     * Get the current number as a BigInteger, for values outside the long
+     * range
+     *
+     * @return The value as a BigInteger
+     */
+    public BigInteger getBigIntegerValue() {
+        if (_currentEvent == Event.VALUE_NUMBER_INT) {
+            parseIntegral();
+
+            if (!numberOverflow) {
+                return BigInteger.valueOf(numberLong);
+            }
+
+            return new BigInteger(getText());
+        }
+
+        return getBigDecimalValue().toBigInteger();
     }
 
     /**
      * Get Current Token Buffer as Integer
-     * 
+     *
      * @return Integer Representation of the Buffer
      */
     public Integer getInt() {
-        return Integer.valueOf(_textBuffer.toString().trim());
+        return getIntValue();
     }
 
     /**
      * Get Current Token Buffer as Long
-     * 
+     *
      * @return Long Representation of the Buffer
      */
     public Long getLong() {
-        return Long.valueOf(_textBuffer.toString().trim());
+        return getLongValue();
     }
 
     /**
      * Get Current Token Buffer as Float
-     * 
+     *
      * @return Float Representation of the Buffer
      */
     public Float getFloat() {
-        return Float.valueOf(_textBuffer.toString().trim());
+        return getFloatValue();
     }
 
     /**
      * Get Current Token Buffer as Double
-     * 
+     *
      * @return Double Representation of the Buffer
      */
     public Double getDouble() {
-        return Double.valueOf(_textBuffer.toString().trim());
+        return getDoubleValue();
     }
 }
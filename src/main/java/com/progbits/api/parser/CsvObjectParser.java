@@ -5,24 +5,19 @@ import com.progbits.api.exception.ApiClassNotFoundException;
 import com.progbits.api.exception.ApiException;
 import com.progbits.api.formaters.TransformDate;
 import com.progbits.api.formaters.TransformDecimal;
-import com.progbits.api.formaters.TransformNumber;
 import com.progbits.api.formaters.TransformString;
 import com.progbits.api.model.ApiClass;
 import com.progbits.api.model.ApiClasses;
 import com.progbits.api.model.ApiObject;
-import java.io.BufferedReader;
+import com.progbits.api.plan.ClassPlan;
+import com.progbits.api.plan.FieldPlan;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
 
 /**
  *
@@ -34,76 +29,84 @@ public class CsvObjectParser implements ObjectParser {
 
     private String _mainClass;
     private ApiClasses _classes;
-    private BufferedReader br = null;
     private Map<String, String> _props;
 
-    private CSVParser _parser = null;
-    private Iterator<CSVRecord> _iterator;
+    private CsvTokenizer _tokenizer = null;
+    private FieldPlan[] _columns;
+    private int[] _columnIndex;
+    private String[] _header;
     private List<String> parseErrors;
     private Throwable throwException;
 
-    private Map<String, DateTimeFormatter> _dtFormats = new HashMap<>();
-
     private static enum CONSTANTS {
-        IgnoreHeader, escapeCharacter, Delimiter
+        IgnoreHeader, escapeCharacter, Delimiter, UseHeader, IncludeFields
     };
 
+    // Returned for field types that are not read from CSV
+    private static final Object NO_VALUE = new Object();
+
     @Override
     public void initStream(ApiClasses classes, String mainClass,
             Map<String, String> properties, InputStream in) throws ApiException {
-        init(classes, mainClass, properties, new BufferedReader(new InputStreamReader(in)));
+        // The tokenizer does its own buffering
+        init(classes, mainClass, properties, new InputStreamReader(in));
     }
 
     @Override
     public void init(ApiClasses classes, String mainClass,
             Map<String, String> properties, Reader in) throws ApiException {
-        if (in instanceof BufferedReader) {
-            br = (BufferedReader) in;
-        } else {
-            br = new BufferedReader(in);
-        }
+        init(classes, mainClass, properties, in, null);
+    }
 
+    /**
+     * Setup parsing with the column names already known, for input that does
+     * not start with the header row
+     *
+     * @param header Column names, or null to read them from the input when
+     * UseHeader is true
+     */
+    void init(ApiClasses classes, String mainClass,
+            Map<String, String> properties, Reader in, String[] header) throws ApiException {
         _props = properties;
         _classes = classes;
         _mainClass = mainClass;
 
         try {
-            CSVFormat format = CSVFormat.DEFAULT;
+            char delimiter = ',';
+            int escape = -1;
 
             if (_props != null) {
                 if (_props.containsKey(CONSTANTS.escapeCharacter.name())) {
-                    format = format.withEscape(_props.get(CONSTANTS.escapeCharacter.name()).charAt(0));
+                    escape = _props.get(CONSTANTS.escapeCharacter.name()).charAt(0);
                 }
 
                 if (_props.containsKey(CONSTANTS.Delimiter.name())) {
                     if ("tab".equalsIgnoreCase(_props.get(CONSTANTS.Delimiter.name()))) {
-                        format = format.withDelimiter("\t".charAt(0));
+                        delimiter = '\t';
                     } else {
-                        format = format.withDelimiter(_props.get(CONSTANTS.Delimiter.name()).charAt(0));
+                        delimiter = _props.get(CONSTANTS.Delimiter.name()).charAt(0);
                     }
-                    format = format.withDelimiter(_props.get(CONSTANTS.Delimiter.name()).charAt(0));
                 }
             }
 
             ApiClass cls = _classes.getClass(mainClass);
 
-            List<String> fldNames = new ArrayList<>();
+            // The tokenizer does its own buffering
+            _tokenizer = new CsvTokenizer(in, delimiter, escape);
 
-            for (ApiObject fld : cls.getList("fields")) {
-                fldNames.add(fld.getString("name"));
+            if (header == null && _props != null
+                    && "true".equalsIgnoreCase(_props.get(CONSTANTS.UseHeader.name()))) {
+                header = readHeader(_tokenizer);
+            } else if (_props != null && "true".equalsIgnoreCase(_props.get(CONSTANTS.IgnoreHeader.name()))) {
+                // Skip over first row, due to it being headers.
+                _tokenizer.nextRecord();
             }
 
-            format.withHeader(fldNames.toArray(new String[]{}));
+            _header = header;
 
-            _parser = format.parse(in);
-            _iterator = _parser.iterator();
+            mapColumns(ClassPlan.of(cls), header,
+                    FieldProjection.compile(_props != null ? _props.get(CONSTANTS.IncludeFields.name()) : null));
 
-            if ("true".equalsIgnoreCase(_props.get(CONSTANTS.IgnoreHeader.name()))) {
-                // Skip over first row, due to it being headers.
-                if (_iterator.hasNext()) {
-                    _iterator.next();
-                }
-            }
             this.parseErrors = new ArrayList<>();
 
         } catch (Exception io) {
@@ -111,91 +114,174 @@ public class CsvObjectParser implements ObjectParser {
         }
     }
 
+    /**
+     * Read the next record as column names
+     */
+    static String[] readHeader(CsvTokenizer tokenizer) throws IOException {
+        if (!tokenizer.nextRecord()) {
+            return new String[0];
+        }
+
+        String[] header = new String[tokenizer.getFieldCount()];
+
+        for (int x = 0; x < header.length; x++) {
+            header[x] = tokenizer.getString(x).trim();
+        }
+
+        return header;
+    }
+
+    /**
+     * Decide which column each field is read from. Without a header, fields
+     * are read by position. With IncludeFields, the other columns are skipped
+     * without being converted or copied.
+     */
+    private void mapColumns(ClassPlan plan, String[] header, FieldProjection include) {
+        List<FieldPlan> lstColumns = new ArrayList<>();
+        List<Integer> lstIndex = new ArrayList<>();
+
+        if (header == null) {
+            List<FieldPlan> fields = plan.getFields();
+
+            for (int x = 0; x < fields.size(); x++) {
+                if (include == null || include.includes(fields.get(x).getName())) {
+                    lstColumns.add(fields.get(x));
+                    lstIndex.add(x);
+                }
+            }
+        } else {
+            for (int x = 0; x < header.length; x++) {
+                FieldPlan fld = findField(plan, header[x]);
+
+                if (fld != null && (include == null || include.includes(fld.getName()))) {
+                    lstColumns.add(fld);
+                    lstIndex.add(x);
+                }
+            }
+        }
+
+        _columns = lstColumns.toArray(new FieldPlan[0]);
+        _columnIndex = new int[_columns.length];
+
+        int maxColumn = -1;
+
+        for (int x = 0; x < _columnIndex.length; x++) {
+            _columnIndex[x] = lstIndex.get(x);
+
+            maxColumn = Math.max(maxColumn, _columnIndex[x]);
+        }
+
+        if (include != null || header != null) {
+            boolean[] mask = new boolean[maxColumn + 1];
+
+            for (int column : _columnIndex) {
+                mask[column] = true;
+            }
+
+            _tokenizer.setColumnMask(mask);
+        }
+    }
+
+    /**
+     * @return Column names from the header row, null when columns are read by
+     * position
+     */
+    String[] getHeader() {
+        return _header;
+    }
+
+    private FieldPlan findField(ClassPlan plan, String name) {
+        FieldPlan fld = plan.get(name);
+
+        if (fld == null) {
+            for (FieldPlan test : plan.getFields()) {
+                if (name.equalsIgnoreCase(test.getName())) {
+                    return test;
+                }
+            }
+        }
+
+        return fld;
+    }
+
     @Override
     public boolean next() throws ApiException, ApiClassNotFoundException {
 
         this.parseErrors.clear();
         this.throwException = null;
 
-        if (_iterator.hasNext()) {
-            CSVRecord record = _iterator.next();
-
-            _obj = _classes.getInstance(_mainClass);
-
-            int iCurrField = 0;
-
-            for (ApiObject fld : _obj.getApiClass().getList("fields")) {
-                String fieldValue = record.get(iCurrField);
-
-                try {
-                    switch (fld.getString("type").toLowerCase()) {
-                        case "string":
-                            _obj.getFields().put(fld.getString("name"),
-                                    TransformString.
-                                            transformString(fieldValue, fld.
-                                                    getString("format")));
-
-                            break;
-
-                        case "decimal":
-                            _obj.getFields().put(fld.getString("name"),
-                                    TransformDecimal.
-                                            transformDecimal(fieldValue, fld.
-                                                    getString("format")));
-                            break;
-
-                        case "double":
-                            _obj.getFields().put(fld.getString("name"),
-                                    TransformDecimal.
-                                            transformDouble(fieldValue, fld.
-                                                    getString("format")));
-                            break;
-
-                        case "datetime":
-                            _obj.getFields().put(fld.getString("name"),
-                                    TransformDate.
-                                            transformDate(fieldValue, fld.getString(
-                                                    "format")));
-                            break;
-
-                        case "integer":
-                            _obj.getFields().put(fld.getString("name"),
-                                    TransformNumber.
-                                            transformInteger(fieldValue, fld.
-                                                    getString("format")));
-                            break;
-
-                        case "boolean":
-                            if ("true".equalsIgnoreCase(fieldValue)) {
-                                _obj.getFields().put(fld.getString("name"), true);
-                            } else {
-                                _obj.getFields().put(fld.getString("name"), false);
-                            }
-
-                            break;
-
-                        case "long":
-                            _obj.getFields().put(fld.getString("name"),
-                                    TransformNumber.
-                                            transformLong(fieldValue, fld.getString(
-                                                    "format")));
-
-                            break;
-                    }
+        try {
+            if (!_tokenizer.nextRecord()) {
+                return false;
+            }
+        } catch (IOException io) {
+            throw new ApiException(710, io.getMessage());
+        }
 
-                    iCurrField++;
-                } catch (Exception ex) {
-                    if (!this.parseErrors.contains("Field: " + fld.getString("name") + " " + ex.getMessage())) {
-                        this.parseErrors.add("Field: " + fld.getString("name") + " " + ex.getMessage());
-                    }
-                    this.throwException = ex;
+        _obj = _classes.getInstance(_mainClass);
+
+        for (int iCurrField = 0; iCurrField < _columns.length; iCurrField++) {
+            FieldPlan fld = _columns[iCurrField];
+
+            try {
+                Object value = readField(fld, _columnIndex[iCurrField]);
+
+                if (value != NO_VALUE) {
+                    _obj.getFields().put(fld.getName(), value);
                 }
+            } catch (Exception ex) {
+                if (!this.parseErrors.contains("Field: " + fld.getName() + " " + ex.getMessage())) {
+                    this.parseErrors.add("Field: " + fld.getName() + " " + ex.getMessage());
+                }
+                this.throwException = ex;
             }
-            return true;
-        } else {
-            return false;
         }
 
+        return true;
+    }
+
+    /**
+     * Convert a single column. Whole numbers, booleans and unformatted
+     * decimals are read from the record buffer without a String.
+     */
+    private Object readField(FieldPlan fld, int column) throws ApiException {
+        switch (fld.getType()) {
+            case STRING:
+                return TransformString.transformString(_tokenizer.getString(column),
+                        fld.getFormat());
+
+            case DECIMAL:
+                if (fld.getFormat() == null) {
+                    try {
+                        return _tokenizer.getDecimal(column);
+                    } catch (NumberFormatException nfe) {
+                        throw new ApiException("Parse Exception", nfe);
+                    }
+                }
+
+                return TransformDecimal.transformDecimal(_tokenizer.getString(column),
+                        fld.getFormat());
+
+            case DOUBLE:
+                return TransformDecimal.transformDouble(_tokenizer.getString(column),
+                        fld.getFormat());
+
+            case DATETIME:
+                return TransformDate.transformDate(_tokenizer.getString(column),
+                        fld.getFormat());
+
+            case INTEGER:
+                return _tokenizer.getInteger(column);
+
+            case BOOLEAN:
+                return _tokenizer.equalsIgnoreCase(column, "true");
+
+            case LONG:
+                return _tokenizer.getLong(column);
+
+            default:
+                return NO_VALUE;
+        }
     }
 
     @Override
@@ -0,0 +1,402 @@
+package com.progbits.api.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Splits CSV text into records, following the rules of commons-csv
+ * CSVFormat.DEFAULT: fields are separated by the delimiter, may be quoted with
+ * double quotes, a doubled quote inside a quoted field is a single quote, and
+ * empty lines are skipped.
+ *
+ * <p>
+ * Input is read through a reusable char buffer and the fields of the current
+ * record are copied into a second reusable buffer, so no objects are created
+ * per record. Fields are read by column index, as a String only when one is
+ * asked for.
+ * </p>
+ */
+final class CsvTokenizer {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final Reader _in;
+    private final char _delimiter;
+    private final int _escape;
+
+    private char[] _buf;
+    private int _pos;
+    private int _limit;
+
+    private char[] _record = new char[1024];
+    private int _recordLength;
+    private int[] _starts = new int[32];
+    private int[] _ends = new int[32];
+    private int _count;
+
+    // Columns to copy, null for all
+    private boolean[] _mask;
+    private boolean _skipField;
+
+    private long _recordNumber;
+
+    /**
+     * @param in Text to read
+     * @param delimiter Field delimiter
+     * @param escape Escape character, or -1 for none
+     */
+    CsvTokenizer(Reader in, char delimiter, int escape) {
+        _in = in;
+        _delimiter = delimiter;
+        _escape = escape;
+        _buf = new char[BUFFER_SIZE];
+    }
+
+    /**
+     * Tokenize a range of chars already in memory. The array is used directly,
+     * and is not copied.
+     */
+    CsvTokenizer(char[] buf, int offset, int length, char delimiter, int escape) {
+        _in = null;
+        _delimiter = delimiter;
+        _escape = escape;
+        _buf = buf;
+        _pos = offset;
+        _limit = offset + length;
+    }
+
+    private boolean fill() throws IOException {
+        if (_in == null) {
+            return false;
+        }
+
+        int iRead;
+
+        do {
+            iRead = _in.read(_buf, 0, _buf.length);
+        } while (iRead == 0);
+
+        if (iRead < 0) {
+            return false;
+        }
+
+        _pos = 0;
+        _limit = iRead;
+
+        return true;
+    }
+
+    /**
+     * Read the next record
+     *
+     * @return false at the end of the input
+     * @throws IOException The input could not be read, or a quoted field was
+     * not closed
+     */
+    boolean nextRecord() throws IOException {
+        _count = 0;
+        _recordLength = 0;
+        _skipField = isSkipped(0);
+
+        // Skip empty lines
+        while (true) {
+            if (_pos == _limit && !fill()) {
+                return false;
+            }
+
+            char c = _buf[_pos];
+
+            if (c == '\n' || c == '\r') {
+                _pos++;
+            } else {
+                break;
+            }
+        }
+
+        _recordNumber++;
+
+        int fieldStart = 0;
+        boolean atFieldStart = true;
+
+        while (true) {
+            if (_pos == _limit && !fill()) {
+                endField(fieldStart);
+
+                return true;
+            }
+
+            char c = _buf[_pos++];
+
+            if (c == _delimiter) {
+                endField(fieldStart);
+
+                fieldStart = _recordLength;
+                atFieldStart = true;
+
+                continue;
+            } else if (c == '\n') {
+                endField(fieldStart);
+
+                return true;
+            } else if (c == '\r') {
+                endField(fieldStart);
+
+                // Consume the \n of a \r\n line ending
+                if ((_pos < _limit || fill()) && _buf[_pos] == '\n') {
+                    _pos++;
+                }
+
+                return true;
+            } else if (c == '"' && atFieldStart) {
+                readQuoted();
+            } else if (c == _escape) {
+                readEscape();
+            } else {
+                append(c);
+            }
+
+            atFieldStart = false;
+        }
+    }
+
+    private void readQuoted() throws IOException {
+        while (true) {
+            if (_pos == _limit && !fill()) {
+                throw new IOException("EOF reached before closing quote, record " + _recordNumber);
+            }
+
+            char c = _buf[_pos++];
+
+            if (c == '"') {
+                if ((_pos < _limit || fill()) && _buf[_pos] == '"') {
+                    // Doubled quote
+                    append('"');
+                    _pos++;
+                } else {
+                    return;
+                }
+            } else if (c == _escape) {
+                readEscape();
+            } else {
+                append(c);
+            }
+        }
+    }
+
+    private void readEscape() throws IOException {
+        if (_pos == _limit && !fill()) {
+            throw new IOException("EOF reached after escape character, record " + _recordNumber);
+        }
+
+        char c = _buf[_pos++];
+
+        switch (c) {
+            case 'r' ->
+                append('\r');
+            case 'n' ->
+                append('\n');
+            case 't' ->
+                append('\t');
+            case 'b' ->
+                append('\b');
+            case 'f' ->
+                append('\f');
+            default ->
+                append(c);
+        }
+    }
+
+    private void append(char c) {
+        if (_skipField) {
+            return;
+        }
+
+        if (_recordLength == _record.length) {
+            char[] newRecord = new char[_record.length * 2];
+
+            System.arraycopy(_record, 0, newRecord, 0, _recordLength);
+
+            _record = newRecord;
+        }
+
+        _record[_recordLength++] = c;
+    }
+
+    private void endField(int fieldStart) {
+        if (_count == _starts.length) {
+            int[] newStarts = new int[_count * 2];
+            int[] newEnds = new int[_count * 2];
+
+            System.arraycopy(_starts, 0, newStarts, 0, _count);
+            System.arraycopy(_ends, 0, newEnds, 0, _count);
+
+            _starts = newStarts;
+            _ends = newEnds;
+        }
+
+        _starts[_count] = fieldStart;
+        _ends[_count] = _recordLength;
+        _count++;
+
+        _skipField = isSkipped(_count);
+    }
+
+    private boolean isSkipped(int column) {
+        return _mask != null && (column >= _mask.length || !_mask[column]);
+    }
+
+    /**
+     * Only copy the selected columns of each record. The other columns read
+     * as empty.
+     *
+     * @param mask true for each column to copy, columns past the end of the
+     * mask are skipped
+     */
+    void setColumnMask(boolean[] mask) {
+        _mask = mask;
+    }
+
+    /**
+     * @return Number of fields in the current record
+     */
+    int getFieldCount() {
+        return _count;
+    }
+
+    /**
+     * @return Number of the current record, counting from 1
+     */
+    long getRecordNumber() {
+        return _recordNumber;
+    }
+
+    String getString(int column) {
+        Objects.checkIndex(column, _count);
+
+        return new String(_record, _starts[column], _ends[column] - _starts[column]);
+    }
+
+    /**
+     * @return true if the field is empty or only whitespace
+     */
+    boolean isBlank(int column) {
+        Objects.checkIndex(column, _count);
+
+        int start = trimStart(column);
+
+        return start == trimEnd(column, start);
+    }
+
+    boolean equalsIgnoreCase(int column, String test) {
+        Objects.checkIndex(column, _count);
+
+        int start = _starts[column];
+        int length = _ends[column] - start;
+
+        if (length != test.length()) {
+            return false;
+        }
+
+        for (int x = 0; x < length; x++) {
+            char c = _record[start + x];
+            char t = test.charAt(x);
+
+            if (c != t && Character.toLowerCase(c) != Character.toLowerCase(t)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Parse a whole number, ignoring surrounding whitespace
+     *
+     * @return The value, null if the field is blank
+     */
+    Integer getInteger(int column) {
+        Objects.checkIndex(column, _count);
+
+        int start = trimStart(column);
+        int end = trimEnd(column, start);
+
+        if (start == end) {
+            return null;
+        }
+
+        long value = Digits.parse(_record, start, end, 10);
+
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            // Not plain digits, or out of range, let Integer report it
+            return Integer.valueOf(new String(_record, start, end - start));
+        }
+
+        return (int) value;
+    }
+
+    /**
+     * Parse a whole number, ignoring surrounding whitespace
+     *
+     * @return The value, null if the field is blank
+     */
+    Long getLong(int column) {
+        Objects.checkIndex(column, _count);
+
+        int start = trimStart(column);
+        int end = trimEnd(column, start);
+
+        if (start == end) {
+            return null;
+        }
+
+        long value = Digits.parse(_record, start, end, 19);
+
+        if (value == Long.MIN_VALUE) {
+            return Long.valueOf(new String(_record, start, end - start));
+        }
+
+        return value;
+    }
+
+    /**
+     * Parse a decimal, ignoring surrounding whitespace
+     *
+     * @return The value, zero if the field is blank
+     * @throws NumberFormatException The field is not a decimal
+     */
+    BigDecimal getDecimal(int column) {
+        Objects.checkIndex(column, _count);
+
+        int start = trimStart(column);
+        int end = trimEnd(column, start);
+
+        if (start == end) {
+            return new BigDecimal(0);
+        }
+
+        return new BigDecimal(_record, start, end - start);
+    }
+
+    private int trimStart(int column) {
+        int start = _starts[column];
+        int end = _ends[column];
+
+        while (start < end && _record[start] <= ' ') {
+            start++;
+        }
+
+        return start;
+    }
+
+    private int trimEnd(int column, int start) {
+        int end = _ends[column];
+
+        while (end > start && _record[end - 1] <= ' ') {
+            end--;
+        }
+
+        return end;
+    }
+}
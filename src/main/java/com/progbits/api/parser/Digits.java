@@ -0,0 +1,54 @@
+package com.progbits.api.parser;
+
+/**
+ * Whole numbers read in place from a char buffer, shared by the CSV and
+ * fixed-width readers.
+ */
+final class Digits {
+
+    private Digits() {
+    }
+
+    /**
+     * Parse an optionally signed run of ASCII digits
+     *
+     * @param buf Buffer holding the text
+     * @param start Offset of the first char
+     * @param end Offset after the last char
+     * @param maxDigits Longest run accepted
+     * @return The value, or Long.MIN_VALUE if the text is not a plain number
+     * that fits
+     */
+    static long parse(char[] buf, int start, int end, int maxDigits) {
+        boolean negative = false;
+        int pos = start;
+
+        if (buf[pos] == '-' || buf[pos] == '+') {
+            negative = buf[pos] == '-';
+            pos++;
+        }
+
+        if (pos == end || end - pos > maxDigits) {
+            return Long.MIN_VALUE;
+        }
+
+        long value = 0;
+
+        for (; pos < end; pos++) {
+            int digit = buf[pos] - '0';
+
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+
+            value = value * 10 + digit;
+
+            if (value < 0) {
+                // Overflow
+                return Long.MIN_VALUE;
+            }
+        }
+
+        return negative ? -value : value;
+    }
+}
@@ -0,0 +1,78 @@
+package com.progbits.api.parser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tree of field paths selected by the IncludeFields property.
+ *
+ * <p>
+ * Paths are separated by commas, and the names in a path by dots, for example
+ * "header.correlationId,items.sku". Selecting a field includes everything
+ * below it. Arrays are transparent, "items.sku" selects sku in every object
+ * of the items array.
+ * </p>
+ */
+final class FieldProjection {
+
+    private final Map<String, FieldProjection> children = new HashMap<>();
+    private boolean selectAll = false;
+
+    private FieldProjection() {
+    }
+
+    /**
+     * Compile a comma separated list of field paths
+     *
+     * @param paths The paths to compile
+     * @return The projection, or null if paths is null or empty
+     */
+    static FieldProjection compile(String paths) {
+        if (paths == null || paths.isBlank()) {
+            return null;
+        }
+
+        FieldProjection root = new FieldProjection();
+
+        for (String path : paths.split(",")) {
+            FieldProjection current = root;
+
+            for (String name : path.trim().split("\\.")) {
+                if (name.isEmpty() || current.selectAll) {
+                    // A shorter path already selected everything below here
+                    continue;
+                }
+
+                current = current.children.computeIfAbsent(name, k -> new FieldProjection());
+            }
+
+            if (current != root) {
+                current.selectAll = true;
+                current.children.clear();
+            }
+        }
+
+        return root.children.isEmpty() ? null : root;
+    }
+
+    /**
+     * @param name Name of the field
+     * @return true if the field, or part of it, is selected
+     */
+    boolean includes(String name) {
+        return children.containsKey(name);
+    }
+
+    /**
+     * Return the projection for the value of a field
+     *
+     * @param name Name of the field
+     * @return The projection, or null if everything below the field is
+     * selected
+     */
+    FieldProjection get(String name) {
+        FieldProjection child = children.get(name);
+
+        return child == null || child.selectAll ? null : child;
+    }
+}
@@ -0,0 +1,260 @@
+package com.progbits.api.parser;
+
+import com.progbits.api.exception.ApiException;
+import com.progbits.api.formaters.CodePage;
+import com.progbits.api.formaters.TransformDate;
+import com.progbits.api.formaters.TransformDecimal;
+import com.progbits.api.formaters.TransformMainframe;
+import com.progbits.api.formaters.TransformString;
+import com.progbits.api.plan.FieldPlan;
+import com.progbits.api.plan.FieldUsage;
+import com.progbits.api.plan.FixedWidthLayout;
+import java.math.BigDecimal;
+
+/**
+ * Converts the fields of a fixed-width record from the chars of the record.
+ *
+ * <p>
+ * Whole numbers, booleans and Decimals without a format, or with an implied
+ * decimal point, are read in place. A String is only created for the field
+ * types that need one.
+ * </p>
+ *
+ * <p>
+ * Numeric fields with a packed, zoned or binary usage are read from the
+ * record as chars of the CodePage the record was decoded with.
+ * </p>
+ */
+final class FixedWidthDecoder {
+
+    // Returned when there is no value to set on the object
+    static final Object NO_VALUE = new Object();
+
+    private FixedWidthDecoder() {
+    }
+
+    /**
+     * Convert a single field
+     *
+     * @param layout Layout of the record
+     * @param index Index of the field in the layout
+     * @param buf The record
+     * @param start Offset of the field in buf
+     * @param end Offset after the field in buf
+     * @param codePage Code page the record was decoded with
+     * @return The value, or NO_VALUE if the field is blank or is not a simple
+     * type
+     * @throws ApiException The field is required and blank, or could not be
+     * converted
+     */
+    static Object decode(FixedWidthLayout layout, int index, char[] buf,
+            int start, int end, CodePage codePage) throws ApiException {
+        FieldPlan fld = layout.getField(index);
+
+        if (fld.getUsage() != FieldUsage.DISPLAY) {
+            switch (fld.getType()) {
+                case DECIMAL:
+                case DOUBLE:
+                case INTEGER:
+                case LONG:
+                    return decodeUsage(layout, index, buf, start, end, codePage);
+
+                default:
+                    // Usage only applies to numbers
+                    break;
+            }
+        }
+
+        switch (fld.getType()) {
+            case STRING:
+                return TransformString.transformString(new String(buf, start, end - start),
+                        fld.getFormat());
+
+            case DATETIME:
+                return TransformDate.transformDate(new String(buf, start, end - start),
+                        fld.getFormat());
+
+            case DECIMAL:
+            case DOUBLE:
+            case INTEGER:
+            case LONG:
+            case BOOLEAN:
+                break;
+
+            default:
+                return NO_VALUE;
+        }
+
+        while (start < end && buf[start] <= ' ') {
+            start++;
+        }
+
+        while (end > start && buf[end - 1] <= ' ') {
+            end--;
+        }
+
+        if (start == end) {
+            // Check to see if field is Required
+            if (fld.isRequired()) {
+                throw new ApiException("Field: " + fld.getName() + " Is Required", null);
+            }
+
+            return NO_VALUE;
+        }
+
+        switch (fld.getType()) {
+            case DECIMAL:
+                return decodeDecimal(fld, layout.getImpliedScale(index), buf, start, end);
+
+            case DOUBLE:
+                return TransformDecimal.transformDouble(new String(buf, start, end - start),
+                        fld.getFormat());
+
+            case INTEGER: {
+                long value = Digits.parse(buf, start, end, 10);
+
+                if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                    // Not plain digits, or out of range, let Integer report it
+                    return Integer.valueOf(new String(buf, start, end - start));
+                }
+
+                return (int) value;
+            }
+
+            case LONG: {
+                long value = Digits.parse(buf, start, end, 19);
+
+                if (value == Long.MIN_VALUE) {
+                    return Long.valueOf(new String(buf, start, end - start));
+                }
+
+                return value;
+            }
+
+            default:
+                return isTrue(buf, start, end);
+        }
+    }
+
+    private static Object decodeUsage(FixedWidthLayout layout, int index, char[] buf,
+            int start, int end, CodePage codePage) throws ApiException {
+        FieldPlan fld = layout.getField(index);
+        int scale = Math.max(0, layout.getImpliedScale(index));
+
+        BigDecimal value;
+
+        if (fld.getUsage() == FieldUsage.BINARY) {
+            // Every bit pattern is a number, so binary is never blank
+            if (start == end) {
+                return NO_VALUE;
+            }
+
+            value = TransformMainframe.transformBinary(buf, start, end, scale, codePage);
+        } else {
+            if (fld.getUsage() == FieldUsage.ZONED) {
+                while (start < end && buf[start] <= ' ') {
+                    start++;
+                }
+
+                while (end > start && buf[end - 1] <= ' ') {
+                    end--;
+                }
+            }
+
+            if (start == end || isBlank(buf, start, end, codePage)) {
+                if (fld.isRequired()) {
+                    throw new ApiException("Field: " + fld.getName() + " Is Required", null);
+                }
+
+                return NO_VALUE;
+            }
+
+            if (fld.getUsage() == FieldUsage.PACKED) {
+                value = TransformMainframe.transformPacked(buf, start, end, scale, codePage);
+            } else {
+                value = TransformMainframe.transformZoned(buf, start, end, scale);
+            }
+        }
+
+        switch (fld.getType()) {
+            case DECIMAL:
+                return value;
+
+            case DOUBLE:
+                return value.doubleValue();
+
+            case INTEGER:
+                return value.intValueExact();
+
+            default:
+                return value.longValueExact();
+        }
+    }
+
+    /**
+     * A packed or zoned field is blank when it is all spaces, or all low
+     * values
+     */
+    private static boolean isBlank(char[] buf, int start, int end, CodePage codePage) {
+        char lowValue = codePage.toChar(0);
+
+        if (buf[start] != ' ' && buf[start] != lowValue) {
+            return false;
+        }
+
+        for (int pos = start + 1; pos < end; pos++) {
+            if (buf[pos] != buf[start]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isTrue(char[] buf, int start, int end) {
+        if (end - start != 4) {
+            return false;
+        }
+
+        return Character.toLowerCase(buf[start]) == 't'
+                && Character.toLowerCase(buf[start + 1]) == 'r'
+                && Character.toLowerCase(buf[start + 2]) == 'u'
+                && Character.toLowerCase(buf[start + 3]) == 'e';
+    }
+
+    private static BigDecimal decodeDecimal(FieldPlan fld, int scale, char[] buf,
+            int start, int end) throws ApiException {
+        if (fld.getFormat() == null) {
+            try {
+                return new BigDecimal(buf, start, end - start);
+            } catch (NumberFormatException nfe) {
+                throw new ApiException("Parse Exception", nfe);
+            }
+        }
+
+        if (scale > -1 && end - start >= scale && isSignedDigits(buf, start, end)) {
+            return new BigDecimal(buf, start, end - start).movePointLeft(scale);
+        }
+
+        return TransformDecimal.transformDecimal(new String(buf, start, end - start),
+                fld.getFormat());
+    }
+
+    private static boolean isSignedDigits(char[] buf, int start, int end) {
+        if (buf[start] == '-' || buf[start] == '+') {
+            start++;
+        }
+
+        if (start == end) {
+            return false;
+        }
+
+        for (; start < end; start++) {
+            if (buf[start] < '0' || buf[start] > '9') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
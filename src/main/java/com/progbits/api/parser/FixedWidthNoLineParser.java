@@ -9,18 +9,27 @@ import com.progbits.api.formaters.TransformNumber;
 import com.progbits.api.formaters.TransformString;
 import com.progbits.api.model.ApiClasses;
 import com.progbits.api.model.ApiObject;
+import com.progbits.api.plan.ClassPlan;
+import com.progbits.api.plan.FieldPlan;
+import com.progbits.api.plan.FieldType;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
+ * Properties:
+ * <ul>
+ * <li>RecordLength: Each record is this many chars, or layout to end each
+ * record where the layout of the class ends. With layout every ArrayList
+ * needs an iterationCount. Lines are read when not set</li>
+ * </ul>
  *
  * @author scarr
  */
@@ -30,11 +39,17 @@ public class FixedWidthNoLineParser implements ObjectParser {
 
     private String _mainClass;
     private ApiClasses _classes;
-    private BufferedReader br = null;
     private Map<String, String> _props;
+    private RecordReader _reader = null;
     private List<String> parseErrors;
     private Throwable throwException;
-    private Map<String, DateTimeFormatter> _dtFormats = new HashMap<>();
+
+    private int _recordLength;
+    private boolean _layoutRecords;
+
+    private static enum CONSTANTS {
+        RecordLength
+    };
 
     @Override
     public void initStream(ApiClasses classes, String mainClass,
@@ -47,17 +62,63 @@ public class FixedWidthNoLineParser implements ObjectParser {
             Map<String, String> properties, Reader in) throws ApiException {
 
         if (in != null) {
-            if (in instanceof BufferedReader) {
-                br = (BufferedReader) in;
-            } else {
-                br = new BufferedReader(in);
-            }
+            // The record reader does its own buffering
+            _reader = new RecordReader(in);
         }
 
         _props = properties;
         _classes = classes;
         _mainClass = mainClass;
         parseErrors = new ArrayList<>();
+
+        _recordLength = 0;
+        _layoutRecords = false;
+
+        String recordLength = _props != null ? _props.get(CONSTANTS.RecordLength.name()) : null;
+
+        if ("layout".equalsIgnoreCase(recordLength)) {
+            _layoutRecords = true;
+        } else if (recordLength != null) {
+            try {
+                _recordLength = Integer.parseInt(recordLength);
+            } catch (NumberFormatException nfe) {
+                throw new ApiException(520, "RecordLength must be a number or layout: " + recordLength);
+            }
+        }
+
+        if (_layoutRecords && _classes != null && _mainClass != null) {
+            checkBounded(_mainClass, new HashSet<>());
+        }
+    }
+
+    /**
+     * With RecordLength=layout the record ends where the layout ends, so an
+     * ArrayList without an iterationCount would read every record that
+     * follows into one object
+     */
+    private void checkBounded(String className, Set<String> checked) throws ApiException {
+        if (!checked.add(className)) {
+            return;
+        }
+
+        ClassPlan plan;
+
+        try {
+            plan = ClassPlan.of(_classes.getClass(className));
+        } catch (ApiClassNotFoundException ex) {
+            throw new ApiException(550, "Class [" + className + "] NOT in map");
+        }
+
+        for (FieldPlan fld : plan.getFields()) {
+            if (fld.getType() == FieldType.ARRAYLIST && fld.getIterationCount() == null) {
+                throw new ApiException(520, "Field: " + fld.getName() + " of Class [" + className
+                        + "] has no iterationCount, so it has no end with RecordLength layout");
+            }
+
+            if (fld.getType() == FieldType.OBJECT || fld.getType() == FieldType.ARRAYLIST) {
+                checkBounded(fld.getSubType(), checked);
+            }
+        }
     }
 
     @Override
@@ -65,14 +126,22 @@ public class FixedWidthNoLineParser implements ObjectParser {
         boolean bNotEnd = false;
 
         try {
-            String strLine = br.readLine();
+            boolean bRecord;
+
+            if (_layoutRecords) {
+                bRecord = _reader.startRecord();
+            } else if (_recordLength > 0) {
+                bRecord = _reader.nextRecord(_recordLength);
+            } else {
+                bRecord = _reader.nextLine();
+            }
 
-            if (strLine != null) {
+            if (bRecord) {
                 int iCurLoc = 0;
 
                 _subject = _classes.getInstance(_mainClass);
 
-                parseObject(iCurLoc, strLine, _subject);
+                parseObject(_reader, iCurLoc, _subject);
 
                 bNotEnd = true;
             }
@@ -83,184 +152,136 @@ public class FixedWidthNoLineParser implements ObjectParser {
         return bNotEnd;
     }
 
-    private int parseObject(int currLoc, String strLine, ApiObject obj) throws ApiException {
-        for (ApiObject fld : obj.getApiClass().getList("fields")) {
-            Object oFldLength = fld.getCoreObject("length");
-
-            int iFieldLength = 0;
-
-            if (oFldLength instanceof Integer) {
-                iFieldLength = (Integer) oFldLength;
-            } else if (oFldLength instanceof Long) {
-                iFieldLength = ((Long) oFldLength).intValue();
-            }
-
-            if (fld.containsKey("iterationCount")) {
-                String strFld = fld.getString("iterationCount");
-
-                if (strFld.contains("-")) {
-                    String[] splitFld = strFld.split("-");
-
-                    if (!obj.isSet(splitFld[0])) {
-                        iFieldLength = 0;
-                    }
-                } else {
-                    if (!obj.isSet(fld.getString("iterationCount"))) {
-                        iFieldLength = 0;
-                    }
-                }
+    /**
+     * Read the fields of an object from the current record, starting at
+     * currLoc. Parsing stops at the first field that goes past the end of the
+     * record.
+     *
+     * @return Location after the object, or past the end of the record if it
+     * ended first
+     */
+    private int parseObject(RecordReader reader, int currLoc, ApiObject obj) throws ApiException, IOException {
+        for (FieldPlan fld : ClassPlan.of(obj.getApiClass()).getFields()) {
+            int iFieldLength = fld.getLength();
+
+            if (fld.getIterationField() != null && !obj.isSet(fld.getIterationField())) {
+                iFieldLength = 0;
             }
 
-            if (currLoc + iFieldLength > strLine.length()) {
-                currLoc = strLine.length() + 1;
+            if (!reader.ensure(currLoc + iFieldLength)) {
+                currLoc = reader.getLength() + 1;
                 break;
             }
 
-            String fieldValue = strLine.substring(currLoc,
-                    currLoc + iFieldLength);
+            String fieldValue = new String(reader.getBuffer(), currLoc, iFieldLength);
 
             currLoc += iFieldLength;
 
             try {
-                switch (fld.getString("type")) {
-                    case "String":
-                        obj.getFields().put(fld.getString("name"),
+                switch (fld.getType()) {
+                    case STRING:
+                        obj.getFields().put(fld.getName(),
                                 TransformString.
-                                        transformString(fieldValue, fld.
-                                                getString("format")));
-                        ///System.out.println(fld.getString("name") +  " " + fieldValue + " Length = " + iFieldLength);
+                                        transformString(fieldValue, fld.getFormat()));
                         break;
 
-                    case "Decimal":
-                        obj.getFields().put(fld.getString("name"),
+                    case DECIMAL:
+                        obj.getFields().put(fld.getName(),
                                 TransformDecimal.
-                                        transformDecimal(fieldValue, fld.
-                                                getString("format")));
+                                        transformDecimal(fieldValue, fld.getFormat()));
                         break;
 
-                    case "Double":
-                        obj.getFields().put(fld.getString("name"),
+                    case DOUBLE:
+                        obj.getFields().put(fld.getName(),
                                 TransformDecimal.
-                                        transformDouble(fieldValue, fld.
-                                                getString("format")));
+                                        transformDouble(fieldValue, fld.getFormat()));
                         break;
 
-                    case "DateTime":
-                        obj.getFields().put(fld.getString("name"),
+                    case DATETIME:
+                        obj.getFields().put(fld.getName(),
                                 TransformDate.
-                                        transformDate(fieldValue, fld.getString(
-                                                "format")));
+                                        transformDate(fieldValue, fld.getFormat()));
                         break;
 
-                    case "Integer":
-                        obj.getFields().put(fld.getString("name"),
+                    case INTEGER:
+                        obj.getFields().put(fld.getName(),
                                 TransformNumber.
-                                        transformInteger(fieldValue, fld.
-                                                getString("format")));
+                                        transformInteger(fieldValue, fld.getFormat()));
                         break;
 
-                    case "Boolean":
+                    case BOOLEAN:
                         if ("true".equalsIgnoreCase(fieldValue)) {
-                            obj.getFields().put(fld.getString("name"), true);
+                            obj.getFields().put(fld.getName(), true);
                         } else {
-                            obj.getFields().put(fld.getString("name"), false);
+                            obj.getFields().put(fld.getName(), false);
                         }
 
                         break;
 
-                    case "Long":
-                        obj.getFields().put(fld.getString("name"),
+                    case LONG:
+                        obj.getFields().put(fld.getName(),
                                 TransformNumber.
-                                        transformLong(fieldValue, fld.getString(
-                                                "format")));
+                                        transformLong(fieldValue, fld.getFormat()));
                         break;
 
-                    case "Object":
-                        ApiObject newObj = _classes.getInstance(fld.getString(
-                                "subType"));
-                        currLoc = parseObject(currLoc, strLine, newObj);
-                        obj.setObject(fld.getString("name"), newObj);
+                    case OBJECT:
+                        ApiObject newObj = _classes.getInstance(fld.getSubType());
+                        currLoc = parseObject(reader, currLoc, newObj);
+                        obj.setObject(fld.getName(), newObj);
                         break;
 
-                    case "ArrayList":
-                        if (fld.containsKey("iterationCount")) {
-                            String strIterationCount = fld.getString("iterationCount");
-                            int iCnt = 0;
+                    case ARRAYLIST:
+                        if (fld.getIterationCount() != null) {
+                            int iCnt = iterationCount(fld, obj);
 
-                            if (strIterationCount.contains("-")) {
-                                String[] splitCount = strIterationCount.split("-");
-
-                                if (obj.isSet(splitCount[0])) {
-                                    iCnt = obj.getInteger(splitCount[0]) - Integer.parseInt(splitCount[1]);
-                                }
-                            } else {
-                                if (obj.isSet(fld.getString("iterationCount"))) {
-                                    iCnt = obj.getInteger(fld.getString("iterationCount"));
-                                }
-                            }
-
-                            if (!obj.isSet(fld.getString("name"))) {
-                                obj.createList(fld.getString("name"));
+                            if (!obj.isSet(fld.getName())) {
+                                obj.createList(fld.getName());
                             }
 
                             for (var i = 0; i < iCnt; i++) {
-                                ApiObject newArr = _classes.getInstance(fld.
-                                        getString("subType"));
-                                currLoc = parseObject(currLoc, strLine, newArr);
+                                ApiObject newArr = _classes.getInstance(fld.getSubType());
+                                currLoc = parseObject(reader, currLoc, newArr);
 
-                                obj.getList(fld.getString("name")).add(newArr);
+                                obj.getList(fld.getName()).add(newArr);
                             }
                         } else {
-                            int totalBytes = strLine.length();
-                            while (currLoc < totalBytes) {
-                                ApiObject newArr = _classes.getInstance(fld.
-                                        getString("subType"));
-                                currLoc = parseObject(currLoc, strLine, newArr);
-                                if (!obj.isSet(fld.getString("name"))) {
-                                    obj.createList(fld.getString("name"));
+                            // Repeats to the end of the record
+                            while (reader.ensure(currLoc + 1)) {
+                                ApiObject newArr = _classes.getInstance(fld.getSubType());
+                                currLoc = parseObject(reader, currLoc, newArr);
+                                if (!obj.isSet(fld.getName())) {
+                                    obj.createList(fld.getName());
                                 }
-                                obj.getList(fld.getString("name")).add(newArr);
+                                obj.getList(fld.getName()).add(newArr);
                             }
                         }
                         break;
 
-                    case "StringArray":
-                        if (fld.containsKey("iterationCount")) {
-                            obj.createStringArray(fld.getString("name"));
-
-                            String strIterationCount = fld.getString("iterationCount");
-                            int iCnt = 0;
+                    case STRINGARRAY:
+                        if (fld.getIterationCount() != null) {
+                            obj.createStringArray(fld.getName());
 
-                            if (strIterationCount.contains("-")) {
-                                String[] splitCount = strIterationCount.split("-");
-
-                                if (obj.isSet(splitCount[0])) {
-                                    iCnt = obj.getInteger(splitCount[0]) - Integer.parseInt(splitCount[1]);
-                                }
-                            } else {
-                                if (obj.isSet(fld.getString("iterationCount"))) {
-                                    iCnt = obj.getInteger(fld.getString("iterationCount"));
-                                }
-                            }
+                            int iCnt = iterationCount(fld, obj);
 
                             if (iCnt > 0) {
-                                obj.getStringArray(fld.getString("name")).add(
+                                obj.getStringArray(fld.getName()).add(
                                         TransformString.
-                                                transformString(fieldValue, fld.
-                                                        getString("format"))
+                                                transformString(fieldValue, fld.getFormat())
                                 );
                             }
 
                             for (int iIter = 0; iIter < iCnt - 1; iIter++) {
-                                fieldValue = strLine.substring(currLoc,
-                                        currLoc + iFieldLength);
+                                if (!reader.ensure(currLoc + iFieldLength)) {
+                                    throw new ApiException("Record ended before iteration " + (iIter + 2), null);
+                                }
+
+                                fieldValue = new String(reader.getBuffer(), currLoc, iFieldLength);
 
                                 currLoc += iFieldLength;
 
-                                obj.getStringArray(fld.getString("name")).add(
+                                obj.getStringArray(fld.getName()).add(
                                         TransformString.
-                                                transformString(fieldValue, fld.
-                                                        getString("format"))
+                                                transformString(fieldValue, fld.getFormat())
                                 );
                             }
 
@@ -268,8 +289,8 @@ public class FixedWidthNoLineParser implements ObjectParser {
                         break;
                 }
             } catch (Exception ex) {
-                if (!this.parseErrors.contains("Field: " + fld.getString("name") + " " + ex.getMessage())) {
-                    this.parseErrors.add("Field: " + fld.getString("name") + " " + ex.getMessage());
+                if (!this.parseErrors.contains("Field: " + fld.getName() + " " + ex.getMessage())) {
+                    this.parseErrors.add("Field: " + fld.getName() + " " + ex.getMessage());
                 }
                 this.throwException = ex;
             }
@@ -278,6 +299,21 @@ public class FixedWidthNoLineParser implements ObjectParser {
         return currLoc;
     }
 
+    /**
+     * @return The number of iterations, 0 if the count field is not set
+     */
+    private int iterationCount(FieldPlan fld, ApiObject obj) {
+        if (!obj.isSet(fld.getIterationField())) {
+            return 0;
+        }
+
+        if (fld.getIterationOffset() < 0) {
+            throw new NumberFormatException("Invalid iterationCount: " + fld.getIterationCount());
+        }
+
+        return obj.getInteger(fld.getIterationField()) - fld.getIterationOffset();
+    }
+
     @Override
     public ApiObject getObject() {
         return _subject;
@@ -305,12 +341,14 @@ public class FixedWidthNoLineParser implements ObjectParser {
         }
 
         try {
-            String strLine = br.readLine();
+            RecordReader reader = new RecordReader(br);
+
+            reader.nextLine();
 
             int iCurLoc = 0;
 
             objResp = _classes.getInstance(className);
-            parseObject(iCurLoc, strLine, objResp);
+            parseObject(reader, iCurLoc, objResp);
         } catch (IOException io) {
             throw new ApiException(500, io.getMessage());
         }
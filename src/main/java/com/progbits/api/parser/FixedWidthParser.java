@@ -3,24 +3,33 @@ package com.progbits.api.parser;
 import com.progbits.api.ObjectParser;
 import com.progbits.api.exception.ApiClassNotFoundException;
 import com.progbits.api.exception.ApiException;
-import com.progbits.api.formaters.TransformDate;
-import com.progbits.api.formaters.TransformDecimal;
-import com.progbits.api.formaters.TransformNumber;
-import com.progbits.api.formaters.TransformString;
+import com.progbits.api.formaters.CodePage;
 import com.progbits.api.model.ApiClass;
 import com.progbits.api.model.ApiClasses;
 import com.progbits.api.model.ApiObject;
-import java.io.BufferedReader;
+import com.progbits.api.plan.ClassPlan;
+import com.progbits.api.plan.FieldPlan;
+import com.progbits.api.plan.FixedWidthLayout;
+import com.progbits.api.plan.SegmentedLayout;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
+ * Properties:
+ * <ul>
+ * <li>CodePage: Single byte code page of the input, such as Cp037 for EBCDIC.
+ * Packed and binary fields are read as bytes of the code page, ISO-8859-1 if
+ * not set, so a Reader given to init must decode with the same code
+ * page</li>
+ * <li>RecordLength: Each record is this many chars, including any line
+ * ending. Needed for packed and binary fields, whose bytes may look like line
+ * endings</li>
+ * </ul>
  *
  * @author scarr
  */
@@ -30,66 +39,113 @@ public class FixedWidthParser implements ObjectParser {
 
     private String _mainClass;
     private ApiClasses _classes;
-    private BufferedReader br = null;
+    private RecordReader _reader = null;
     private Map<String, String> _props;
+    private CodePage _codePage = CodePage.ISO_8859_1;
+    private int _recordLength = 0;
 
-    private boolean m_segmentedFormat = false;
-    private String m_lastObject = null;
-    private int m_headerLength = 0;
-    private Map<String, ApiObject> m_headerFields = new HashMap<>();
+    private SegmentedLayout m_segments = null;
+    private FixedWidthLayout m_layout = null;
 
     private int m_lineCount = 0;
     private List<String> parseErrors;
     private Throwable throwException;
 
-    private Map<String, DateTimeFormatter> _dtFormats = new HashMap<>();
+    private static enum CONSTANTS {
+        CodePage, RecordLength
+    };
 
     @Override
     public void initStream(ApiClasses classes, String mainClass,
             Map<String, String> properties, InputStream in) throws ApiException {
-        init(classes, mainClass, properties, new BufferedReader(new InputStreamReader(in)));
+        initLayout(classes, mainClass, properties);
+
+        // Packed and binary bytes are chars of the code page, ISO-8859-1 if not set
+        if ((properties != null && properties.containsKey(CONSTANTS.CodePage.name()))
+                || (m_layout != null && m_layout.isBinary())
+                || (m_segments != null && m_segments.isBinary())) {
+            _reader = new RecordReader(new InputStreamReader(in, _codePage.getCharset()));
+        } else {
+            _reader = new RecordReader(new InputStreamReader(in));
+        }
+    }
+
+    private static CodePage codePage(Map<String, String> properties) throws ApiException {
+        String codePage = properties != null ? properties.get(CONSTANTS.CodePage.name()) : null;
+
+        if (codePage == null) {
+            return CodePage.ISO_8859_1;
+        }
+
+        try {
+            return CodePage.forName(codePage);
+        } catch (IllegalArgumentException iex) {
+            throw new ApiException(520, "Invalid CodePage: " + codePage + " " + iex.getMessage());
+        }
     }
 
     @Override
     public void init(ApiClasses classes, String mainClass,
             Map<String, String> properties, Reader in) throws ApiException {
-        if (in instanceof BufferedReader) {
-            br = (BufferedReader) in;
-        } else {
-            br = new BufferedReader(in);
-        }
+        initLayout(classes, mainClass, properties);
 
+        // The record reader does its own buffering
+        _reader = new RecordReader(in);
+    }
+
+    /**
+     * Read the properties and compile the layout of the main class
+     */
+    private void initLayout(ApiClasses classes, String mainClass,
+            Map<String, String> properties) throws ApiException {
         _props = properties;
         _classes = classes;
         _mainClass = mainClass;
         this.parseErrors = new ArrayList<>();
 
+        _codePage = codePage(properties);
+
+        String recordLength = properties != null ? properties.get(CONSTANTS.RecordLength.name()) : null;
+
         try {
-            if (_classes != null && _mainClass != null) {
-                ApiClass tstClass = _classes.getClass(mainClass);
+            _recordLength = recordLength != null ? Integer.parseInt(recordLength) : 0;
+        } catch (NumberFormatException nfe) {
+            throw new ApiException(520, "RecordLength must be a number: " + recordLength);
+        }
+
+        if (_classes != null && _mainClass != null) {
+            ApiClass tstClass;
 
-                for (ApiObject flds : tstClass.getList("fields")) {
-                    switch (flds.getString("type")) {
-                        case "Object":
-                        case "ArrayList":
-                            m_segmentedFormat = true;
-                            m_lastObject = flds.getString("name");
+            try {
+                tstClass = _classes.getClass(mainClass);
+            } catch (ApiClassNotFoundException ex) {
+                throw new ApiException(550, "Class [" + mainClass + "] NOT in map");
+            }
 
-                            m_headerFields.put(m_lastObject, flds);
+            ClassPlan plan = ClassPlan.of(tstClass);
 
-                            if (m_lastObject.length() > m_headerLength) {
-                                m_headerLength = m_lastObject.length();
-                            }
+            m_layout = plan.getFixedWidthLayout();
 
-                            break;
-                    }
-                }
+            try {
+                m_segments = SegmentedLayout.of(plan, _classes);
+            } catch (ApiClassNotFoundException ex) {
+                throw new ApiException(550, "Segment of Class [" + mainClass + "] NOT in map: "
+                        + ex.getMessage());
             }
-        } catch (ApiClassNotFoundException ex) {
-            throw new ApiException(550, "Class [" + mainClass + "] NOT in map");
         }
     }
 
+    /**
+     * Read from another input, keeping the properties, the compiled layout
+     * and the buffers of init
+     */
+    void reset(Reader in) {
+        _reader.reset(in);
+        _obj = null;
+        m_lineCount = 0;
+        this.parseErrors.clear();
+    }
+
     @Override
     public boolean next() throws ApiException {
         boolean bNotEnd = false;
@@ -97,11 +153,11 @@ public class FixedWidthParser implements ObjectParser {
         this.throwException = null;
 
         try {
-            String strLine = br.readLine();
+            boolean bLine = nextRecord();
             m_lineCount++;
 
-            if (strLine != null) {
-                if (m_segmentedFormat) {
+            if (bLine) {
+                if (m_segments != null) {
                     ApiObject retObj;
 
                     if (_obj != null) {
@@ -114,26 +170,29 @@ public class FixedWidthParser implements ObjectParser {
                     boolean bLineContinue = true;
 
                     while (bLineContinue) {
-                        if (strLine != null) {
-                            String headerCode = strLine.substring(0, m_headerLength).
-                                    trim();
+                        if (bLine) {
+                            char[] line = _reader.getBuffer();
+                            int lineLength = _reader.getLength();
 
-                            if (headerCode.equals(m_lastObject)) {
-                                bLineContinue = false;
+                            if (lineLength < m_segments.getCodeLength()) {
+                                throw new ApiException("Line: " + m_lineCount
+                                        + " Shorter than the Segment Code", null);
                             }
 
-                            ApiObject lineFields = m_headerFields.get(headerCode);
+                            SegmentedLayout.Segment segment = m_segments.match(line);
 
-                            if (lineFields != null) {
-                                String fieldName = lineFields.getString("name");
-                                String subType = lineFields.getString("subType");
+                            if (segment != null) {
+                                if (segment.isLast()) {
+                                    bLineContinue = false;
+                                }
 
-                                retObj.put(fieldName, parseLine(m_headerLength,
-                                        strLine, subType));
+                                retObj.put(segment.getCode(), parseLine(m_segments.getCodeLength(),
+                                        line, lineLength, segment.getField().getSubType(),
+                                        segment.getLayout()));
                             }
 
                             if (bLineContinue) {
-                                strLine = br.readLine();
+                                bLine = nextRecord();
                                 m_lineCount++;
                             }
 
@@ -145,7 +204,8 @@ public class FixedWidthParser implements ObjectParser {
                     }
                     _obj = retObj;
                 } else {
-                    _obj = parseLine(0, strLine, _mainClass);
+                    _obj = parseLine(0, _reader.getBuffer(), _reader.getLength(),
+                            _mainClass, m_layout);
                     bNotEnd = true;
                 }
             }
@@ -156,152 +216,44 @@ public class FixedWidthParser implements ObjectParser {
         return bNotEnd;
     }
 
-    private ApiObject parseLine(int startPos, String strLine,
-            String className) throws ApiException, ApiClassNotFoundException {
-        int iCurLoc = startPos;
-
-        ApiObject obj = _classes.getInstance(className);
-
-        for (ApiObject fld : obj.getApiClass().getList("fields")) {
-            Object oFldLength = fld.getCoreObject("length");
+    private boolean nextRecord() throws IOException {
+        if (_recordLength > 0) {
+            return _reader.nextRecord(_recordLength);
+        }
 
-            int iFieldLength = 0;
+        return _reader.nextLine();
+    }
 
-            if (oFldLength instanceof Integer) {
-                iFieldLength = (Integer) oFldLength;
-            } else if (oFldLength instanceof Long) {
-                iFieldLength = ((Long) oFldLength).intValue();
-            }
+    /**
+     * Read the fields of a class from a line, using the compiled layout of
+     * the class. Fields past the end of the line are not set.
+     */
+    private ApiObject parseLine(int startPos, char[] line, int lineLength,
+            String className, FixedWidthLayout layout) throws ApiException, ApiClassNotFoundException {
+        ApiObject obj = _classes.getInstance(className);
 
-            String fieldValue;
-            boolean fieldFound = false;
+        for (int x = 0; x < layout.getFieldCount(); x++) {
+            int iEnd = startPos + layout.getEnd(x);
 
-            try {
-                fieldValue = strLine.substring(iCurLoc,
-                        iCurLoc + iFieldLength);
-                fieldFound = true;
-            } catch (StringIndexOutOfBoundsException ex) {
-                fieldFound = false;
-                fieldValue = null;
+            if (iEnd > lineLength) {
+                // Offsets only increase, so no later field is on the line
+                break;
             }
 
-            iCurLoc += iFieldLength;
+            FieldPlan fld = layout.getField(x);
 
             try {
-                if (fieldFound) {
-                    switch (fld.getString("type")) {
-                        case "String":
-                            obj.getFields().put(fld.getString("name"),
-                                    TransformString.
-                                            transformString(fieldValue, fld.
-                                                    getString("format")));
-
-                            break;
-
-                        case "Decimal":
-                            fieldValue = fieldValue.trim();
-                            if (fieldValue != null && !fieldValue.isEmpty()) {
-                                obj.getFields().put(fld.getString("name"),
-                                        TransformDecimal.
-                                                transformDecimal(fieldValue,
-                                                        fld.getString("format")));
-                            } else {
-                                // Check to see if field is Required
-                                if (fld.isSet("min") && fld.getLong("min") > 0) {
-                                    throw new ApiException("Field: " + fld.getString(
-                                            "name") + " Is Required",
-                                            null);
-                                }
-                            }
+                Object value = FixedWidthDecoder.decode(layout, x, line,
+                        startPos + layout.getStart(x), iEnd, _codePage);
 
-                            break;
-
-                        case "Double":
-                            fieldValue = fieldValue.trim();
-                            if (fieldValue != null && !fieldValue.isEmpty()) {
-                                obj.getFields().put(fld.getString("name"),
-                                        TransformDecimal.
-                                                transformDouble(fieldValue, fld.
-                                                        getString("format")));
-                            } else {
-                                // Check to see if field is Required
-                                if (fld.isSet("min") && fld.getLong("min") > 0) {
-                                    throw new ApiException("Field: " + fld.getString(
-                                            "name") + " Is Required",
-                                            null);
-                                }
-                            }
-                            break;
-
-                        case "DateTime":
-                            obj.getFields().put(fld.getString("name"),
-                                    TransformDate.
-                                            transformDate(fieldValue, fld.
-                                                    getString("format")));
-                            break;
-
-                        case "Integer":
-                            fieldValue = fieldValue.trim();
-                            if (fieldValue != null && !fieldValue.isEmpty()) {
-                                obj.getFields().put(fld.getString("name"),
-                                        TransformNumber.
-                                                transformInteger(fieldValue,
-                                                        fld.getString("format")));
-                            } else {
-                                // Check to see if field is Required
-                                if (fld.isSet("min") && fld.getLong("min") > 0) {
-                                    throw new ApiException("Field: " + fld.getString(
-                                            "name") + " Is Required",
-                                            null);
-                                }
-                            }
-                            break;
-
-                        case "Boolean":
-                            fieldValue = fieldValue.trim();
-                            if (fieldValue != null && !fieldValue.isEmpty()) {
-                                if ("true".equalsIgnoreCase(fieldValue)) {
-                                    obj.getFields().put(fld.getString("name"),
-                                            true);
-                                } else {
-                                    obj.getFields().put(fld.getString("name"),
-                                            false);
-                                }
-                            } else {
-                                // Check to see if field is Required
-                                if (fld.isSet("min") && fld.getLong("min") > 0) {
-                                    throw new ApiException("Field: " + fld.getString(
-                                            "name") + " Is Required",
-                                            null);
-                                }
-                            }
-
-                            break;
-
-                        case "Long":
-                            fieldValue = fieldValue.trim();
-                            if (fieldValue != null && !fieldValue.isEmpty()) {
-                                obj.getFields().put(fld.getString("name"),
-                                        TransformNumber.
-                                                transformLong(fieldValue, fld.
-                                                        getString("format")));
-                            } else {
-                                // Check to see if field is Required
-                                if (fld.isSet("min") && fld.getLong("min") > 0) {
-                                    throw new ApiException("Field: " + fld.getString(
-                                            "name") + " Is Required",
-                                            null);
-                                }
-                            }
-
-                            break;
-                    }
+                if (value != FixedWidthDecoder.NO_VALUE) {
+                    obj.getFields().put(fld.getName(), value);
                 }
             } catch (Exception ex) {
 
-                if (!this.parseErrors.contains("Line: " + m_lineCount + " Field: " + fld.getString("name") + " " + ex.
+                if (!this.parseErrors.contains("Line: " + m_lineCount + " Field: " + fld.getName() + " " + ex.
                         getMessage())) {
-                    this.parseErrors.add("Line: " + m_lineCount + " Field: " + fld.getString("name") + " " + ex.
+                    this.parseErrors.add("Line: " + m_lineCount + " Field: " + fld.getName() + " " + ex.
                             getMessage());
                 }
                 this.throwException = ex;
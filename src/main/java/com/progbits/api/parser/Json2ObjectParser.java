@@ -3,20 +3,24 @@ package com.progbits.api.parser;
 import com.progbits.api.ObjectParser;
 import com.progbits.api.exception.ApiClassNotFoundException;
 import com.progbits.api.exception.ApiException;
+import com.progbits.api.json.JsonSymbolTable;
+import com.progbits.api.json.JsonTape;
 import com.progbits.api.json.UTF8JsonParser;
 import com.progbits.api.model.ApiClass;
 import com.progbits.api.model.ApiClasses;
 import com.progbits.api.model.ApiObject;
-import java.io.BufferedReader;
+import com.progbits.api.plan.ClassPlan;
+import com.progbits.api.plan.FieldPlan;
+import com.progbits.api.plan.FieldType;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Reader;
 import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  *
@@ -33,14 +37,27 @@ public class Json2ObjectParser implements ObjectParser {
     private List<String> parseErrors;
     private Throwable throwException;
 
-    private Map<String, DateTimeFormatter> _dtFormats = new HashMap<>();
+    // Key names are canonicalized against the ClassPlan field names, so the
+    // plan lookup matches by identity
+    private final JsonSymbolTable _symbols = new JsonSymbolTable();
+    private final Set<ClassPlan> _seededPlans = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private boolean _streamArray = false;
+    private boolean _streamStarted = false;
+    private boolean _streamDone = false;
+
+    private FieldProjection _fields = null;
+
+    private static enum CONSTANTS {
+        StreamArray, IncludeFields
+    };
 
     public Json2ObjectParser() {
     }
 
     public Json2ObjectParser(boolean genericProcessor) {
         if (genericProcessor) {
-            internalInit(null, null, null, null);
+            internalInit(null, null, null);
         }
     }
 
@@ -48,11 +65,32 @@ public class Json2ObjectParser implements ObjectParser {
         Map<String, String> properties, Reader in) {
         if (in != null) {
             _parse = new UTF8JsonParser(in);
+            _parse.setSymbolTable(_symbols);
+        }
+        internalInit(classes, mainClass, properties);
+    }
+
+    private void internalInit(ApiClasses classes, String mainClass,
+        Map<String, String> properties, InputStream in) {
+        if (in != null) {
+            _parse = new UTF8JsonParser(in);
+            _parse.setSymbolTable(_symbols);
         }
+        internalInit(classes, mainClass, properties);
+    }
+
+    private void internalInit(ApiClasses classes, String mainClass,
+        Map<String, String> properties) {
         _props = properties;
         _classes = classes;
         _mainClass = mainClass;
         this.parseErrors = new ArrayList<>();
+
+        _streamArray = _props != null && "true".equalsIgnoreCase(_props.get(CONSTANTS.StreamArray.name()));
+        _streamStarted = false;
+        _streamDone = false;
+
+        _fields = _props != null ? FieldProjection.compile(_props.get(CONSTANTS.IncludeFields.name())) : null;
     }
 
     @Override
@@ -63,7 +101,8 @@ public class Json2ObjectParser implements ObjectParser {
     @Override
     public void initStream(ApiClasses classes, String mainClass,
         Map<String, String> properties, InputStream in) throws ApiException {
-        init(classes, mainClass, properties, new BufferedReader(new InputStreamReader(in)));
+        // Read UTF-8 bytes directly, no Reader and charset decoding required
+        internalInit(classes, mainClass, properties, in);
     }
 
     @Override
@@ -72,18 +111,76 @@ public class Json2ObjectParser implements ObjectParser {
         internalInit(classes, mainClass, properties, in);
     }
 
+    /**
+     * Parse the next object. With the StreamArray property set to true, each
+     * element of a top level array is returned as its own object, and false is
+     * returned at the end of the array.
+     *
+     * @return true if an object was read
+     */
     @Override
     public boolean next() throws ApiException, ApiClassNotFoundException {
         this.parseErrors.clear();
         this.throwException = null;
 
+        if (_streamArray) {
+            return nextElement();
+        }
+
+        parseRecord(true);
+
+        return true;
+    }
+
+    private boolean nextElement() throws ApiException, ApiClassNotFoundException {
+        if (_streamDone) {
+            _obj = null;
+            return false;
+        }
+
+        UTF8JsonParser.Event event = _parse.nextToken();
+
+        if (!_streamStarted) {
+            _streamStarted = true;
+
+            if (event == UTF8JsonParser.Event.START_ARRAY) {
+                event = _parse.nextToken();
+            } else {
+                // A top level object is a single record
+                _streamDone = true;
+            }
+        }
+
+        switch (event) {
+            case START_OBJECT -> {
+                parseRecord(false);
+            }
+            case END_ARRAY, EOF -> {
+                _streamDone = true;
+                _obj = null;
+
+                return false;
+            }
+            default ->
+                throw new ApiException(520, "Array Element is not an Object: " + event);
+        }
+
+        if (this.throwException != null) {
+            // The parser is left inside the failed element
+            _streamDone = true;
+        }
+
+        return true;
+    }
+
+    private void parseRecord(boolean bFirst) throws ApiException, ApiClassNotFoundException {
         if (_classes != null) {
             _obj = _classes.getInstance(_mainClass);
         } else {
             _obj = new ApiObject();
         }
         try {
-            parseJsontoObject(_classes, _mainClass, _parse, _obj, true);
+            parseJsontoObject(_classes, _mainClass, _parse, _obj, bFirst);
 
         } catch (Exception ex) {
             if (!this.parseErrors.contains(ex.getMessage())) {
@@ -91,8 +188,6 @@ public class Json2ObjectParser implements ObjectParser {
             }
             this.throwException = ex;
         }
-
-        return true;
     }
 
     @Override
@@ -102,6 +197,15 @@ public class Json2ObjectParser implements ObjectParser {
 
     public void parseJsontoObject(ApiClasses apiClasses, String curClass,
         UTF8JsonParser parse, ApiObject obj, boolean bFirst) throws ApiException, ApiClassNotFoundException {
+        parseJsontoObject(apiClasses, curClass, parse, obj, bFirst, _fields);
+    }
+
+    /**
+     * Parse an object, only building the fields selected by a projection.
+     * Values of other fields are skipped without being parsed.
+     */
+    private void parseJsontoObject(ApiClasses apiClasses, String curClass,
+        UTF8JsonParser parse, ApiObject obj, boolean bFirst, FieldProjection fields) throws ApiException, ApiClassNotFoundException {
         boolean iFirstObj = bFirst;
 
         ApiClass apiClass = null;
@@ -121,9 +225,18 @@ public class Json2ObjectParser implements ObjectParser {
             }
         }
 
+        ClassPlan plan = ClassPlan.of(apiClass);
+
+        if (plan != null && parse.getSymbolTable() == _symbols && _seededPlans.add(plan)) {
+            for (FieldPlan fld : plan.getFields()) {
+                _symbols.canonicalize(fld.getName());
+            }
+        }
+
         String key = null;
         ApiObject nObj = null;
-        ApiObject curField = null;
+        FieldPlan curField = null;
+        FieldProjection keyFields = null;
         boolean inArray = false;
         int arrayType = ApiObject.TYPE_ARRAYLIST;
 
@@ -139,9 +252,8 @@ public class Json2ObjectParser implements ObjectParser {
                         } else {
                             if (apiClasses != null) {
                                 if (curField != null) {
-                                    if (curField.getString("subType") != null) {
-                                        nObj = apiClasses.getInstance(curField.
-                                            getString("subType"));
+                                    if (curField.getSubType() != null) {
+                                        nObj = apiClasses.getInstance(curField.getSubType());
                                     } else {
                                         try {
                                             nObj = apiClasses.getInstanceByName(key);
@@ -164,7 +276,7 @@ public class Json2ObjectParser implements ObjectParser {
                             }
 
                             parseJsontoObject(apiClasses, nObj.getName(), parse, nObj,
-                                false);
+                                false, keyFields);
 
                             if (inArray) {
                                 if (obj.getList(key) == null) {
@@ -179,39 +291,47 @@ public class Json2ObjectParser implements ObjectParser {
                     }
                     case KEY_NAME -> {
                         key = parse.getString();
-                        if (apiClass != null) {
-                            curField = apiClass.getListSearch("fields", "name", key);
+
+                        if (fields != null && !fields.includes(key)) {
+                            // Not selected, skip the value and its children
+                            parse.nextToken();
+                            parse.skipChildren();
+                            continue;
+                        } else if (fields != null) {
+                            keyFields = fields.get(key);
+                        }
+
+                        if (plan != null) {
+                            curField = plan.get(key);
                         } else {
                             curField = null;
                         }
                     }
                     case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> {
                         if (curField != null) {
-                            String strFldType = curField.getString("type");
-
-                            switch (strFldType.toLowerCase()) {
-                                case "integerarray":
+                            switch (curField.getType()) {
+                                case INTEGERARRAY:
                                     if (obj.isNull(key)) {
                                         obj.createIntegerArray(key);
                                     }
 
-                                    obj.getIntegerArray(key).add(parse.getInt());
+                                    obj.getIntegerArray(key).add(parse.getIntValue());
                                     break;
-                                case "integer":
-                                    obj.setInteger(key, parse.getInt());
+                                case INTEGER:
+                                    obj.setInteger(key, parse.getIntValue());
                                     break;
 
-                                case "double":
-                                    obj.setDouble(key, parse.getDouble());
+                                case DOUBLE:
+                                    obj.setDouble(key, parse.getDoubleValue());
 
                                     break;
 
-                                case "doublearray":
+                                case DOUBLEARRAY:
                                     if (obj.isNull(key)) {
                                         obj.createDoubleArray(key);
                                     }
 
-                                    obj.getDoubleArray(key).add(parse.getDouble());
+                                    obj.getDoubleArray(key).add(parse.getDoubleValue());
                                     break;
                                 default:
                                     if (inArray) {
@@ -226,15 +346,15 @@ public class Json2ObjectParser implements ObjectParser {
                                         }
 
                                         if (arrayType == ApiObject.TYPE_INTEGERARRAY) {
-                                            obj.getIntegerArray(key).add(parse.getInt());
+                                            obj.getIntegerArray(key).add(parse.getIntValue());
                                         } else {
-                                            obj.getDoubleArray(key).add(parse.getDouble());
+                                            obj.getDoubleArray(key).add(parse.getDoubleValue());
                                         }
                                     } else {
                                         if (parse.currentEvent() == UTF8JsonParser.Event.VALUE_NUMBER_INT) {
-                                            obj.setLong(key, parse.getLong());
+                                            setIntegral(obj, key, parse);
                                         } else {
-                                            obj.setDouble(key, parse.getDouble());
+                                            obj.setDouble(key, parse.getDoubleValue());
                                         }
                                     }
 
@@ -254,41 +374,27 @@ public class Json2ObjectParser implements ObjectParser {
 
                                 if (arrayType == ApiObject.TYPE_INTEGERARRAY) {
                                     if (parse.currentEvent() == UTF8JsonParser.Event.VALUE_NUMBER_INT) {
-                                        obj.getIntegerArray(key).add(parse.getInt());
+                                        obj.getIntegerArray(key).add(parse.getIntValue());
                                     }
                                 } else {
-                                    obj.getDoubleArray(key).add(parse.getDouble());
+                                    obj.getDoubleArray(key).add(parse.getDoubleValue());
                                 }
                             } else {
                                 if (parse.currentEvent() == UTF8JsonParser.Event.VALUE_NUMBER_INT) {
-                                    obj.setLong(key, parse.getLong());
+                                    setIntegral(obj, key, parse);
                                 } else {
-                                    obj.setDouble(key, parse.getDouble());
+                                    obj.setDouble(key, parse.getDoubleValue());
                                 }
                             }
                         }
                     }
                     case VALUE_STRING -> {
                         if (curField != null) {
-                            if ("Date".equals(curField.getString("type"))
-                                || "DateTime".equals(curField.getString("type"))) {
-                                if (!_dtFormats.containsKey(key)) {
-                                    String format = curField.getString("format");
-
-                                    if (format != null && !format.isEmpty()) {
-                                        DateTimeFormatter dtFormat = DateTimeFormatter.
-                                            ofPattern(format);
-
-                                        _dtFormats.put(key, dtFormat);
-                                    } else {
-                                        _dtFormats.put(key, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-                                    }
-                                }
-
+                            if (curField.getType() == FieldType.DATETIME) {
                                 if (parse.getString().length() > 0) {
-                                    obj.setDateTime(key, OffsetDateTime.parse(parse.getString(), _dtFormats.get(key)));
+                                    obj.setDateTime(key, OffsetDateTime.parse(parse.getString(), curField.requireDateFormat()));
                                 }
-                            } else if ("ArrayString".equals(curField.getString("type"))) {
+                            } else if (curField.getType() == FieldType.STRINGARRAY) {
                                 if (obj.isNull(key)) {
                                     obj.createStringArray(key);
                                 }
@@ -323,6 +429,7 @@ public class Json2ObjectParser implements ObjectParser {
                     case START_ARRAY -> {
                         if (key == null) {
                             key = "root";
+                            keyFields = fields;
                             iFirstObj = false;
                         }
                         inArray = true;
@@ -332,6 +439,9 @@ public class Json2ObjectParser implements ObjectParser {
                         // We are at the end of this object
                         break OUTER;
                     }
+                    case EOF -> {
+                        break OUTER;
+                    }
                     default -> {
                     }
                 }
@@ -341,6 +451,15 @@ public class Json2ObjectParser implements ObjectParser {
         }
     }
 
+    private void setIntegral(ApiObject obj, String key, UTF8JsonParser parse) {
+        if (parse.getNumberType() == UTF8JsonParser.NumberType.BIG_INTEGER) {
+            // Outside of the long range, keep the full value
+            obj.put(key, parse.getBigDecimalValue());
+        } else {
+            obj.setLong(key, parse.getLongValue());
+        }
+    }
+
     @Override
     public ApiObject parseSingle(Reader in) throws ApiException, ApiClassNotFoundException {
         return parseSingle(in, null);
@@ -351,6 +470,7 @@ public class Json2ObjectParser implements ObjectParser {
         ApiObject retObj;
 
         UTF8JsonParser parse = new UTF8JsonParser(in);
+        parse.setSymbolTable(_symbols);
 
         if (_classes != null && className == null) {
             retObj = _classes.getInstance(_mainClass);
@@ -365,6 +485,24 @@ public class Json2ObjectParser implements ObjectParser {
         return retObj;
     }
 
+    /**
+     * Index a UTF-8 JSON document without building objects. Fields are decoded
+     * when they are read from the returned view.
+     *
+     * @param in The bytes to index, used directly and not copied
+     * @return Lazy view of the top level object, or null if the document is
+     * not an object
+     */
+    public LazyJsonObject parseLazy(byte[] in) throws ApiException {
+        JsonTape tape = JsonTape.parse(in);
+
+        if (tape.root() == -1 || tape.getType(tape.root()) != JsonTape.OBJECT) {
+            return null;
+        }
+
+        return new LazyJsonObject(this, _classes, _mainClass, tape, tape.root());
+    }
+
     @Override
     public List<String> getParseErrors() {
         return this.parseErrors;
@@ -6,18 +6,20 @@ import com.fasterxml.jackson.core.JsonToken;
 import com.progbits.api.ObjectParser;
 import com.progbits.api.exception.ApiClassNotFoundException;
 import com.progbits.api.exception.ApiException;
+import com.progbits.api.json.JsonFactories;
 import com.progbits.api.model.ApiClass;
 import com.progbits.api.model.ApiClasses;
 import com.progbits.api.model.ApiObject;
+import com.progbits.api.plan.ClassPlan;
+import com.progbits.api.plan.FieldPlan;
+import com.progbits.api.plan.FieldType;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -32,12 +34,20 @@ public class JsonObjectParser implements ObjectParser {
     private String _mainClass;
     private ApiClasses _classes;
     private JsonParser _parse = null;
-    private JsonFactory _factory = new JsonFactory();
+    private JsonFactory _factory = JsonFactories.get();
     private Map<String, String> _props;
     private List<String> parseErrors;
     private Throwable throwException;
 
-    private Map<String, DateTimeFormatter> _dtFormats = new HashMap<>();
+    private boolean _streamArray = false;
+    private boolean _streamStarted = false;
+    private boolean _streamDone = false;
+
+    private FieldProjection _fields = null;
+
+    private static enum CONSTANTS {
+        StreamArray, IncludeFields
+    };
 
     public JsonObjectParser() {
     }
@@ -61,6 +71,12 @@ public class JsonObjectParser implements ObjectParser {
         _classes = classes;
         _mainClass = mainClass;
         this.parseErrors = new ArrayList<>();
+
+        _streamArray = _props != null && "true".equalsIgnoreCase(_props.get(CONSTANTS.StreamArray.name()));
+        _streamStarted = false;
+        _streamDone = false;
+
+        _fields = _props != null ? FieldProjection.compile(_props.get(CONSTANTS.IncludeFields.name())) : null;
     }
 
     @Override
@@ -77,21 +93,82 @@ public class JsonObjectParser implements ObjectParser {
     @Override
     public void init(ApiClasses classes, String mainClass,
             Map<String, String> properties, Reader in) throws ApiException {
+        _factory = JsonFactories.get(properties);
+
         internalInit(classes, mainClass, properties, in);
     }
 
+    /**
+     * Parse the next object. With the StreamArray property set to true, each
+     * element of a top level array is returned as its own object, and false is
+     * returned at the end of the array.
+     *
+     * @return true if an object was read
+     */
     @Override
     public boolean next() throws ApiException, ApiClassNotFoundException {
         this.parseErrors.clear();
         this.throwException = null;
 
+        if (_streamArray) {
+            return nextElement();
+        }
+
+        parseRecord(true);
+
+        return true;
+    }
+
+    private boolean nextElement() throws ApiException, ApiClassNotFoundException {
+        if (_streamDone) {
+            _obj = null;
+            return false;
+        }
+
+        try {
+            JsonToken event = _parse.nextToken();
+
+            if (!_streamStarted) {
+                _streamStarted = true;
+
+                if (event == JsonToken.START_ARRAY) {
+                    event = _parse.nextToken();
+                } else {
+                    // A top level object is a single record
+                    _streamDone = true;
+                }
+            }
+
+            if (event == null || event == JsonToken.END_ARRAY) {
+                _streamDone = true;
+                _obj = null;
+
+                return false;
+            } else if (event != JsonToken.START_OBJECT) {
+                throw new ApiException(520, "Array Element is not an Object: " + event);
+            }
+        } catch (IOException io) {
+            throw new ApiException(io.getMessage(), io);
+        }
+
+        parseRecord(false);
+
+        if (this.throwException != null) {
+            // The parser is left inside the failed element
+            _streamDone = true;
+        }
+
+        return true;
+    }
+
+    private void parseRecord(boolean bFirst) throws ApiException, ApiClassNotFoundException {
         if (_classes != null) {
             _obj = _classes.getInstance(_mainClass);
         } else {
             _obj = new ApiObject();
         }
         try {
-            parseJsontoObject(_classes, _mainClass, _parse, _obj, true);
+            parseJsontoObject(_classes, _mainClass, _parse, _obj, bFirst);
 
         } catch (Exception ex) {
             if (!this.parseErrors.contains(ex.getMessage())) {
@@ -99,8 +176,6 @@ public class JsonObjectParser implements ObjectParser {
             }
             this.throwException = ex;
         }
-
-        return true;
     }
 
     @Override
@@ -110,6 +185,15 @@ public class JsonObjectParser implements ObjectParser {
 
     public void parseJsontoObject(ApiClasses apiClasses, String curClass,
             JsonParser parse, ApiObject obj, boolean bFirst) throws ApiException, ApiClassNotFoundException {
+        parseJsontoObject(apiClasses, curClass, parse, obj, bFirst, _fields);
+    }
+
+    /**
+     * Parse an object, only building the fields selected by a projection.
+     * Values of other fields are skipped without being parsed.
+     */
+    private void parseJsontoObject(ApiClasses apiClasses, String curClass,
+            JsonParser parse, ApiObject obj, boolean bFirst, FieldProjection fields) throws ApiException, ApiClassNotFoundException {
         boolean iFirstObj = bFirst;
 
         ApiClass apiClass = null;
@@ -129,9 +213,11 @@ public class JsonObjectParser implements ObjectParser {
             }
         }
 
+        ClassPlan plan = ClassPlan.of(apiClass);
         String key = null;
         ApiObject nObj = null;
-        ApiObject curField = null;
+        FieldPlan curField = null;
+        FieldProjection keyFields = null;
         boolean inArray = false;
         int arrayType = ApiObject.TYPE_ARRAYLIST;
 
@@ -152,9 +238,8 @@ public class JsonObjectParser implements ObjectParser {
                         } else {
                             if (apiClasses != null) {
                                 if (curField != null) {
-                                    if (curField.getString("subType") != null) {
-                                        nObj = apiClasses.getInstance(curField.
-                                                getString("subType"));
+                                    if (curField.getSubType() != null) {
+                                        nObj = apiClasses.getInstance(curField.getSubType());
                                     } else {
                                         try {
                                             nObj = apiClasses.getInstanceByName(key);
@@ -177,7 +262,7 @@ public class JsonObjectParser implements ObjectParser {
                             }
 
                             parseJsontoObject(apiClasses, nObj.getName(), parse, nObj,
-                                    false);
+                                    false, keyFields);
 
                             if (inArray) {
                                 if (obj.getList(key) == null) {
@@ -192,8 +277,18 @@ public class JsonObjectParser implements ObjectParser {
                         break;
                     case FIELD_NAME:
                         key = parse.getText();
-                        if (apiClass != null) {
-                            curField = apiClass.getListSearch("fields", "name", key);
+
+                        if (fields != null && !fields.includes(key)) {
+                            // Not selected, skip the value and its children
+                            parse.nextToken();
+                            parse.skipChildren();
+                            continue;
+                        } else if (fields != null) {
+                            keyFields = fields.get(key);
+                        }
+
+                        if (plan != null) {
+                            curField = plan.get(key);
                         } else {
                             curField = null;
                         }
@@ -201,26 +296,24 @@ public class JsonObjectParser implements ObjectParser {
                     case VALUE_NUMBER_INT:
                     case VALUE_NUMBER_FLOAT:
                         if (curField != null) {
-                            String strFldType = curField.getString("type");
-
-                            switch (strFldType.toLowerCase()) {
-                                case "integerarray":
+                            switch (curField.getType()) {
+                                case INTEGERARRAY:
                                     if (obj.isNull(key)) {
                                         obj.createIntegerArray(key);
                                     }
 
                                     obj.getIntegerArray(key).add(parse.getIntValue());
                                     break;
-                                case "integer":
+                                case INTEGER:
                                     obj.setInteger(key, parse.getIntValue());
                                     break;
 
-                                case "double":
+                                case DOUBLE:
                                     obj.setDouble(key, parse.getDoubleValue());
 
                                     break;
 
-                                case "doublearray":
+                                case DOUBLEARRAY:
                                     if (obj.isNull(key)) {
                                         obj.createDoubleArray(key);
                                     }
@@ -285,25 +378,11 @@ public class JsonObjectParser implements ObjectParser {
                         break;
                     case VALUE_STRING:
                         if (curField != null) {
-                            if ("Date".equals(curField.getString("type"))
-                                    || "DateTime".equals(curField.getString("type"))) {
-                                if (!_dtFormats.containsKey(key)) {
-                                    String format = curField.getString("format");
-
-                                    if (format != null && !format.isEmpty()) {
-                                        DateTimeFormatter dtFormat = DateTimeFormatter.
-                                                ofPattern(format);
-
-                                        _dtFormats.put(key, dtFormat);
-                                    } else {
-                                        _dtFormats.put(key, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-                                    }
-                                }
-
+                            if (curField.getType() == FieldType.DATETIME) {
                                 if (parse.getText().length() > 0) {
-                                    obj.setDateTime(key, OffsetDateTime.parse(parse.getText(), _dtFormats.get(key)));
+                                    obj.setDateTime(key, OffsetDateTime.parse(parse.getText(), curField.requireDateFormat()));
                                 }
-                            } else if ("ArrayString".equals(curField.getString("type"))) {
+                            } else if (curField.getType() == FieldType.STRINGARRAY) {
                                 if (obj.isNull(key)) {
                                     obj.createStringArray(key);
                                 }
@@ -344,6 +423,7 @@ public class JsonObjectParser implements ObjectParser {
                     case START_ARRAY:
                         if (key == null) {
                             key = "root";
+                            keyFields = fields;
                             iFirstObj = false;
                         }
                         inArray = true;
@@ -0,0 +1,241 @@
+package com.progbits.api.parser;
+
+import com.progbits.api.exception.ApiClassNotFoundException;
+import com.progbits.api.exception.ApiException;
+import com.progbits.api.json.JsonTape;
+import com.progbits.api.model.ApiClasses;
+import com.progbits.api.model.ApiObject;
+import com.progbits.api.plan.ClassPlan;
+import com.progbits.api.plan.FieldPlan;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read only view of a JSON object backed by a {@link JsonTape}.
+ *
+ * <p>
+ * Only the structure of the document is scanned up front. Each getter decodes
+ * just the value it returns, and {@link #toApiObject} builds the ApiObject for
+ * this object when the whole content is needed.
+ * </p>
+ */
+public class LazyJsonObject {
+
+    private final Json2ObjectParser _parser;
+    private final ApiClasses _classes;
+    private final String _className;
+    private final JsonTape _tape;
+    private final int _index;
+
+    LazyJsonObject(Json2ObjectParser parser, ApiClasses classes, String className,
+        JsonTape tape, int index) {
+        _parser = parser;
+        _classes = classes;
+        _className = className;
+        _tape = tape;
+        _index = index;
+    }
+
+    /**
+     * @param key Name of the field
+     * @return true if the field is present, even with a null value
+     */
+    public boolean containsKey(String key) {
+        return _tape.find(_index, key) != -1;
+    }
+
+    /**
+     * @param key Name of the field
+     * @return true if the field is present and not null
+     */
+    public boolean isSet(String key) {
+        int idx = _tape.find(_index, key);
+
+        return idx != -1 && _tape.getType(idx) != JsonTape.NULL;
+    }
+
+    /**
+     * @return The field names, in document order
+     */
+    public List<String> getKeys() {
+        List<String> keys = new ArrayList<>();
+        int idx = _index + 1;
+
+        while (_tape.getType(idx) == JsonTape.KEY) {
+            keys.add(_tape.getString(idx));
+
+            idx = _tape.next(idx + 1);
+        }
+
+        return keys;
+    }
+
+    public String getString(String key) {
+        int idx = _tape.find(_index, key);
+
+        if (idx == -1) {
+            return null;
+        }
+
+        return switch (_tape.getType(idx)) {
+            case JsonTape.STRING -> _tape.getString(idx);
+            case JsonTape.NUMBER, JsonTape.TRUE, JsonTape.FALSE -> _tape.getText(idx);
+            default -> null;
+        };
+    }
+
+    public Integer getInteger(String key) {
+        String value = getNumber(key);
+
+        return value != null ? Integer.valueOf(value) : null;
+    }
+
+    public Long getLong(String key) {
+        String value = getNumber(key);
+
+        return value != null ? Long.valueOf(value) : null;
+    }
+
+    public Double getDouble(String key) {
+        String value = getNumber(key);
+
+        return value != null ? Double.valueOf(value) : null;
+    }
+
+    public BigDecimal getDecimal(String key) {
+        String value = getNumber(key);
+
+        return value != null ? new BigDecimal(value) : null;
+    }
+
+    public Boolean getBoolean(String key) {
+        int idx = _tape.find(_index, key);
+
+        if (idx == -1) {
+            return null;
+        }
+
+        return switch (_tape.getType(idx)) {
+            case JsonTape.TRUE -> Boolean.TRUE;
+            case JsonTape.FALSE -> Boolean.FALSE;
+            default -> null;
+        };
+    }
+
+    /**
+     * @param key Name of the field
+     * @return Lazy view of the object value, or null if it is not an object
+     */
+    public LazyJsonObject getObject(String key) {
+        int idx = _tape.find(_index, key);
+
+        if (idx == -1 || _tape.getType(idx) != JsonTape.OBJECT) {
+            return null;
+        }
+
+        return new LazyJsonObject(_parser, _classes, subType(key), _tape, idx);
+    }
+
+    /**
+     * @param key Name of the field
+     * @return Lazy views of the objects in an array value, or null if it is not
+     * an array
+     */
+    public List<LazyJsonObject> getList(String key) {
+        int idx = _tape.find(_index, key);
+
+        if (idx == -1 || _tape.getType(idx) != JsonTape.ARRAY) {
+            return null;
+        }
+
+        List<LazyJsonObject> retList = new ArrayList<>();
+        String subType = subType(key);
+
+        for (int x = idx + 1; _tape.getType(x) != JsonTape.END; x = _tape.next(x)) {
+            if (_tape.getType(x) == JsonTape.OBJECT) {
+                retList.add(new LazyJsonObject(_parser, _classes, subType, _tape, x));
+            }
+        }
+
+        return retList;
+    }
+
+    /**
+     * @param key Name of the field
+     * @return The String values of an array, or null if it is not an array
+     */
+    public List<String> getStringArray(String key) {
+        int idx = _tape.find(_index, key);
+
+        if (idx == -1 || _tape.getType(idx) != JsonTape.ARRAY) {
+            return null;
+        }
+
+        List<String> retList = new ArrayList<>();
+
+        for (int x = idx + 1; _tape.getType(x) != JsonTape.END; x = _tape.next(x)) {
+            switch (_tape.getType(x)) {
+                case JsonTape.STRING -> retList.add(_tape.getString(x));
+                case JsonTape.NUMBER, JsonTape.TRUE, JsonTape.FALSE -> retList.add(_tape.getText(x));
+                default -> {
+                }
+            }
+        }
+
+        return retList;
+    }
+
+    /**
+     * Parse this object into an ApiObject, using the ApiClass of the main
+     * class for the top level object, and the subType of the field for the
+     * objects of getObject and getList
+     *
+     * @return The parsed object
+     */
+    public ApiObject toApiObject() throws ApiException, ApiClassNotFoundException {
+        ApiObject retObj;
+
+        if (_classes != null && _className != null) {
+            retObj = _classes.getInstance(_className);
+        } else {
+            retObj = new ApiObject();
+        }
+
+        _parser.parseJsontoObject(_classes, _className, _tape.createParser(_index), retObj, true);
+
+        return retObj;
+    }
+
+    /**
+     * @return The subType of a field in the class of this object, null if
+     * this object has no class or the field is not defined
+     */
+    private String subType(String key) {
+        if (_classes == null || _className == null) {
+            return null;
+        }
+
+        try {
+            FieldPlan fld = ClassPlan.of(_classes.getClass(_className)).get(key);
+
+            return fld != null ? fld.getSubType() : null;
+        } catch (ApiClassNotFoundException ex) {
+            return null;
+        }
+    }
+
+    private String getNumber(String key) {
+        int idx = _tape.find(_index, key);
+
+        if (idx == -1) {
+            return null;
+        }
+
+        return switch (_tape.getType(idx)) {
+            case JsonTape.NUMBER -> _tape.getText(idx);
+            case JsonTape.STRING -> _tape.getString(idx);
+            default -> null;
+        };
+    }
+}
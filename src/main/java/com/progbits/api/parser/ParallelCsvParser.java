@@ -0,0 +1,392 @@
+package com.progbits.api.parser;
+
+import com.progbits.api.exception.ApiException;
+import com.progbits.api.model.ApiClasses;
+import com.progbits.api.model.ApiObject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Parse a CSV file on disk with several threads.
+ *
+ * <p>
+ * The file is split into byte ranges that start on a record boundary, and
+ * each range is parsed by its own CsvObjectParser, using the same properties.
+ * Records are returned as a Stream, either in file order or in the order the
+ * ranges finish.
+ * </p>
+ *
+ * <p>
+ * Boundaries are found by counting quotes, so a line end inside a quoted field
+ * never splits a record. This relies on quotes only enclosing fields, as
+ * CSVFormat.DEFAULT writes them. A quote or line end after the
+ * escapeCharacter is not counted. Records end with \n, \r\n or \r, as they do
+ * for CsvObjectParser. The bytes are compared directly, so the Charset must
+ * encode quotes, line ends and the escapeCharacter as single bytes, as UTF-8
+ * and ISO-8859-1 do.
+ * </p>
+ *
+ * <pre>
+ * ParallelCsvParser csv = new ParallelCsvParser(classes, "com.example.Row", props);
+ *
+ * try (Stream&lt;ApiObject&gt; rows = csv.parse(path, false)) {
+ *     rows.forEach(this::load);
+ * }
+ * </pre>
+ */
+public class ParallelCsvParser {
+
+    private static enum CONSTANTS {
+        IgnoreHeader, UseHeader, escapeCharacter, ChunkSize, Charset
+    };
+
+    private static final long DEFAULT_CHUNK_SIZE = 8L * 1024 * 1024;
+
+    private static final String SCAN_CHARS = "\"\r\n";
+
+    private final ApiClasses _classes;
+    private final String _mainClass;
+    private final Map<String, String> _props;
+    private final long _chunkSize;
+    private final Charset _charset;
+    private final int _escape;
+
+    private final List<String> parseErrors = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * @param classes Classes to use for Parsing
+     * @param mainClass The class of each record
+     * @param properties CsvObjectParser properties, plus ChunkSize in bytes
+     * and Charset, which defaults to UTF-8
+     * @throws ApiException The Charset does not encode quotes, line ends and
+     * the escapeCharacter as single bytes
+     */
+    public ParallelCsvParser(ApiClasses classes, String mainClass,
+            Map<String, String> properties) throws ApiException {
+        _classes = classes;
+        _mainClass = mainClass;
+        _props = properties != null ? properties : new HashMap<>();
+
+        String chunkSize = _props.get(CONSTANTS.ChunkSize.name());
+
+        _chunkSize = chunkSize != null ? Long.parseLong(chunkSize) : DEFAULT_CHUNK_SIZE;
+
+        String charset = _props.get(CONSTANTS.Charset.name());
+
+        _charset = charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8;
+
+        String escape = _props.get(CONSTANTS.escapeCharacter.name());
+
+        _escape = escape != null ? escape.charAt(0) : -1;
+
+        String scanChars = _escape >= 0 ? SCAN_CHARS + (char) _escape : SCAN_CHARS;
+
+        if (!Arrays.equals(scanChars.getBytes(_charset), scanChars.getBytes(StandardCharsets.ISO_8859_1))) {
+            throw new ApiException(520, "Charset " + _charset.name()
+                    + " must encode quotes, line ends and the escapeCharacter as single bytes");
+        }
+    }
+
+    /**
+     * Parse a file on the common ForkJoinPool
+     *
+     * @param file The CSV file
+     * @param ordered true to return records in file order
+     * @return The records, the Stream should be closed when done
+     */
+    public Stream<ApiObject> parse(Path file, boolean ordered) throws ApiException {
+        return parse(file, ordered, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse a file, running the ranges on an executor. Any executor may be
+     * used, including one with virtual threads.
+     *
+     * @param file The CSV file
+     * @param ordered true to return records in file order, false to return
+     * each range as soon as it is parsed
+     * @param executor Executor to parse the ranges on
+     * @return The records, the Stream should be closed when done
+     */
+    public Stream<ApiObject> parse(Path file, boolean ordered,
+            ExecutorService executor) throws ApiException {
+        parseErrors.clear();
+
+        FileChannel channel;
+        List<long[]> ranges;
+
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (IOException io) {
+            throw new ApiException(710, io.getMessage());
+        }
+
+        try {
+            long[] boundaries = parityBoundaries(channel, executor);
+
+            ranges = new ArrayList<>();
+
+            for (int x = 0; x < boundaries.length - 1; x++) {
+                if (boundaries[x + 1] > boundaries[x]) {
+                    ranges.add(new long[]{boundaries[x], boundaries[x + 1]});
+                }
+            }
+        } catch (IOException io) {
+            RangeIterator.closeQuietly(channel);
+
+            throw new ApiException(710, io.getMessage());
+        } catch (Exception ex) {
+            RangeIterator.closeQuietly(channel);
+
+            throw new ApiException("Error Splitting File", ex);
+        }
+
+        String[] header = null;
+
+        if ("true".equalsIgnoreCase(_props.get(CONSTANTS.UseHeader.name()))) {
+            try {
+                header = readHeader(channel);
+            } catch (ApiException ex) {
+                RangeIterator.closeQuietly(channel);
+
+                throw ex;
+            }
+        }
+
+        String[] rangeHeader = header;
+
+        return RangeIterator.stream(channel, ranges, executor, ordered,
+                (start, end) -> parseRange(channel, start, end, rangeHeader));
+    }
+
+    /**
+     * Errors found while parsing, each prefixed with the byte offset of its
+     * range and the record number within the range
+     *
+     * @return The errors so far
+     */
+    public List<String> getParseErrors() {
+        synchronized (parseErrors) {
+            return new ArrayList<>(parseErrors);
+        }
+    }
+
+    /**
+     * Split the file evenly, count the quotes in each split in parallel, and
+     * move each split past the first record end outside quotes.
+     */
+    private long[] parityBoundaries(FileChannel channel, ExecutorService executor)
+            throws IOException, InterruptedException, ExecutionException {
+        long size = channel.size();
+        int splits = (int) Math.max(1, (size + _chunkSize - 1) / _chunkSize);
+
+        List<Future<long[]>> scans = new ArrayList<>();
+
+        for (int x = 0; x < splits; x++) {
+            long start = x * _chunkSize;
+            long end = Math.min(size, start + _chunkSize);
+
+            scans.add(executor.submit(() -> scanQuotes(channel, start, end, size)));
+        }
+
+        long[] boundaries = new long[splits + 1];
+        boolean inQuote = false;
+
+        boundaries[0] = 0;
+        boundaries[splits] = size;
+
+        for (int x = 0; x < splits; x++) {
+            long[] scan = scans.get(x).get();
+
+            if (x > 0) {
+                // The first line end seen with the quote state at the start
+                // of the split ends a record
+                long lineEnd = inQuote ? scan[2] : scan[1];
+
+                // A split without one joins the previous range
+                boundaries[x] = lineEnd >= 0 ? lineEnd + 1 : boundaries[x - 1];
+            }
+
+            if (scan[0] == 1) {
+                inQuote = !inQuote;
+            }
+        }
+
+        return boundaries;
+    }
+
+    /**
+     * @return The quote parity of the range, the first record end at even
+     * local parity and the first record end at odd local parity, -1 if none
+     */
+    private long[] scanQuotes(FileChannel channel, long start, long end, long size)
+            throws IOException {
+        // One byte past the range, to see if a \r at the end is followed by \n
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                Math.min(size, end + 1) - start);
+        boolean escaped = isEscaped(channel, start);
+        int parity = 0;
+        long firstEven = -1;
+        long firstOdd = -1;
+        int length = (int) (end - start);
+
+        for (int x = 0; x < length; x++) {
+            byte b = buf.get(x);
+
+            if (escaped) {
+                escaped = false;
+            } else if (_escape >= 0 && b == (byte) _escape) {
+                escaped = true;
+            } else if (b == '"') {
+                parity ^= 1;
+            } else if (b == '\n' || (b == '\r' && (x + 1 == buf.limit() || buf.get(x + 1) != '\n'))) {
+                if (parity == 0) {
+                    if (firstEven < 0) {
+                        firstEven = start + x;
+                    }
+                } else if (firstOdd < 0) {
+                    firstOdd = start + x;
+                }
+            }
+        }
+
+        return new long[]{parity, firstEven, firstOdd};
+    }
+
+    /**
+     * Each escapeCharacter takes the byte after it, so the byte at pos is
+     * escaped when an odd number of them come right before it
+     */
+    private boolean isEscaped(FileChannel channel, long pos) throws IOException {
+        if (_escape < 0) {
+            return false;
+        }
+
+        ByteBuffer prev = ByteBuffer.allocate(1);
+        int count = 0;
+
+        while (pos - count > 0) {
+            prev.clear();
+
+            if (channel.read(prev, pos - count - 1) != 1 || prev.get(0) != (byte) _escape) {
+                break;
+            }
+
+            count++;
+        }
+
+        return (count & 1) == 1;
+    }
+
+    /**
+     * Read the header row once, so every range maps columns by the same names
+     */
+    private String[] readHeader(FileChannel channel) throws ApiException {
+        CsvObjectParser parser = new CsvObjectParser();
+
+        try {
+            parser.init(_classes, _mainClass, _props,
+                    new InputStreamReader(new RangeInputStream(channel, 0, channel.size()), _charset));
+        } catch (IOException io) {
+            throw new ApiException(710, io.getMessage());
+        }
+
+        return parser.getHeader();
+    }
+
+    private List<ApiObject> parseRange(FileChannel channel, long start, long end,
+            String[] header) throws ApiException {
+        Map<String, String> props = new HashMap<>(_props);
+
+        props.remove(CONSTANTS.UseHeader.name());
+
+        if (start > 0) {
+            // Only the first range holds the header
+            props.remove(CONSTANTS.IgnoreHeader.name());
+        } else if (header != null) {
+            props.put(CONSTANTS.IgnoreHeader.name(), "true");
+        }
+
+        CsvObjectParser parser = new CsvObjectParser();
+        List<ApiObject> retList = new ArrayList<>();
+        long record = 0;
+
+        parser.init(_classes, _mainClass, props,
+                new InputStreamReader(new RangeInputStream(channel, start, end), _charset), header);
+
+        try {
+            while (parser.next()) {
+                record++;
+
+                for (String error : parser.getParseErrors()) {
+                    parseErrors.add("Offset " + start + " Record " + record + ": " + error);
+                }
+
+                retList.add(parser.getObject());
+            }
+        } catch (Exception ex) {
+            throw new ApiException("Offset " + start + " Record " + record + ": " + ex.getMessage(), ex);
+        }
+
+        return retList;
+    }
+
+    /**
+     * Reads a byte range of a shared channel with positional reads, so ranges
+     * can be read at the same time.
+     */
+    private static final class RangeInputStream extends InputStream {
+
+        private final FileChannel _channel;
+        private final long _end;
+        private long _pos;
+
+        private RangeInputStream(FileChannel channel, long start, long end) {
+            _channel = channel;
+            _pos = start;
+            _end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (_pos >= _end) {
+                return -1;
+            }
+
+            int count = (int) Math.min(len, _end - _pos);
+            int iRead = _channel.read(ByteBuffer.wrap(b, off, count), _pos);
+
+            if (iRead > 0) {
+                _pos += iRead;
+            }
+
+            return iRead;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.progbits.api.parser;
+
+import com.progbits.api.exception.ApiClassNotFoundException;
+import com.progbits.api.exception.ApiException;
+import com.progbits.api.formaters.CodePage;
+import com.progbits.api.model.ApiClasses;
+import com.progbits.api.model.ApiObject;
+import com.progbits.api.plan.ClassPlan;
+import com.progbits.api.plan.SegmentedLayout;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Parse a fixed-width file on disk with several threads.
+ *
+ * <p>
+ * The file is split into byte ranges that start on a line, each range is
+ * memory mapped and parsed by its own FixedWidthParser. Records are returned
+ * as a Stream, either in file order or in the order the ranges finish.
+ * </p>
+ *
+ * <p>
+ * When RecordLength is set, every line is that many bytes including the line
+ * ending, and the ranges are found by arithmetic instead of looking for line
+ * endings. With a single byte Charset, or a CodePage, each range also reads
+ * RecordLength chars per record, so packed and binary fields can hold bytes
+ * that look like line endings. Segmented layouts carry segments over from one record to the next,
+ * so they can only be read in order with FixedWidthParser.
+ * </p>
+ *
+ * <pre>
+ * ParallelFixedWidthParser fixed = new ParallelFixedWidthParser(classes, "com.example.Row", props);
+ *
+ * try (Stream&lt;ApiObject&gt; rows = fixed.parse(path, false)) {
+ *     rows.forEach(this::load);
+ * }
+ * </pre>
+ */
+public class ParallelFixedWidthParser {
+
+    private static enum CONSTANTS {
+        ChunkSize, Charset, CodePage, RecordLength
+    };
+
+    private static final long DEFAULT_CHUNK_SIZE = 8L * 1024 * 1024;
+
+    // Each range is mapped as a single buffer
+    private static final long MAX_CHUNK_SIZE = 1024L * 1024 * 1024;
+
+    private static final int SCAN_SIZE = 8192;
+
+    private final ApiClasses _classes;
+    private final String _mainClass;
+    private final Map<String, String> _props;
+    private final Map<String, String> _rangeProps;
+    private final long _chunkSize;
+    private final Charset _charset;
+    private final byte _lineEnd;
+    private final int _recordLength;
+
+    private final List<String> parseErrors = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * @param classes Classes to use for Parsing
+     * @param mainClass The class of each record
+     * @param properties FixedWidthParser properties, plus ChunkSize in bytes,
+     * Charset, which defaults to the CodePage, or to ISO-8859-1 for packed
+     * and binary layouts and UTF-8 otherwise, and RecordLength in bytes.
+     * Without RecordLength the Charset must encode \n as a single byte.
+     * @throws ApiException If RecordLength is not a number, or \n is not a
+     * single byte in the Charset
+     */
+    public ParallelFixedWidthParser(ApiClasses classes, String mainClass,
+            Map<String, String> properties) throws ApiException {
+        _classes = classes;
+        _mainClass = mainClass;
+        _props = properties != null ? properties : new HashMap<>();
+
+        String chunkSize = _props.get(CONSTANTS.ChunkSize.name());
+
+        _chunkSize = Math.min(MAX_CHUNK_SIZE,
+                chunkSize != null ? Long.parseLong(chunkSize) : DEFAULT_CHUNK_SIZE);
+
+        _charset = CodePage.charsetOf(_props.get(CONSTANTS.Charset.name()),
+                _props.get(CONSTANTS.CodePage.name()),
+                SegmentedLayout.isBinary(_classes, _mainClass));
+
+        String recordLength = _props.get(CONSTANTS.RecordLength.name());
+
+        try {
+            _recordLength = recordLength != null ? Integer.parseInt(recordLength) : 0;
+        } catch (NumberFormatException nfe) {
+            throw new ApiException(520, "RecordLength must be a number: " + recordLength);
+        }
+
+        // EBCDIC code pages end lines with 0x15, not 0x0A
+        byte[] lineEnd = "\n".getBytes(_charset);
+
+        if (_recordLength <= 0 && lineEnd.length != 1) {
+            throw new ApiException(520, "Charset " + _charset.name()
+                    + " does not end lines with a single byte, RecordLength is required");
+        }
+
+        _lineEnd = lineEnd[0];
+
+        if (_recordLength > 0 && _charset.newEncoder().maxBytesPerChar() != 1.0f) {
+            // RecordLength is in bytes, the ranges read chars, so ranges read lines
+            _rangeProps = new HashMap<>(_props);
+            _rangeProps.remove(CONSTANTS.RecordLength.name());
+        } else {
+            _rangeProps = _props;
+        }
+    }
+
+    /**
+     * Parse a fixed-width file, with the ranges mapped and parsed on the
+     * common pool
+     *
+     * @param file The fixed-width file
+     * @param ordered true to return records in file order
+     * @return The records, the Stream should be closed when done
+     */
+    public Stream<ApiObject> parse(Path file, boolean ordered) throws ApiException {
+        return parse(file, ordered, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse a fixed-width file, with each range mapped and parsed as a task
+     * of the executor
+     *
+     * @param file The fixed-width file
+     * @param ordered true to return records in file order, false to return
+     * each range as soon as it is parsed
+     * @param executor Executor to parse the ranges on
+     * @return The records, the Stream should be closed when done
+     */
+    public Stream<ApiObject> parse(Path file, boolean ordered,
+            ExecutorService executor) throws ApiException {
+        checkLayout();
+
+        parseErrors.clear();
+
+        FileChannel channel;
+        List<long[]> ranges = new ArrayList<>();
+
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (IOException io) {
+            throw new ApiException(710, io.getMessage());
+        }
+
+        try {
+            long size = channel.size();
+            long start = 0;
+
+            while (start < size) {
+                long end = nextBoundary(channel, start, size);
+
+                ranges.add(new long[]{start, end});
+
+                start = end;
+            }
+        } catch (IOException io) {
+            RangeIterator.closeQuietly(channel);
+
+            throw new ApiException(710, io.getMessage());
+        } catch (ApiException ex) {
+            RangeIterator.closeQuietly(channel);
+
+            throw ex;
+        }
+
+        return RangeIterator.stream(channel, ranges, executor, ordered,
+                (start, end) -> parseRange(channel, start, end));
+    }
+
+    /**
+     * Errors found while parsing, each prefixed with the byte offset of its
+     * range, the line within the range is part of the error
+     *
+     * @return The errors so far
+     */
+    public List<String> getParseErrors() {
+        synchronized (parseErrors) {
+            return new ArrayList<>(parseErrors);
+        }
+    }
+
+    private void checkLayout() throws ApiException {
+        ClassPlan plan;
+
+        try {
+            plan = ClassPlan.of(_classes.getClass(_mainClass));
+        } catch (ApiClassNotFoundException ex) {
+            throw new ApiException(550, "Class [" + _mainClass + "] NOT in map");
+        }
+
+        try {
+            if (SegmentedLayout.of(plan, _classes) != null) {
+                throw new ApiException(520, "Class [" + _mainClass
+                        + "] is Segmented, and must be read with FixedWidthParser");
+            }
+        } catch (ApiClassNotFoundException ex) {
+            throw new ApiException(550, "Segment of Class [" + _mainClass + "] NOT in map: "
+                    + ex.getMessage());
+        }
+    }
+
+    /**
+     * Find the end of the range starting at start, which is the start of the
+     * first line at least ChunkSize bytes later. A range is mapped as a
+     * single buffer, so a line may not run past MAX_CHUNK_SIZE.
+     */
+    private long nextBoundary(FileChannel channel, long start, long size)
+            throws IOException, ApiException {
+        if (_recordLength > 0) {
+            long records = Math.max(1, _chunkSize / _recordLength);
+
+            return Math.min(size, start + records * _recordLength);
+        }
+
+        long pos = start + _chunkSize;
+
+        if (pos >= size) {
+            return size;
+        }
+
+        long limit = Math.min(size, start + MAX_CHUNK_SIZE);
+
+        // pos is the start of a line if the byte before it ends a line
+        pos--;
+
+        while (pos < limit) {
+            MappedByteBuffer scan = channel.map(FileChannel.MapMode.READ_ONLY, pos,
+                    Math.min(SCAN_SIZE, limit - pos));
+
+            while (scan.hasRemaining()) {
+                if (scan.get() == _lineEnd) {
+                    return pos + scan.position();
+                }
+            }
+
+            pos += scan.limit();
+        }
+
+        if (limit < size) {
+            throw new ApiException(520, "No line end within " + MAX_CHUNK_SIZE
+                    + " bytes of offset " + start);
+        }
+
+        return size;
+    }
+
+    private List<ApiObject> parseRange(FileChannel channel, long start, long end) throws ApiException {
+        FixedWidthParser parser = new FixedWidthParser();
+        List<ApiObject> retList = new ArrayList<>();
+
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+
+            parser.init(_classes, _mainClass, _rangeProps,
+                    new InputStreamReader(new BufferInputStream(buffer), _charset));
+
+            while (parser.next()) {
+                for (String error : parser.getParseErrors()) {
+                    parseErrors.add("Offset " + start + " " + error);
+                }
+
+                retList.add(parser.getObject());
+            }
+        } catch (IOException io) {
+            throw new ApiException(710, "Offset " + start + ": " + io.getMessage());
+        } catch (Exception ex) {
+            throw new ApiException("Offset " + start + ": " + ex.getMessage(), ex);
+        }
+
+        return retList;
+    }
+
+    /**
+     * Reads a mapped range
+     */
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer _buffer;
+
+        private BufferInputStream(ByteBuffer buffer) {
+            _buffer = buffer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return _buffer.hasRemaining() ? _buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (!_buffer.hasRemaining()) {
+                return -1;
+            }
+
+            int count = Math.min(len, _buffer.remaining());
+
+            _buffer.get(b, off, count);
+
+            return count;
+        }
+    }
+}
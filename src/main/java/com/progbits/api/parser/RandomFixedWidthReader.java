@@ -0,0 +1,438 @@
+package com.progbits.api.parser;
+
+import com.progbits.api.exception.ApiClassNotFoundException;
+import com.progbits.api.exception.ApiException;
+import com.progbits.api.formaters.CodePage;
+import com.progbits.api.model.ApiClasses;
+import com.progbits.api.model.ApiObject;
+import com.progbits.api.plan.ClassPlan;
+import com.progbits.api.plan.SegmentedLayout;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read the records of a fixed-width file on disk by record number.
+ *
+ * <p>
+ * When RecordLength is set and the class is not segmented, every record is
+ * RecordLength bytes, including the line ending, and is found by arithmetic.
+ * Otherwise the byte offset of each record is kept in a sidecar index file,
+ * built in a single pass the first time the file is opened, and rebuilt when
+ * the size or modified time of the file no longer match. Records, and the
+ * lines of a segmented record, end with \n unless RecordLength is set.
+ * </p>
+ *
+ * <pre>
+ * try (RandomFixedWidthReader records = new RandomFixedWidthReader(classes, "com.example.Row", props, path)) {
+ *     records.skip(restartAt);
+ *
+ *     while (records.next()) {
+ *         load(records.getObject());
+ *     }
+ * }
+ * </pre>
+ */
+public class RandomFixedWidthReader implements Closeable {
+
+    private static enum CONSTANTS {
+        Charset, CodePage, RecordLength, IndexFile
+    };
+
+    // "FWIDX" and the version of the index format
+    private static final long INDEX_MAGIC = 0x4657494458000002L;
+
+    // Magic, file size, file modified time, layout fingerprint and record count
+    private static final int INDEX_HEADER = 40;
+
+    private static final int SCAN_SIZE = 1024 * 1024;
+
+    private final ApiClasses _classes;
+    private final String _mainClass;
+    private final Map<String, String> _props;
+    private final Charset _charset;
+    private final int _recordLength;
+    private final SegmentedLayout _segments;
+
+    private final FileChannel _channel;
+    private FileChannel _index;
+    private final long _count;
+
+    private FixedWidthParser _parser = null;
+    private long _recordNo = 0;
+
+    /**
+     * Open a file, building its index if one is needed and not yet built
+     *
+     * @param classes Classes to use for Parsing
+     * @param mainClass The class of each record
+     * @param properties FixedWidthParser properties, plus Charset, which
+     * defaults to the CodePage, or to ISO-8859-1 for packed and binary
+     * layouts and UTF-8 otherwise, RecordLength in bytes and IndexFile, which
+     * defaults to the file name plus .idx
+     * @param file The fixed-width file
+     * @throws ApiException The class is not found, or the file or its index
+     * could not be read
+     */
+    public RandomFixedWidthReader(ApiClasses classes, String mainClass,
+            Map<String, String> properties, Path file) throws ApiException {
+        _classes = classes;
+        _mainClass = mainClass;
+
+        Map<String, String> props = properties != null ? properties : new HashMap<>();
+
+        _charset = CodePage.charsetOf(props.get(CONSTANTS.Charset.name()),
+                props.get(CONSTANTS.CodePage.name()),
+                SegmentedLayout.isBinary(_classes, _mainClass));
+
+        String recordLength = props.get(CONSTANTS.RecordLength.name());
+
+        try {
+            _recordLength = recordLength != null ? Integer.parseInt(recordLength) : 0;
+        } catch (NumberFormatException nfe) {
+            throw new ApiException(520, "RecordLength must be a number: " + recordLength);
+        }
+
+        if (_recordLength > 0 && _charset.newEncoder().maxBytesPerChar() != 1.0f) {
+            // RecordLength is in bytes, the parser reads chars, so it reads lines
+            _props = new HashMap<>(props);
+            _props.remove(CONSTANTS.RecordLength.name());
+        } else {
+            _props = props;
+        }
+
+        try {
+            _segments = SegmentedLayout.of(ClassPlan.of(_classes.getClass(_mainClass)), _classes);
+        } catch (ApiClassNotFoundException ex) {
+            throw new ApiException(550, "Class [" + _mainClass + "] NOT in map: " + ex.getMessage());
+        }
+
+        try {
+            _channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (IOException io) {
+            throw new ApiException(710, io.getMessage());
+        }
+
+        try {
+            if (_recordLength > 0 && _segments == null) {
+                long size = _channel.size();
+
+                _count = (size + _recordLength - 1) / _recordLength;
+            } else {
+                String indexFile = props.get(CONSTANTS.IndexFile.name());
+
+                _count = openIndex(file, indexFile != null ? Path.of(indexFile)
+                        : file.resolveSibling(file.getFileName() + ".idx"));
+            }
+        } catch (IOException io) {
+            closeChannels();
+
+            throw new ApiException(710, io.getMessage());
+        }
+    }
+
+    /**
+     * @return Number of records in the file, found without reading them
+     */
+    public long count() {
+        return _count;
+    }
+
+    /**
+     * @return Number of the record the next call to next reads, from 0
+     */
+    public long position() {
+        return _recordNo;
+    }
+
+    /**
+     * Move to a record, the next call to next reads it
+     *
+     * @param recordNo Number of the record, from 0, count() moves to the end
+     * @throws ApiException recordNo is out of range, or the file could not be
+     * read
+     */
+    public void seek(long recordNo) throws ApiException {
+        if (recordNo < 0 || recordNo > _count) {
+            throw new ApiException(520, "Record " + recordNo + " is out of range, count is " + _count);
+        }
+
+        try {
+            _channel.position(recordNo < _count ? offset(recordNo) : _channel.size());
+        } catch (IOException io) {
+            throw new ApiException(710, io.getMessage());
+        }
+
+        Reader in = new InputStreamReader(Channels.newInputStream(_channel), _charset);
+
+        if (_parser == null) {
+            _parser = new FixedWidthParser();
+            _parser.init(_classes, _mainClass, _props, in);
+        } else {
+            // The parser keeps its layout and buffers
+            _parser.reset(in);
+        }
+
+        _recordNo = recordNo;
+    }
+
+    /**
+     * Skip records without reading them
+     *
+     * @param records Number of records to skip, past the end moves to the end
+     */
+    public void skip(long records) throws ApiException {
+        seek(Math.min(_count, _recordNo + records));
+    }
+
+    /**
+     * Read the next record
+     *
+     * @return false at the end of the file
+     */
+    public boolean next() throws ApiException {
+        if (_parser == null) {
+            seek(_recordNo);
+        }
+
+        boolean bNext = _parser.next();
+
+        if (bNext) {
+            _recordNo++;
+        }
+
+        return bNext;
+    }
+
+    /**
+     * @return The record read by next
+     */
+    public ApiObject getObject() {
+        return _parser != null ? _parser.getObject() : null;
+    }
+
+    /**
+     * Read a single record, the next call to next reads the record after it
+     *
+     * @param recordNo Number of the record, from 0
+     * @return The record, null if recordNo is count()
+     */
+    public ApiObject readAt(long recordNo) throws ApiException {
+        seek(recordNo);
+
+        return next() ? getObject() : null;
+    }
+
+    /**
+     * @return Errors of the last record read
+     */
+    public List<String> getParseErrors() {
+        return _parser != null ? _parser.getParseErrors() : new ArrayList<>();
+    }
+
+    @Override
+    public void close() {
+        closeChannels();
+    }
+
+    private void closeChannels() {
+        RangeIterator.closeQuietly(_channel);
+
+        if (_index != null) {
+            RangeIterator.closeQuietly(_index);
+        }
+    }
+
+    private long offset(long recordNo) throws IOException {
+        if (_index == null) {
+            return recordNo * _recordLength;
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(Long.BYTES);
+
+        while (buf.hasRemaining()) {
+            if (_index.read(buf, INDEX_HEADER + recordNo * Long.BYTES + buf.position()) < 0) {
+                throw new IOException("Index is shorter than its record count");
+            }
+        }
+
+        return buf.getLong(0);
+    }
+
+    /**
+     * Open the index of the file, building it if it is missing or out of date
+     *
+     * @return The record count
+     */
+    private long openIndex(Path file, Path indexFile) throws IOException {
+        long size = _channel.size();
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        long fingerprint = fingerprint();
+
+        if (Files.exists(indexFile)) {
+            _index = FileChannel.open(indexFile, StandardOpenOption.READ);
+
+            ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER);
+
+            while (header.hasRemaining() && _index.read(header, header.position()) > 0) {
+            }
+
+            if (!header.hasRemaining() && header.getLong(0) == INDEX_MAGIC
+                    && header.getLong(8) == size && header.getLong(16) == modified
+                    && header.getLong(24) == fingerprint) {
+                return header.getLong(32);
+            }
+
+            _index.close();
+        }
+
+        _index = FileChannel.open(indexFile, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        long count = buildIndex();
+
+        ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER);
+
+        header.putLong(INDEX_MAGIC).putLong(size).putLong(modified).putLong(fingerprint)
+                .putLong(count).flip();
+
+        // The header goes last, so an interrupted build is not mistaken for an index
+        while (header.hasRemaining()) {
+            _index.write(header, header.position());
+        }
+
+        _index.force(false);
+
+        return count;
+    }
+
+    /**
+     * Hash of the settings the offsets depend on: RecordLength, the Charset
+     * and the segment codes, so an index built for another layout is rebuilt
+     */
+    private long fingerprint() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(_recordLength).append('|').append(_charset.name());
+
+        if (_segments != null) {
+            for (SegmentedLayout.Segment segment : _segments.getSegments()) {
+                sb.append('|').append(segment.getCode()).append(segment.isLast() ? "$" : "");
+            }
+        }
+
+        // FNV-1a
+        long hash = 0xcbf29ce484222325L;
+
+        for (int x = 0; x < sb.length(); x++) {
+            hash = (hash ^ sb.charAt(x)) * 0x100000001b3L;
+        }
+
+        return hash;
+    }
+
+    /**
+     * Write the offset of each record to the index in a single pass over the
+     * file. A record is a line, or for a segmented class the lines up to and
+     * including the last segment.
+     *
+     * @return The record count
+     */
+    private long buildIndex() throws IOException {
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_SIZE);
+        ByteBuffer offsets = ByteBuffer.allocate(SCAN_SIZE);
+
+        byte lineEnd = "\n".getBytes(_charset)[0];
+        int codeLength = _segments != null ? _segments.getCodeLength() : 0;
+        byte[] code = new byte[codeLength];
+        char[] codeChars = new char[codeLength];
+
+        long count = 0;
+        long indexPos = INDEX_HEADER;
+        long pos = 0;
+        long lineStart = 0;
+        int codeFill = 0;
+        boolean bRecordOpen = false;
+        int iRead;
+
+        while ((iRead = _channel.read(scan, pos)) > -1) {
+            byte[] bytes = scan.array();
+
+            for (int x = 0; x < iRead; x++) {
+                if (!bRecordOpen) {
+                    if (!offsets.hasRemaining()) {
+                        indexPos += writeOffsets(offsets, indexPos);
+                    }
+
+                    offsets.putLong(pos + x);
+                    count++;
+
+                    bRecordOpen = true;
+                }
+
+                if (codeFill < codeLength) {
+                    code[codeFill++] = bytes[x];
+                }
+
+                boolean bLineEnd = _recordLength > 0
+                        ? pos + x + 1 - lineStart == _recordLength
+                        : bytes[x] == lineEnd;
+
+                if (bLineEnd) {
+                    if (_segments == null || isLastSegment(code, codeFill, codeChars)) {
+                        bRecordOpen = false;
+                    }
+
+                    lineStart = pos + x + 1;
+                    codeFill = 0;
+                }
+            }
+
+            pos += iRead;
+            scan.clear();
+        }
+
+        writeOffsets(offsets, indexPos);
+
+        return count;
+    }
+
+    private boolean isLastSegment(byte[] code, int codeFill, char[] codeChars) {
+        String strCode = new String(code, 0, codeFill, _charset);
+
+        // A short line is padded, as match reads the full code length
+        for (int x = 0; x < codeChars.length; x++) {
+            codeChars[x] = x < strCode.length() ? strCode.charAt(x) : ' ';
+        }
+
+        SegmentedLayout.Segment segment = _segments.match(codeChars);
+
+        return segment != null && segment.isLast();
+    }
+
+    private int writeOffsets(ByteBuffer offsets, long indexPos) throws IOException {
+        offsets.flip();
+
+        int iWritten = offsets.remaining();
+
+        while (offsets.hasRemaining()) {
+            _index.write(offsets, indexPos + offsets.position());
+        }
+
+        offsets.clear();
+
+        return iWritten;
+    }
+}
@@ -0,0 +1,167 @@
+package com.progbits.api.parser;
+
+import com.progbits.api.model.ApiObject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Keeps a window of file ranges parsing ahead of the consumer, and returns
+ * their records in file order or completion order. The channel is closed once
+ * every range has been returned, or when the iterator is closed.
+ */
+final class RangeIterator implements Iterator<ApiObject> {
+
+    /**
+     * Parses the records of a single byte range
+     */
+    @FunctionalInterface
+    interface RangeParser {
+
+        List<ApiObject> parse(long start, long end) throws Exception;
+    }
+
+    private final FileChannel _channel;
+    private final List<long[]> _ranges;
+    private final RangeParser _parser;
+    private final ExecutorService _executor;
+    private final boolean _ordered;
+    private final int _window;
+
+    private final Deque<Future<List<ApiObject>>> _pending = new ArrayDeque<>();
+    private final CompletionService<List<ApiObject>> _completion;
+
+    private int _nextRange = 0;
+    private int _inFlight = 0;
+    private Iterator<ApiObject> _current = Collections.emptyIterator();
+
+    private RangeIterator(FileChannel channel, List<long[]> ranges, RangeParser parser,
+            ExecutorService executor, boolean ordered, int window) {
+        _channel = channel;
+        _ranges = ranges;
+        _parser = parser;
+        _executor = executor;
+        _ordered = ordered;
+        _window = window;
+        _completion = ordered ? null : new ExecutorCompletionService<>(executor);
+
+        fillWindow();
+    }
+
+    /**
+     * Parse the ranges on an executor, keeping twice its parallelism in
+     * flight
+     *
+     * @return The records, closing the Stream stops the parsing and closes
+     * the channel
+     */
+    static Stream<ApiObject> stream(FileChannel channel, List<long[]> ranges,
+            ExecutorService executor, boolean ordered, RangeParser parser) {
+        int parallelism = executor instanceof ForkJoinPool pool
+                ? pool.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+
+        RangeIterator iterator = new RangeIterator(channel, ranges, parser, executor,
+                ordered, Math.max(2, parallelism * 2));
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException io) {
+            // Nothing to do
+        }
+    }
+
+    private void fillWindow() {
+        while (_inFlight < _window && _nextRange < _ranges.size()) {
+            long[] range = _ranges.get(_nextRange++);
+
+            if (_ordered) {
+                _pending.add(_executor.submit(() -> _parser.parse(range[0], range[1])));
+            } else {
+                _pending.add(_completion.submit(() -> _parser.parse(range[0], range[1])));
+            }
+
+            _inFlight++;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!_current.hasNext()) {
+            if (_inFlight == 0) {
+                closeQuietly(_channel);
+
+                return false;
+            }
+
+            try {
+                // The future stays pending until it is done, so close cancels it
+                Future<List<ApiObject>> done = _ordered ? _pending.peek() : _completion.take();
+
+                _current = done.get().iterator();
+                _pending.remove(done);
+                _inFlight--;
+            } catch (InterruptedException ex) {
+                close();
+                Thread.currentThread().interrupt();
+
+                throw new IllegalStateException("Interrupted", ex);
+            } catch (ExecutionException ex) {
+                close();
+
+                if (ex.getCause() instanceof IOException io) {
+                    throw new UncheckedIOException(io);
+                }
+
+                throw new IllegalStateException(ex.getCause().getMessage(), ex.getCause());
+            }
+
+            fillWindow();
+        }
+
+        return true;
+    }
+
+    @Override
+    public ApiObject next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return _current.next();
+    }
+
+    void close() {
+        for (Future<List<ApiObject>> future : _pending) {
+            future.cancel(true);
+        }
+
+        _pending.clear();
+        _inFlight = 0;
+        _nextRange = _ranges.size();
+
+        closeQuietly(_channel);
+    }
+}
@@ -0,0 +1,202 @@
+package com.progbits.api.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads records into a reusable char buffer. A record is either a line, with
+ * the same line endings as BufferedReader.readLine: \n, \r or \r\n, a fixed
+ * number of chars, or as many chars as the layout asks for.
+ *
+ * <p>
+ * The buffer of the current record is overwritten by the next read, fields
+ * are decoded from it in place.
+ * </p>
+ */
+final class RecordReader {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private Reader _in;
+
+    private final char[] _buf = new char[BUFFER_SIZE];
+    private int _pos;
+    private int _limit;
+
+    private char[] _record = new char[1024];
+    private int _recordLength;
+
+    // The record grows as ensure asks for more of it
+    private boolean _open;
+
+    RecordReader(Reader in) {
+        _in = in;
+    }
+
+    /**
+     * Read from another input, keeping the buffers
+     */
+    void reset(Reader in) {
+        _in = in;
+        _pos = 0;
+        _limit = 0;
+        _recordLength = 0;
+        _open = false;
+    }
+
+    private boolean fill() throws IOException {
+        int iRead;
+
+        do {
+            iRead = _in.read(_buf, 0, _buf.length);
+        } while (iRead == 0);
+
+        if (iRead < 0) {
+            return false;
+        }
+
+        _pos = 0;
+        _limit = iRead;
+
+        return true;
+    }
+
+    /**
+     * Read the next line, without the line ending
+     *
+     * @return false at the end of the input
+     */
+    boolean nextLine() throws IOException {
+        _open = false;
+        _recordLength = 0;
+
+        if (_pos == _limit && !fill()) {
+            return false;
+        }
+
+        while (true) {
+            int start = _pos;
+
+            while (_pos < _limit && _buf[_pos] != '\n' && _buf[_pos] != '\r') {
+                _pos++;
+            }
+
+            append(start, _pos);
+
+            if (_pos < _limit) {
+                char c = _buf[_pos++];
+
+                // Consume the \n of a \r\n line ending
+                if (c == '\r' && (_pos < _limit || fill()) && _buf[_pos] == '\n') {
+                    _pos++;
+                }
+
+                return true;
+            }
+
+            if (!fill()) {
+                // Last line has no line ending
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Read the next length chars, line endings are part of the record
+     *
+     * @return false at the end of the input, the last record may be short
+     */
+    boolean nextRecord(int length) throws IOException {
+        _open = false;
+        _recordLength = 0;
+
+        if (_pos == _limit && !fill()) {
+            return false;
+        }
+
+        read(length);
+
+        return true;
+    }
+
+    /**
+     * Start a record that is read as ensure asks for it, for records whose
+     * length is only known from the layout. Line endings between records are
+     * skipped.
+     *
+     * @return false at the end of the input
+     */
+    boolean startRecord() throws IOException {
+        _open = true;
+        _recordLength = 0;
+
+        while (true) {
+            if (_pos == _limit && !fill()) {
+                return false;
+            }
+
+            char c = _buf[_pos];
+
+            if (c == '\n' || c == '\r') {
+                _pos++;
+            } else {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Check the current record holds at least length chars. A record from
+     * startRecord reads more of the input until it does.
+     *
+     * @return false if the record, or the input, ends first
+     */
+    boolean ensure(int length) throws IOException {
+        if (_open && _recordLength < length) {
+            read(length);
+        }
+
+        return _recordLength >= length;
+    }
+
+    private void read(int length) throws IOException {
+        while (_recordLength < length && (_pos < _limit || fill())) {
+            int count = Math.min(length - _recordLength, _limit - _pos);
+
+            append(_pos, _pos + count);
+
+            _pos += count;
+        }
+    }
+
+    private void append(int start, int end) {
+        int length = end - start;
+
+        if (_recordLength + length > _record.length) {
+            char[] newRecord = new char[Math.max(_record.length * 2, _recordLength + length)];
+
+            System.arraycopy(_record, 0, newRecord, 0, _recordLength);
+
+            _record = newRecord;
+        }
+
+        System.arraycopy(_buf, start, _record, _recordLength, length);
+
+        _recordLength += length;
+    }
+
+    /**
+     * @return Buffer holding the current record, from offset 0. The buffer
+     * may be replaced by ensure.
+     */
+    char[] getBuffer() {
+        return _record;
+    }
+
+    /**
+     * @return Length of the current record, so far
+     */
+    int getLength() {
+        return _recordLength;
+    }
+}
@@ -1,5 +1,7 @@
 package com.progbits.api.parser;
 
+import com.fasterxml.aalto.AsyncByteArrayFeeder;
+import com.fasterxml.aalto.AsyncXMLStreamReader;
 import com.fasterxml.aalto.stax.InputFactoryImpl;
 import com.progbits.api.ObjectParser;
 import com.progbits.api.exception.ApiClassNotFoundException;
@@ -7,13 +9,17 @@ import com.progbits.api.exception.ApiException;
 import com.progbits.api.model.ApiClass;
 import com.progbits.api.model.ApiClasses;
 import com.progbits.api.model.ApiObject;
+import com.progbits.api.plan.ClassPlan;
+import com.progbits.api.plan.FieldPlan;
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +32,10 @@ import javax.xml.stream.XMLStreamReader;
  */
 public class XmlObjectParser implements ObjectParser {
 
+    private static enum CONSTANTS {
+        RecordElement
+    };
+
     private ApiObject _obj;
     private InputFactoryImpl _factory = new InputFactoryImpl();
     private XMLStreamReader _in;
@@ -35,7 +45,13 @@ public class XmlObjectParser implements ObjectParser {
     private List<String> parseErrors;
     private Throwable throwException;
 
-    private Map<String, DateTimeFormatter> _dtFormats = new HashMap<>();
+    // Classes found for elements of any fields, null values are misses
+    private final Map<String, ApiClass> _anyClasses = new HashMap<>();
+
+    private final Deque<ParseFrame> _frames = new ArrayDeque<>();
+    private AsyncXMLStreamReader<AsyncByteArrayFeeder> _async;
+    private byte[] _feedBuffer;
+    private String _recordElement;
 
     @Override
     public ObjectParser getParser() {
@@ -55,6 +71,7 @@ public class XmlObjectParser implements ObjectParser {
             Map<String, String> properties, Reader in) throws ApiException {
         try {
             _classes = classes;
+            _anyClasses.clear();
 
             if (in != null) {
                 //_factory.setProperty("isNamespaceAware", false);
@@ -64,21 +81,44 @@ public class XmlObjectParser implements ObjectParser {
             _mainClass = mainClass;
             _props = properties;
             parseErrors = new ArrayList<>();
+
+            initRecords();
         } catch (Exception ex) {
             throw new ApiException("init", ex);
         }
     }
 
+    /**
+     * With RecordElement set, each occurrence of that element is returned as
+     * its own object of the main class, and the document root is not built.
+     */
+    private void initRecords() {
+        _frames.clear();
+
+        if (_props != null) {
+            _recordElement = _props.get(CONSTANTS.RecordElement.name());
+        } else {
+            _recordElement = null;
+        }
+    }
+
     @Override
     public boolean next() throws ApiException, ApiClassNotFoundException {
+        if (_recordElement != null) {
+            return nextRecord();
+        }
+
         _obj = _classes.getInstance(_mainClass);
         this.parseErrors.clear();
         this.throwException = null;
 
         try {
             if (_obj != null) {
-                parseXmlToObject(_classes, _obj.getString("name"), _mainClass, _obj,
-                        true, _in);
+                _frames.clear();
+
+                beginObject(_frames, _obj, _obj.getString("name"), _mainClass, true);
+
+                parseEvents(_in, _frames);
             } else {
                 throw new ApiException(
                         "Main Class is Not Resolving from Classes: " + _mainClass, null);
@@ -92,187 +132,526 @@ public class XmlObjectParser implements ObjectParser {
         return true;
     }
 
+    private boolean nextRecord() {
+        _obj = null;
+        this.parseErrors.clear();
+        this.throwException = null;
+
+        try {
+            parseEvents(_in, _frames);
+        } catch (Exception ex) {
+            recordError(ex);
+        }
+
+        return _obj != null;
+    }
+
+    /**
+     * Note the error, and skip the rest of the current record
+     */
+    private void recordError(Exception ex) {
+        if (!this.parseErrors.contains(ex.getMessage())) {
+            this.parseErrors.add(ex.getMessage());
+        }
+        this.throwException = ex;
+
+        _frames.clear();
+
+        if (_obj != null && !(ex.getCause() instanceof XMLStreamException)) {
+            _frames.push(new ParseFrame(ParseFrame.SKIP, _recordElement));
+        }
+    }
+
     @Override
     public ApiObject getObject() {
         return _obj;
     }
 
-    private void parseXmlToObject(ApiClasses apiClasses, String keyName,
-            String curClass, ApiObject obj, boolean bFirst,
-            XMLStreamReader xmlRead) throws ApiException {
-        boolean iFirstObj = bFirst;
+    /**
+     * Setup incremental parsing. Input is pushed with {@link #feed} as it
+     * arrives, and each call returns the objects completed by that input, so no
+     * thread waits on a slow source.
+     *
+     * @param classes Classes to use for Parsing
+     * @param mainClass The Main Class of the document
+     * @param properties Parser properties
+     */
+    public void initAsync(ApiClasses classes, String mainClass,
+            Map<String, String> properties) throws ApiException, ApiClassNotFoundException {
+        _classes = classes;
+        _anyClasses.clear();
+        _mainClass = mainClass;
+        _props = properties;
+        parseErrors = new ArrayList<>();
+        throwException = null;
+
+        _async = _factory.createAsyncForByteArray();
+        _in = _async;
+
+        initRecords();
+
+        if (_recordElement != null) {
+            _obj = null;
+
+            return;
+        }
 
-        ApiClass thisClass = obj.getApiClass();
+        _obj = _classes.getInstance(_mainClass);
 
-        if (thisClass == null) {
-            throw new ApiException("Class Not Setup on Object", null);
+        if (_obj == null) {
+            throw new ApiException(
+                    "Main Class is Not Resolving from Classes: " + _mainClass, null);
         }
 
-        ApiObject nObj = null;
-        String anyField = null;
+        beginObject(_frames, _obj, _obj.getString("name"), _mainClass, true);
+    }
 
+    /**
+     * Push a chunk of the document. The array may be reused once the call
+     * returns. With RecordElement set, a record that fails to parse is left
+     * out of the returned list, and the error is reported by
+     * {@link #getParseErrors}.
+     *
+     * @param buffer Bytes of the document
+     * @param offset First byte to push
+     * @param length Number of bytes to push
+     * @return Objects completed by this chunk, may be empty
+     */
+    public List<ApiObject> feed(byte[] buffer, int offset, int length) throws ApiException {
         try {
-            OUTER:
-            while (xmlRead.hasNext()) {
-                int iCurEvent = xmlRead.next();
+            _async.getInputFeeder().feedInput(buffer, offset, length);
+        } catch (XMLStreamException ex) {
+            throw new ApiException("Parsing XML Error", ex);
+        }
+
+        return drainAsync();
+    }
+
+    /**
+     * Push the remaining bytes of a ByteBuffer. Heap buffers are read in
+     * place, direct buffers are copied in chunks.
+     *
+     * @param buffer Bytes of the document
+     * @return Objects completed by this chunk, may be empty
+     */
+    public List<ApiObject> feed(ByteBuffer buffer) throws ApiException {
+        if (buffer.hasArray()) {
+            List<ApiObject> retList = feed(buffer.array(),
+                    buffer.arrayOffset() + buffer.position(), buffer.remaining());
+
+            buffer.position(buffer.limit());
+
+            return retList;
+        }
+
+        if (_feedBuffer == null) {
+            _feedBuffer = new byte[8192];
+        }
+
+        List<ApiObject> retList = new ArrayList<>();
+
+        while (buffer.hasRemaining()) {
+            int count = Math.min(buffer.remaining(), _feedBuffer.length);
+
+            buffer.get(_feedBuffer, 0, count);
+
+            retList.addAll(feed(_feedBuffer, 0, count));
+        }
+
+        return retList;
+    }
+
+    /**
+     * Mark the end of the document
+     *
+     * @return Objects completed by the end of the input, may be empty
+     */
+    public List<ApiObject> endOfInput() throws ApiException {
+        _async.getInputFeeder().endOfInput();
+
+        return drainAsync();
+    }
+
+    private List<ApiObject> drainAsync() throws ApiException {
+        List<ApiObject> retList = new ArrayList<>();
+
+        this.parseErrors.clear();
+        this.throwException = null;
+
+        if (_recordElement != null) {
+            drainRecords(retList);
+
+            return retList;
+        }
+
+        try {
+            if (_obj != null && parseEvents(_async, _frames)) {
+                retList.add(_obj);
+
+                _obj = null;
+            }
+
+            if (_obj == null) {
+                drainEpilog();
+            }
+        } catch (ApiException ex) {
+            if (!this.parseErrors.contains(ex.getMessage())) {
+                this.parseErrors.add(ex.getMessage());
+            }
+            this.throwException = ex;
+
+            throw ex;
+        }
+
+        return retList;
+    }
+
+    /**
+     * Read the input after the root element, so the feeder is ready for the
+     * next chunk. Only whitespace, comments and processing instructions may
+     * follow the root.
+     */
+    private void drainEpilog() throws ApiException {
+        try {
+            while (_async.hasNext()) {
+                int iCurEvent = _async.next();
 
                 switch (iCurEvent) {
-                    case XMLStreamReader.START_ELEMENT:
-                        if (iFirstObj) {
-                            iFirstObj = false;
-                        } else if (anyField != null) {
-                            String key = xmlRead.getLocalName().toString();
-
-                            if (_classes != null) {
-                                ApiClass clsSub = null;
-
-                                try {
-                                    clsSub = _classes.getClassByName(key);
-                                } catch (ApiClassNotFoundException aex) {
-                                    // We don't care if it doesn't exist
-                                }
-
-                                if (clsSub != null) {
-                                    ApiObject objNew = clsSub.createInstance();
-
-                                    parseXmlToObject(apiClasses, clsSub.getName(),
-                                            clsSub.getString(
-                                                    "className"), objNew, false,
-                                            xmlRead);
-
-                                    obj.setObject(anyField, objNew);
-                                } else {
-                                    parseToEndTag(key, xmlRead);
-                                }
-                            }
-                        } else {
-                            String key = xmlRead.getLocalName().toString();
-
-                            if (key.equals(keyName)) {
-                                // We are currently in the element for the called object
-                                // Pull attributes if any exist
-                                for (ApiObject fld : thisClass.getList("fields")) {
-                                    Boolean bAttr = fld.getBoolean("attribute");
-
-                                    if (bAttr != null && bAttr) {
-                                        String attrValue = xmlRead.
-                                                getAttributeValue(
-                                                        null, fld.
-                                                                getString("name"));
-
-                                        if (attrValue != null) {
-                                            populateObject(fld.getString("type"),
-                                                    fld, obj, fld.
-                                                            getString("name"),
-                                                    attrValue);
-                                        }
-                                    }
-                                }
-                            } else {
-                                ApiObject fld = thisClass.getListSearch("fields",
-                                        "name", key);
-
-                                if (fld != null) {
-                                    try {
-                                        switch (fld.getString("type").toLowerCase()) {
-                                            case "arraylist":
-                                                // Need to handle ArrayList better
-                                                List<ApiObject> arrList = new ArrayList<>();
-                                                if (obj.getList(key) == null) {
-                                                    obj.createList(key);
-                                                }
-
-                                                ApiObject nArrObj = apiClasses.
-                                                        getInstance(fld.getString(
-                                                                "subType"));
-
-                                                if (nArrObj != null) {
-                                                    parseXmlToObject(apiClasses, key,
-                                                            curClass, nArrObj,
-                                                            false, xmlRead);
-
-                                                    obj.getList(key).add(nArrObj);
-                                                }
-
-                                                break;
-                                            case "object":
-                                                ApiObject apiObject = apiClasses.
-                                                        getInstance(fld.
-                                                                getString("subType"));
-                                                parseXmlToObject(apiClasses, key,
-                                                        fld.getString("subType"),
-                                                        apiObject, false, xmlRead);
-                                                obj.setObject(key, apiObject);
-                                                break;
-                                            case "any":
-                                                anyField = key;
-                                                break;
-                                            default:
-                                                // Pull Standard Types
-                                                populateObject(fld.getString("type"),
-                                                        fld, obj, key, xmlRead.
-                                                                getElementText());
-                                                break;
-                                        }
-                                    } catch (Exception ex) {
-                                        throw new ApiException(
-                                                "Key: " + key + " Message: " + ex.
-                                                        getMessage(), null);
-                                    }
-                                }
-                            }
-                        }
-                        break;
-                    case XMLStreamReader.CHARACTERS:
-                        break;
-                    case XMLStreamReader.END_ELEMENT:
-                        String key = xmlRead.getLocalName().toString();
-                        if (obj != null && key.equals(keyName)) {
-                            break OUTER;
-                        }
-                        if (anyField != null && key.equals(anyField)) {
-                            anyField = null;
-                        }
+                    case AsyncXMLStreamReader.EVENT_INCOMPLETE:
+                    case XMLStreamReader.END_DOCUMENT:
+                        return;
+                    case XMLStreamReader.COMMENT:
+                    case XMLStreamReader.PROCESSING_INSTRUCTION:
+                    case XMLStreamReader.SPACE:
                         break;
                     default:
+                        if (iCurEvent != XMLStreamReader.CHARACTERS || !_async.isWhiteSpace()) {
+                            throw new ApiException("Parsing XML Error: Content after the root element", null);
+                        }
                         break;
                 }
             }
-        } catch (Exception ex) {
-            if (!this.parseErrors.contains(ex.getMessage())) {
-                this.parseErrors.add(ex.getMessage());
-            }
-            this.throwException = ex;
+        } catch (XMLStreamException ex) {
             throw new ApiException("Parsing XML Error", ex);
         }
     }
 
-    private void parseToEndTag(String endTag, XMLStreamReader xmlRead) throws ApiException {
+    private void drainRecords(List<ApiObject> retList) {
         try {
-            while (xmlRead.hasNext()) {
-                int iCurEvent = xmlRead.next();
+            while (_async.hasNext()) {
+                try {
+                    if (!parseEvents(_async, _frames)) {
+                        // Needs more input
+                        break;
+                    }
 
-                if (iCurEvent == XMLStreamReader.END_ELEMENT) {
-                    String key = xmlRead.getLocalName().toString();
+                    if (_obj != null) {
+                        retList.add(_obj);
+                    }
+                } catch (ApiException ex) {
+                    recordError(ex);
 
-                    if (key.equals(endTag)) {
+                    if (_frames.isEmpty()) {
                         break;
                     }
                 }
+
+                _obj = null;
             }
-        } catch (Exception ex) {
+        } catch (XMLStreamException ex) {
+            recordError(new ApiException("Parsing XML Error", ex));
+        }
+    }
+
+    /**
+     * Start a new object on the frame stack
+     */
+    private void beginObject(Deque<ParseFrame> frames, ApiObject obj,
+            String keyName, String curClass, boolean bFirst) throws ApiException {
+        ClassPlan plan = ClassPlan.of(obj.getApiClass());
+
+        if (plan == null) {
+            throw new ApiException("Class Not Setup on Object", null);
+        }
+
+        ParseFrame frame = new ParseFrame(ParseFrame.OBJECT, keyName);
+
+        frame.obj = obj;
+        frame.plan = plan;
+        frame.curClass = curClass;
+        frame.first = bFirst;
+
+        frames.push(frame);
+    }
+
+    /**
+     * Read events until the object at the bottom of the frame stack is
+     * complete. Reading stops early when an async reader needs more input.
+     *
+     * @return true if the object is complete
+     */
+    private boolean parseEvents(XMLStreamReader xmlRead, Deque<ParseFrame> frames) throws ApiException {
+        try {
+            while (xmlRead.hasNext()) {
+                int iCurEvent = xmlRead.next();
+
+                if (iCurEvent == AsyncXMLStreamReader.EVENT_INCOMPLETE) {
+                    return false;
+                }
+
+                if (handleEvent(xmlRead, iCurEvent, frames)) {
+                    return true;
+                }
+            }
+        } catch (XMLStreamException ex) {
             throw new ApiException("Parsing XML Error", ex);
         }
+
+        // The end of the input completes any open object
+        frames.clear();
+
+        return true;
+    }
+
+    private boolean handleEvent(XMLStreamReader xmlRead, int iCurEvent,
+            Deque<ParseFrame> frames) throws ApiException {
+        ParseFrame frame = frames.peek();
+
+        if (frame == null) {
+            // Between records, look for the start of the next one
+            if (iCurEvent == XMLStreamReader.START_ELEMENT
+                    && xmlRead.getLocalName().equals(_recordElement)) {
+                beginRecord(xmlRead, frames);
+
+                return false;
+            }
+
+            return iCurEvent == XMLStreamReader.END_DOCUMENT;
+        }
+
+        switch (iCurEvent) {
+            case XMLStreamReader.START_ELEMENT:
+                startElement(xmlRead, frame, frames);
+                break;
+            case XMLStreamReader.CHARACTERS:
+            case XMLStreamReader.CDATA:
+            case XMLStreamReader.SPACE:
+                if (frame.kind == ParseFrame.TEXT) {
+                    frame.text.append(xmlRead.getTextCharacters(),
+                            xmlRead.getTextStart(), xmlRead.getTextLength());
+                }
+                break;
+            case XMLStreamReader.END_ELEMENT:
+                return endElement(xmlRead, frame, frames);
+            case XMLStreamReader.END_DOCUMENT:
+                frames.clear();
+                return true;
+            default:
+                break;
+        }
+
+        return false;
+    }
+
+    private void startElement(XMLStreamReader xmlRead, ParseFrame frame,
+            Deque<ParseFrame> frames) throws ApiException {
+        String key = xmlRead.getLocalName();
+
+        if (frame.kind == ParseFrame.SKIP) {
+            return;
+        } else if (frame.kind == ParseFrame.TEXT) {
+            throw new ApiException("Key: " + frame.keyName
+                    + " Message: Text element contains element " + key, null);
+        }
+
+        ApiObject obj = frame.obj;
+
+        if (frame.first) {
+            frame.first = false;
+
+            if (frame.keyName == null) {
+                // The root closes on its own end tag
+                frame.keyName = key;
+            }
+
+            readAttributes(xmlRead, frame.plan, obj);
+        } else if (frame.anyField != null) {
+            if (_classes != null) {
+                ApiClass clsSub = findAnyClass(key);
+
+                if (clsSub != null) {
+                    ApiObject objNew = clsSub.createInstance();
+
+                    obj.setObject(frame.anyField, objNew);
+
+                    beginObject(frames, objNew, clsSub.getName(),
+                            clsSub.getString("className"), false);
+
+                    readAttributes(xmlRead, frames.peek().plan, objNew);
+                } else {
+                    frames.push(new ParseFrame(ParseFrame.SKIP, key));
+                }
+            }
+        } else if (key.equals(frame.keyName)) {
+            // We are currently in the element for the called object
+            readAttributes(xmlRead, frame.plan, obj);
+        } else {
+            FieldPlan fld = frame.plan.get(key);
+
+            if (fld != null) {
+                try {
+                    switch (fld.getType()) {
+                        case ARRAYLIST:
+                            if (obj.getList(key) == null) {
+                                obj.createList(key);
+                            }
+
+                            ApiObject nArrObj = _classes.getInstance(fld.getSubType());
+
+                            if (nArrObj != null) {
+                                obj.getList(key).add(nArrObj);
+
+                                beginObject(frames, nArrObj, key, frame.curClass, false);
+
+                                readAttributes(xmlRead, frames.peek().plan, nArrObj);
+                            }
+
+                            break;
+                        case OBJECT:
+                            ApiObject apiObject = _classes.getInstance(fld.getSubType());
+
+                            obj.setObject(key, apiObject);
+
+                            beginObject(frames, apiObject, key, fld.getSubType(), false);
+
+                            readAttributes(xmlRead, frames.peek().plan, apiObject);
+                            break;
+                        case ANY:
+                            frame.anyField = key;
+                            break;
+                        default:
+                            // Pull Standard Types, once the element text is read
+                            ParseFrame textFrame = new ParseFrame(ParseFrame.TEXT, key);
+
+                            textFrame.obj = obj;
+                            textFrame.fld = fld;
+                            textFrame.text = new StringBuilder();
+
+                            frames.push(textFrame);
+                            break;
+                    }
+                } catch (Exception ex) {
+                    throw new ApiException(
+                            "Key: " + key + " Message: " + ex.getMessage(), null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pull attributes of the current element, if any exist
+     */
+    private void readAttributes(XMLStreamReader xmlRead, ClassPlan plan,
+            ApiObject obj) throws ApiException {
+        for (FieldPlan fld : plan.getAttributes()) {
+            String attrValue = xmlRead.getAttributeValue(null, fld.getName());
+
+            if (attrValue != null) {
+                populateObject(fld, obj, fld.getName(), attrValue);
+            }
+        }
+    }
+
+    /**
+     * Find the class for an element of an any field. Misses are remembered,
+     * so unknown elements are only looked up once per set of classes.
+     */
+    private ApiClass findAnyClass(String key) {
+        ApiClass clsSub = _anyClasses.get(key);
+
+        if (clsSub == null && !_anyClasses.containsKey(key)) {
+            try {
+                clsSub = _classes.getClassByName(key);
+            } catch (ApiClassNotFoundException aex) {
+                // We don't care if it doesn't exist
+            }
+
+            _anyClasses.put(key, clsSub);
+        }
+
+        return clsSub;
     }
 
-    private void populateObject(String type, ApiObject fld, ApiObject obj,
+    /**
+     * Start an object of the main class for the record element the reader is
+     * on
+     */
+    private void beginRecord(XMLStreamReader xmlRead, Deque<ParseFrame> frames)
+            throws ApiException {
+        try {
+            _obj = _classes.getInstance(_mainClass);
+        } catch (ApiClassNotFoundException ex) {
+            throw new ApiException(ex.getMessage(), ex);
+        }
+
+        if (_obj == null) {
+            throw new ApiException(
+                    "Main Class is Not Resolving from Classes: " + _mainClass, null);
+        }
+
+        beginObject(frames, _obj, _recordElement, _mainClass, false);
+
+        readAttributes(xmlRead, frames.peek().plan, _obj);
+    }
+
+    /**
+     * @return true if the object at the bottom of the frame stack is complete
+     */
+    private boolean endElement(XMLStreamReader xmlRead, ParseFrame frame,
+            Deque<ParseFrame> frames) throws ApiException {
+        String key = xmlRead.getLocalName();
+
+        switch (frame.kind) {
+            case ParseFrame.SKIP:
+                if (key.equals(frame.keyName)) {
+                    frames.pop();
+                }
+                break;
+            case ParseFrame.TEXT:
+                frames.pop();
+
+                try {
+                    populateObject(frame.fld, frame.obj, key,
+                            frame.text.toString());
+                } catch (Exception ex) {
+                    throw new ApiException(
+                            "Key: " + key + " Message: " + ex.getMessage(), null);
+                }
+                break;
+            default:
+                if (key.equals(frame.keyName)) {
+                    frames.pop();
+
+                    return frames.isEmpty();
+                }
+
+                if (frame.anyField != null && key.equals(frame.anyField)) {
+                    frame.anyField = null;
+                }
+                break;
+        }
+
+        return false;
+    }
+
+    private void populateObject(FieldPlan fld, ApiObject obj,
             String name, String value) throws ApiException {
-        if (type != null) {
-            switch (type.toLowerCase()) {
-                case "string":
+        if (fld.getRawType() != null) {
+            switch (fld.getType()) {
+                case STRING:
                     obj.setString(name, value);
                     break;
-                case "stringarray":
+                case STRINGARRAY:
                     if (obj.isNull(name)) {
                         obj.createStringArray(name);
                     }
@@ -280,57 +659,45 @@ public class XmlObjectParser implements ObjectParser {
                     obj.getStringArray(name).add(value);
                     break;
 
-                case "long":
+                case LONG:
                     if (value.length() > 0) {
                         obj.setLong(name, Long.parseLong(value));
                     }
                     break;
 
-                case "integer":
+                case INTEGER:
                     if (value.length() > 0) {
                         obj.setInteger(name, Integer.parseInt(value));
                     }
                     break;
 
-                case "integerarray":
+                case INTEGERARRAY:
                     if (obj.isNull(name)) {
                         obj.createIntegerArray(name);
                     }
 
                     obj.getIntegerArray(name).add(Integer.valueOf(value));
                     break;
-                case "double":
+                case DOUBLE:
                     if (value.length() > 0) {
                         obj.setDouble(name, Double.parseDouble(value));
                     }
                     break;
-                case "date":
-                case "datetime":
-                    if (!_dtFormats.containsKey(name)) {
-                        String format = fld.getString("format");
-
-                        if (format != null && !format.isEmpty()) {
-                            DateTimeFormatter dtFormat = DateTimeFormatter.
-                                    ofPattern(format);
-
-                            _dtFormats.put(name, dtFormat);
-                        } else {
-                            _dtFormats.put(name, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-                        }
-                    }
-
+                case DATETIME:
                     if (value.length() > 0) {
-                        obj.setDateTime(name, OffsetDateTime.parse(value, _dtFormats.get(name)));
+                        obj.setDateTime(name, OffsetDateTime.parse(value, fld.requireDateFormat()));
                     }
 
                     break;
-                case "boolean":
+                case BOOLEAN:
                     if (value.length() == 0) {
                         obj.setBoolean(name, false);
                     } else {
                         obj.setBoolean(name, Boolean.parseBoolean(value));
                     }
 
+                    break;
+                default:
                     break;
             }
         } else {
@@ -362,9 +729,11 @@ public class XmlObjectParser implements ObjectParser {
 
         if (xmlRead != null) {
             if (retObj != null) {
-                parseXmlToObject(_classes, retObj.getString("name"), _mainClass,
-                        retObj,
-                        true, xmlRead);
+                Deque<ParseFrame> frames = new ArrayDeque<>();
+
+                beginObject(frames, retObj, retObj.getString("name"), _mainClass, true);
+
+                parseEvents(xmlRead, frames);
             } else {
                 throw new ApiException(
                         "Main Class is Not Resolving from Classes: " + _mainClass, null);
@@ -373,6 +742,67 @@ public class XmlObjectParser implements ObjectParser {
         return retObj;
     }
 
+    /**
+     * Parse an object from a reader that is already part way through a
+     * document, for example on an operation found by SoapEnvelope. Reading
+     * stops at the end tag of the element.
+     *
+     * @param xmlRead Reader positioned on the start of the element for the
+     * object
+     * @param className Class of the object, null for the main class
+     * @return The parsed object
+     */
+    public ApiObject parseSingle(XMLStreamReader xmlRead, String className) throws ApiException, ApiClassNotFoundException {
+        if (className == null) {
+            className = _mainClass;
+        }
+
+        ApiObject retObj = _classes.getInstance(className);
+
+        if (retObj == null) {
+            throw new ApiException(
+                    "Main Class is Not Resolving from Classes: " + className, null);
+        }
+
+        if (!xmlRead.isStartElement()) {
+            throw new ApiException("Reader is not on a Start Element", null);
+        }
+
+        Deque<ParseFrame> frames = new ArrayDeque<>();
+
+        beginObject(frames, retObj, xmlRead.getLocalName(), className, false);
+
+        readAttributes(xmlRead, frames.peek().plan, retObj);
+
+        parseEvents(xmlRead, frames);
+
+        return retObj;
+    }
+
+    private static final class ParseFrame {
+
+        static final int OBJECT = 0;
+        static final int TEXT = 1;
+        static final int SKIP = 2;
+
+        final int kind;
+        String keyName;
+
+        ApiObject obj;
+        ClassPlan plan;
+        String curClass;
+        String anyField;
+        boolean first;
+
+        FieldPlan fld;
+        StringBuilder text;
+
+        ParseFrame(int kind, String keyName) {
+            this.kind = kind;
+            this.keyName = keyName;
+        }
+    }
+
     @Override
     public List<String> getParseErrors() {
         return this.parseErrors;
@@ -6,6 +6,9 @@ import com.progbits.api.exception.ApiException;
 import com.progbits.api.model.ApiClass;
 import com.progbits.api.model.ApiClasses;
 import com.progbits.api.model.ApiObject;
+import com.progbits.api.plan.ClassPlan;
+import com.progbits.api.plan.FieldPlan;
+import com.progbits.api.plan.FieldType;
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -13,7 +16,6 @@ import java.io.Reader;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.yaml.snakeyaml.DumperOptions;
@@ -50,8 +52,6 @@ public class YamlObjectParser implements ObjectParser {
     private List<String> parseErrors;
     private Throwable throwException;
 
-    private Map<String, DateTimeFormatter> _dtFormats = new HashMap<>();
-
     public YamlObjectParser() {
         createYaml();
     }
@@ -156,9 +156,10 @@ public class YamlObjectParser implements ObjectParser {
             }
         }
 
+        ClassPlan plan = ClassPlan.of(apiClass);
         String key = null;
         ApiObject nObj = null;
-        ApiObject curField = null;
+        FieldPlan curField = null;
         boolean inArray = false;
         int arrayType = ApiObject.TYPE_ARRAYLIST;
 
@@ -177,9 +178,8 @@ public class YamlObjectParser implements ObjectParser {
                     } else {
                         if (apiClasses != null) {
                             if (curField != null) {
-                                if (curField.getString("subType") != null) {
-                                    nObj = apiClasses.getInstance(curField.
-                                        getString("subType"));
+                                if (curField.getSubType() != null) {
+                                    nObj = apiClasses.getInstance(curField.getSubType());
                                 } else {
                                     try {
                                         nObj = apiClasses.getInstanceByName(key);
@@ -232,8 +232,8 @@ public class YamlObjectParser implements ObjectParser {
                     if (key == null) {
                         key = se.getValue();
 
-                        if (apiClass != null) {
-                            curField = apiClass.getListSearch("fields", "name", key);
+                        if (plan != null) {
+                            curField = plan.get(key);
                         } else {
                             curField = null;
                         }
@@ -261,7 +261,7 @@ public class YamlObjectParser implements ObjectParser {
         }
     }
 
-    private void processScalar(ApiObject obj, String key, ApiObject curField, String resolvedType, String subject, boolean inArray) {
+    private void processScalar(ApiObject obj, String key, FieldPlan curField, String resolvedType, String subject, boolean inArray) {
 
         switch (resolvedType) {
             case "tag:yaml.org,2002:str":
@@ -278,33 +278,13 @@ public class YamlObjectParser implements ObjectParser {
 
             case "tag:yaml.org,2002:timestamp":
                 if (curField != null) {
-                    if ("Date".equals(curField.getString("type"))
-                        || "DateTime".equals(curField.getString("type"))) {
-                        if (!_dtFormats.containsKey(key)) {
-                            String format = curField.getString("format");
-
-                            if (format != null && !format.isEmpty()) {
-                                DateTimeFormatter dtFormat = DateTimeFormatter.
-                                    ofPattern(format);
-
-                                _dtFormats.put(key, dtFormat);
-                            } else {
-                                _dtFormats.put(key, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-                            }
-                        }
-
+                    if (curField.getType() == FieldType.DATETIME) {
                         if (subject.length() > 0) {
-                            obj.setDateTime(key, OffsetDateTime.parse(subject, _dtFormats.get(key)));
+                            obj.setDateTime(key, OffsetDateTime.parse(subject, curField.requireDateFormat()));
                         }
                     }
                 } else {
-                    DateTimeFormatter dtFormat = _dtFormats.get(key);
-
-                    if (null == dtFormat) {
-                        dtFormat = _dtFormats.put(key, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-                    }
-
-                    obj.setDateTime(key, OffsetDateTime.parse(subject, _dtFormats.get(key)));
+                    obj.setDateTime(key, OffsetDateTime.parse(subject, DateTimeFormatter.ISO_OFFSET_DATE_TIME));
                 }
                 break;
 
@@ -0,0 +1,200 @@
+package com.progbits.api.plan;
+
+import com.progbits.api.model.ApiClass;
+import com.progbits.api.model.ApiObject;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable field index compiled once per ApiClass.
+ *
+ * Plans are cached by ApiClass instance and shared across parser and writer
+ * instances, so classes of other ApiClasses with the same className get
+ * their own plans. A cached plan is only reused while the class has the same
+ * field list with the same number of fields, otherwise it is compiled again.
+ * The cache holds the classes weakly, a plan is dropped once its class is no
+ * longer used.
+ */
+public final class ClassPlan {
+
+    private static final Map<Object, ClassPlan> PLANS = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<ApiClass> RELEASED = new ReferenceQueue<>();
+
+    private final ApiClass apiClass;
+    private final List<ApiObject> fieldDefs;
+    private final int fieldCount;
+    private final Map<String, FieldPlan> byName;
+    private final List<FieldPlan> fields;
+    private final List<FieldPlan> attributes;
+    private volatile FixedWidthLayout fixedWidthLayout;
+
+    private ClassPlan(ApiClass apiClass) {
+        this.apiClass = apiClass;
+        this.fieldDefs = apiClass.getList("fields");
+
+        List<FieldPlan> lstFields = new ArrayList<>();
+        List<FieldPlan> lstAttributes = new ArrayList<>();
+        Map<String, FieldPlan> mapFields = new HashMap<>();
+
+        if (fieldDefs != null) {
+            for (ApiObject fld : fieldDefs) {
+                FieldPlan plan = new FieldPlan(fld);
+
+                lstFields.add(plan);
+
+                if (plan.isAttribute()) {
+                    lstAttributes.add(plan);
+                }
+
+                if (plan.getName() != null) {
+                    mapFields.putIfAbsent(plan.getName(), plan);
+                }
+            }
+        }
+
+        this.fieldCount = lstFields.size();
+        this.fields = Collections.unmodifiableList(lstFields);
+        this.attributes = Collections.unmodifiableList(lstAttributes);
+        this.byName = mapFields;
+    }
+
+    /**
+     * Return the compiled plan for an ApiClass, compiling it if required.
+     *
+     * @param apiClass The class to compile
+     * @return The plan, or null if apiClass is null
+     */
+    public static ClassPlan of(ApiClass apiClass) {
+        if (apiClass == null) {
+            return null;
+        }
+
+        ClassPlan plan = PLANS.get(new Lookup(apiClass));
+
+        if (plan == null || !plan.isCurrent(apiClass)) {
+            expungeReleased();
+
+            plan = new ClassPlan(apiClass);
+
+            PLANS.put(new ClassKey(apiClass), plan);
+        }
+
+        return plan;
+    }
+
+    private boolean isCurrent(ApiClass test) {
+        List<ApiObject> testFields = test.getList("fields");
+
+        return testFields == fieldDefs
+                && (testFields == null ? 0 : testFields.size()) == fieldCount;
+    }
+
+    private static void expungeReleased() {
+        Object key;
+
+        while ((key = RELEASED.poll()) != null) {
+            PLANS.remove(key);
+        }
+    }
+
+    /**
+     * Find a field by name
+     *
+     * @param name Name of the field
+     * @return The field plan, or null if the field is not defined
+     */
+    public FieldPlan get(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * @return The fields in definition order
+     */
+    public List<FieldPlan> getFields() {
+        return fields;
+    }
+
+    /**
+     * @return The fields read from XML attributes, in definition order
+     */
+    public List<FieldPlan> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Return the fixed-width layout of the fields, compiling it on first use
+     *
+     * @return The layout
+     */
+    public FixedWidthLayout getFixedWidthLayout() {
+        FixedWidthLayout layout = fixedWidthLayout;
+
+        if (layout == null) {
+            layout = new FixedWidthLayout(fields);
+
+            fixedWidthLayout = layout;
+        }
+
+        return layout;
+    }
+
+    public ApiClass getApiClass() {
+        return apiClass;
+    }
+
+    /**
+     * Cache key holding its ApiClass weakly, equal to the keys and lookups of
+     * the same ApiClass instance
+     */
+    private static final class ClassKey extends WeakReference<ApiClass> {
+
+        private final int hash;
+
+        ClassKey(ApiClass apiClass) {
+            super(apiClass, RELEASED);
+
+            this.hash = System.identityHashCode(apiClass);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+
+            ApiClass cls = get();
+
+            return cls != null && (obj instanceof ClassKey key ? key.get() == cls
+                    : obj instanceof Lookup lookup && lookup.apiClass == cls);
+        }
+    }
+
+    /**
+     * Probe for an ApiClass instance, so a lookup does not create a
+     * WeakReference
+     */
+    private record Lookup(ApiClass apiClass) {
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(apiClass);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ClassKey key ? key.get() == apiClass
+                    : obj instanceof Lookup lookup && lookup.apiClass == apiClass;
+        }
+    }
+}
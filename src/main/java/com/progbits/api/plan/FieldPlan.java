@@ -0,0 +1,203 @@
+package com.progbits.api.plan;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.progbits.api.model.ApiObject;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Immutable, pre-resolved view of a single ApiClass field definition.
+ */
+public final class FieldPlan {
+
+    private final ApiObject field;
+    private final String name;
+    private final String rawType;
+    private final FieldType type;
+    private final String subType;
+    private final String format;
+    private final DateTimeFormatter dateFormat;
+    private final SerializableString jsonName;
+    private final boolean attribute;
+    private final int length;
+    private final boolean required;
+    private final String iterationCount;
+    private final String iterationField;
+    private final int iterationOffset;
+    private final FieldUsage usage;
+
+    FieldPlan(ApiObject field) {
+        this.field = field;
+        this.name = field.getString("name");
+        this.rawType = field.getString("type");
+        this.type = FieldType.resolve(rawType);
+        this.subType = field.getString("subType");
+        this.format = field.getString("format");
+        this.dateFormat = type == FieldType.DATETIME ? compileDateFormat(format) : null;
+        this.jsonName = name != null ? new SerializedString(name) : null;
+
+        Boolean bAttr = field.getBoolean("attribute");
+
+        this.attribute = bAttr != null && bAttr;
+        this.length = field.getCoreObject("length") instanceof Number iLength ? iLength.intValue() : 0;
+        this.required = field.getCoreObject("min") instanceof Number iMin && iMin.longValue() > 0;
+
+        // iterationCount is a field name, optionally followed by -offset
+        this.iterationCount = field.getString("iterationCount");
+
+        if (iterationCount != null && iterationCount.contains("-")) {
+            String[] splitCount = iterationCount.split("-");
+
+            this.iterationField = splitCount[0];
+            this.iterationOffset = parseOffset(splitCount);
+        } else {
+            this.iterationField = iterationCount;
+            this.iterationOffset = 0;
+        }
+
+        this.usage = FieldUsage.resolve(field.getString("usage"));
+    }
+
+    private static int parseOffset(String[] splitCount) {
+        try {
+            return splitCount.length > 1 ? Integer.parseInt(splitCount[1]) : -1;
+        } catch (NumberFormatException nfe) {
+            return -1;
+        }
+    }
+
+    private static DateTimeFormatter compileDateFormat(String format) {
+        if (format == null || format.isEmpty()) {
+            return DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+        }
+
+        try {
+            return DateTimeFormatter.ofPattern(format);
+        } catch (IllegalArgumentException iex) {
+            // Left null so the pattern error surfaces where the field is used
+            return null;
+        }
+    }
+
+    /**
+     * @return The original field definition
+     */
+    public ApiObject getField() {
+        return field;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The type attribute as it appears on the field definition
+     */
+    public String getRawType() {
+        return rawType;
+    }
+
+    public FieldType getType() {
+        return type;
+    }
+
+    /**
+     * @return The class name of the subType, null if not defined
+     */
+    public String getSubType() {
+        return subType;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * Formatter built from the field format, ISO_OFFSET_DATE_TIME when no
+     * format is defined. Returns null if the field is not a DateTime, or the
+     * format is not a valid pattern.
+     *
+     * @return The DateTimeFormatter for this field
+     */
+    public DateTimeFormatter getDateFormat() {
+        return dateFormat;
+    }
+
+    /**
+     * Same as getDateFormat, but throws the pattern error if the format is
+     * not a valid pattern. Fields of other types build the formatter on each
+     * call.
+     *
+     * @return The DateTimeFormatter for this field
+     */
+    public DateTimeFormatter requireDateFormat() {
+        if (dateFormat != null) {
+            return dateFormat;
+        }
+
+        if (format == null || format.isEmpty()) {
+            return DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+        }
+
+        return DateTimeFormatter.ofPattern(format);
+    }
+
+    /**
+     * @return The field name pre-encoded for JSON output
+     */
+    public SerializableString getJsonName() {
+        return jsonName;
+    }
+
+    /**
+     * @return true if the field is read from an XML attribute
+     */
+    public boolean isAttribute() {
+        return attribute;
+    }
+
+    /**
+     * @return The fixed-width length of the field, 0 if not defined
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return true if min is greater than 0
+     */
+    public boolean isRequired() {
+        return required;
+    }
+
+    /**
+     * @return The iterationCount attribute, null if not defined
+     */
+    public String getIterationCount() {
+        return iterationCount;
+    }
+
+    /**
+     * @return The field holding the count of an iterationCount, null if not
+     * defined
+     */
+    public String getIterationField() {
+        return iterationField;
+    }
+
+    /**
+     * @return Amount subtracted from the count of an iterationCount, -1 if
+     * the offset is not a number
+     */
+    public int getIterationOffset() {
+        return iterationOffset;
+    }
+
+    /**
+     * @return How the fixed-width field is stored, DISPLAY if usage is not
+     * defined
+     */
+    public FieldUsage getUsage() {
+        return usage;
+    }
+}
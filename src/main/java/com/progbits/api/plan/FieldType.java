@@ -0,0 +1,39 @@
+package com.progbits.api.plan;
+
+/**
+ * Field types resolved once from the "type" attribute of an ApiClass field.
+ */
+public enum FieldType {
+    STRING, STRINGARRAY, INTEGER, INTEGERARRAY, LONG, DOUBLE, DOUBLEARRAY,
+    DECIMAL, DATETIME, BOOLEAN, OBJECT, ARRAYLIST, ANY, UNKNOWN;
+
+    /**
+     * Resolve the type string from a field definition. Matching is case
+     * insensitive, unknown or null types resolve to UNKNOWN.
+     *
+     * @param type The type attribute of the field
+     * @return The resolved FieldType
+     */
+    public static FieldType resolve(String type) {
+        if (type == null) {
+            return UNKNOWN;
+        }
+
+        return switch (type.toLowerCase()) {
+            case "string" -> STRING;
+            case "stringarray", "arraystring" -> STRINGARRAY;
+            case "integer", "int" -> INTEGER;
+            case "integerarray" -> INTEGERARRAY;
+            case "long" -> LONG;
+            case "double" -> DOUBLE;
+            case "doublearray" -> DOUBLEARRAY;
+            case "decimal", "number" -> DECIMAL;
+            case "date", "datetime" -> DATETIME;
+            case "boolean" -> BOOLEAN;
+            case "object" -> OBJECT;
+            case "arraylist" -> ARRAYLIST;
+            case "any" -> ANY;
+            default -> UNKNOWN;
+        };
+    }
+}
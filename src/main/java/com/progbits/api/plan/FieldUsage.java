@@ -0,0 +1,54 @@
+package com.progbits.api.plan;
+
+/**
+ * How a fixed-width field is stored, resolved once from the "usage"
+ * attribute of an ApiClass field. The names follow the COBOL USAGE clause.
+ */
+public enum FieldUsage {
+    /**
+     * Text, the default
+     */
+    DISPLAY,
+    /**
+     * Packed decimal, COMP-3. Two digits per byte, the last half byte is the
+     * sign
+     */
+    PACKED,
+    /**
+     * Zoned decimal, one digit per character with the sign overpunched on the
+     * last digit
+     */
+    ZONED,
+    /**
+     * Big-endian two's complement binary, COMP
+     */
+    BINARY;
+
+    /**
+     * Resolve the usage string from a field definition. Matching is case
+     * insensitive, null or unknown usages resolve to DISPLAY.
+     *
+     * @param usage The usage attribute of the field
+     * @return The resolved FieldUsage
+     */
+    public static FieldUsage resolve(String usage) {
+        if (usage == null) {
+            return DISPLAY;
+        }
+
+        return switch (usage.toLowerCase()) {
+            case "packed", "comp-3" -> PACKED;
+            case "zoned" -> ZONED;
+            case "binary", "comp", "comp-4", "comp-5" -> BINARY;
+            default -> DISPLAY;
+        };
+    }
+
+    /**
+     * @return true if the field holds raw bytes, which have to be read with a
+     * single byte code page
+     */
+    public boolean isBinary() {
+        return this == PACKED || this == BINARY;
+    }
+}
@@ -0,0 +1,104 @@
+package com.progbits.api.plan;
+
+import java.util.List;
+
+/**
+ * Fixed-width record layout compiled once per ClassPlan.
+ *
+ * Each field is given its start and end offset in the record, so a record
+ * can be read or written field by field without summing lengths again.
+ * Offsets are relative to the start of the layout, a segmented record adds
+ * the length of its segment code.
+ */
+public final class FixedWidthLayout {
+
+    private final FieldPlan[] fields;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] impliedScales;
+    private final int recordLength;
+    private final boolean binary;
+
+    FixedWidthLayout(List<FieldPlan> lstFields) {
+        this.fields = lstFields.toArray(new FieldPlan[0]);
+        this.starts = new int[fields.length];
+        this.ends = new int[fields.length];
+        this.impliedScales = new int[fields.length];
+
+        int iCurLoc = 0;
+        boolean bBinary = false;
+
+        for (int x = 0; x < fields.length; x++) {
+            starts[x] = iCurLoc;
+            iCurLoc += Math.max(0, fields[x].getLength());
+            ends[x] = iCurLoc;
+
+            impliedScales[x] = impliedScale(fields[x]);
+
+            bBinary |= fields[x].getUsage().isBinary();
+        }
+
+        this.recordLength = iCurLoc;
+        this.binary = bBinary;
+    }
+
+    /**
+     * A V in the format of a Decimal marks an implied decimal point, the
+     * characters after the V are the digits after the point.
+     */
+    private static int impliedScale(FieldPlan fld) {
+        String format = fld.getFormat();
+
+        if (fld.getType() != FieldType.DECIMAL || format == null) {
+            return -1;
+        }
+
+        int iLoc = format.indexOf('V');
+
+        return iLoc > -1 ? format.length() - iLoc - 1 : -1;
+    }
+
+    public int getFieldCount() {
+        return fields.length;
+    }
+
+    public FieldPlan getField(int index) {
+        return fields[index];
+    }
+
+    /**
+     * @return Offset of the first character of the field
+     */
+    public int getStart(int index) {
+        return starts[index];
+    }
+
+    /**
+     * @return Offset after the last character of the field
+     */
+    public int getEnd(int index) {
+        return ends[index];
+    }
+
+    /**
+     * @return Digits after the implied decimal point of a Decimal field, -1
+     * if the format has no V
+     */
+    public int getImpliedScale(int index) {
+        return impliedScales[index];
+    }
+
+    /**
+     * @return Sum of the field lengths
+     */
+    public int getRecordLength() {
+        return recordLength;
+    }
+
+    /**
+     * @return true if any field is packed or binary
+     */
+    public boolean isBinary() {
+        return binary;
+    }
+}
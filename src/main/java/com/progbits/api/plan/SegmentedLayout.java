@@ -0,0 +1,257 @@
+package com.progbits.api.plan;
+
+import com.progbits.api.exception.ApiClassNotFoundException;
+import com.progbits.api.model.ApiClasses;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Segment codes of a segmented fixed-width class, compiled into a char trie.
+ *
+ * Each Object or ArrayList field of the class is a segment, the field name is
+ * the code at the start of each line of the segment, and the subType is the
+ * layout of the rest of the line. Lines are classified against the trie
+ * directly from the line buffer, without creating a String for the code.
+ */
+public final class SegmentedLayout {
+
+    private final Node root = new Node();
+    private final Map<String, Segment> byCode = new HashMap<>();
+    private final List<Segment> segments;
+    private final int codeLength;
+
+    private SegmentedLayout(List<Segment> lstSegments, String lastCode) {
+        int iLength = 0;
+
+        for (Segment segment : lstSegments) {
+            root.insert(segment.code, 0, segment);
+
+            byCode.put(segment.code, segment);
+
+            iLength = Math.max(iLength, segment.code.length());
+        }
+
+        if (lastCode != null) {
+            byCode.get(lastCode).last = true;
+        }
+
+        this.segments = Collections.unmodifiableList(lstSegments);
+        this.codeLength = iLength;
+    }
+
+    /**
+     * Compile the segments of a class
+     *
+     * @param plan Plan of the segmented class
+     * @param classes Classes holding the subType of each segment
+     * @return The layout, or null if the class has no segments
+     * @throws ApiClassNotFoundException The subType of a segment is not in
+     * classes
+     */
+    public static SegmentedLayout of(ClassPlan plan, ApiClasses classes) throws ApiClassNotFoundException {
+        List<Segment> lstSegments = new ArrayList<>();
+        String lastCode = null;
+
+        for (FieldPlan fld : plan.getFields()) {
+            if (fld.getType() == FieldType.OBJECT || fld.getType() == FieldType.ARRAYLIST) {
+                lstSegments.add(new Segment(fld, ClassPlan.of(classes.getClass(fld.getSubType()))));
+
+                lastCode = fld.getName();
+            }
+        }
+
+        return lstSegments.isEmpty() ? null : new SegmentedLayout(lstSegments, lastCode);
+    }
+
+    /**
+     * Check whether a fixed-width class holds packed or binary fields, in its
+     * own layout or in the layout of one of its segments
+     *
+     * @param classes Classes holding the class and its segments
+     * @param className The class
+     * @return true if the class, or a segment, has a packed or binary field.
+     * false if the class is not found
+     */
+    public static boolean isBinary(ApiClasses classes, String className) {
+        if (classes == null || className == null) {
+            return false;
+        }
+
+        try {
+            ClassPlan plan = ClassPlan.of(classes.getClass(className));
+
+            if (plan.getFixedWidthLayout().isBinary()) {
+                return true;
+            }
+
+            SegmentedLayout segments = of(plan, classes);
+
+            return segments != null && segments.isBinary();
+        } catch (ApiClassNotFoundException ex) {
+            // Reported when the class is used
+        }
+
+        return false;
+    }
+
+    /**
+     * Classify a line by the code in its first getCodeLength() chars,
+     * ignoring surrounding whitespace
+     *
+     * @param buf The line, starting at offset 0
+     * @return The segment, or null if the code is not a segment
+     */
+    public Segment match(char[] buf) {
+        int start = 0;
+        int end = codeLength;
+
+        while (start < end && buf[start] <= ' ') {
+            start++;
+        }
+
+        while (end > start && buf[end - 1] <= ' ') {
+            end--;
+        }
+
+        Node node = root;
+
+        for (int x = start; x < end && node != null; x++) {
+            node = node.child(buf[x]);
+        }
+
+        return node != null ? node.segment : null;
+    }
+
+    /**
+     * @param code The segment code
+     * @return The segment, or null if the code is not a segment
+     */
+    public Segment get(String code) {
+        return byCode.get(code);
+    }
+
+    /**
+     * @return true if the layout of a segment has a packed or binary field
+     */
+    public boolean isBinary() {
+        for (Segment segment : segments) {
+            if (segment.getLayout().isBinary()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return The segments in definition order
+     */
+    public List<Segment> getSegments() {
+        return segments;
+    }
+
+    /**
+     * @return Length of the longest code, the layout of each segment starts
+     * after it
+     */
+    public int getCodeLength() {
+        return codeLength;
+    }
+
+    /**
+     * A single segment of the class
+     */
+    public static final class Segment {
+
+        private final String code;
+        private final FieldPlan field;
+        private final ClassPlan plan;
+        private boolean last;
+
+        private Segment(FieldPlan field, ClassPlan plan) {
+            this.code = field.getName();
+            this.field = field;
+            this.plan = plan;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        /**
+         * @return The Object or ArrayList field of the segment
+         */
+        public FieldPlan getField() {
+            return field;
+        }
+
+        /**
+         * @return Plan of the subType
+         */
+        public ClassPlan getPlan() {
+            return plan;
+        }
+
+        public FixedWidthLayout getLayout() {
+            return plan.getFixedWidthLayout();
+        }
+
+        /**
+         * @return true for the last segment of the class, which ends a record
+         */
+        public boolean isLast() {
+            return last;
+        }
+    }
+
+    private static final class Node {
+
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private Segment segment;
+
+        private Node child(char c) {
+            for (int x = 0; x < keys.length; x++) {
+                if (keys[x] == c) {
+                    return children[x];
+                }
+            }
+
+            return null;
+        }
+
+        private void insert(String code, int index, Segment value) {
+            if (index == code.length()) {
+                segment = value;
+
+                return;
+            }
+
+            char c = code.charAt(index);
+            Node next = child(c);
+
+            if (next == null) {
+                next = new Node();
+
+                int iLength = keys.length;
+
+                char[] newKeys = new char[iLength + 1];
+                Node[] newChildren = new Node[iLength + 1];
+
+                System.arraycopy(keys, 0, newKeys, 0, iLength);
+                System.arraycopy(children, 0, newChildren, 0, iLength);
+
+                newKeys[iLength] = c;
+                newChildren[iLength] = next;
+
+                keys = newKeys;
+                children = newChildren;
+            }
+
+            next.insert(code, index + 1, value);
+        }
+    }
+}
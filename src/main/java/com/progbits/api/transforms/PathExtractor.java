@@ -0,0 +1,457 @@
+package com.progbits.api.transforms;
+
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import com.progbits.api.exception.ApiException;
+import com.progbits.api.json.UTF8JsonParser;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+
+/**
+ * Extract a single value from a JSON, XML or YAML document without building an
+ * ApiObject.
+ *
+ * <p>
+ * The path is compiled once, and evaluated over the token stream of each
+ * document. Siblings that do not match are skipped, and reading stops as soon
+ * as the value is found.
+ * </p>
+ *
+ * <p>
+ * Paths start at $, with .name for a field and [n] for an array entry, for
+ * example $.header.correlationId or $.items[0].sku. For XML $ is the root
+ * element, name[n] selects the n-th child element with that name, and a final
+ * .@name selects an attribute. Only scalar values are returned.
+ * </p>
+ *
+ * <pre>
+ * PathExtractor corrId = PathExtractor.compile("$.header.correlationId");
+ *
+ * String value = corrId.fromJson(body);
+ * </pre>
+ */
+public class PathExtractor {
+
+	private static final XMLInputFactory XML_FACTORY = new InputFactoryImpl();
+
+	private final String _path;
+	private final Segment[] _segments;
+
+	private PathExtractor(String path, Segment[] segments) {
+		_path = path;
+		_segments = segments;
+	}
+
+	/**
+	 * Compile a path expression
+	 *
+	 * @param path The path, for example $.header.correlationId
+	 * @return The compiled path
+	 * @throws ApiException The path is not valid
+	 */
+	public static PathExtractor compile(String path) throws ApiException {
+		if (path == null) {
+			throw new ApiException("Path is Null", null);
+		}
+
+		String original = path;
+		List<Segment> segments = new ArrayList<>();
+		int pos = path.startsWith("$") ? 1 : 0;
+
+		if (pos == 0 && !path.isEmpty() && path.charAt(0) != '.' && path.charAt(0) != '[') {
+			// Allow header.correlationId as well as $.header.correlationId
+			path = "." + path;
+		}
+
+		while (pos < path.length()) {
+			char c = path.charAt(pos);
+
+			if (c == '.') {
+				int end = pos + 1;
+
+				while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+					end++;
+				}
+
+				String name = path.substring(pos + 1, end);
+				boolean attribute = name.startsWith("@");
+
+				if (attribute) {
+					name = name.substring(1);
+				}
+
+				if (name.isEmpty()) {
+					throw new ApiException("Invalid Path: " + path, null);
+				}
+
+				segments.add(new Segment(name, -1, attribute));
+				pos = end;
+			} else if (c == '[') {
+				int end = path.indexOf(']', pos);
+
+				if (end == -1) {
+					throw new ApiException("Invalid Path: " + path, null);
+				}
+
+				int index;
+
+				try {
+					index = Integer.parseInt(path.substring(pos + 1, end).trim());
+				} catch (NumberFormatException nfe) {
+					throw new ApiException("Invalid Path: " + path, nfe);
+				}
+
+				int last = segments.size() - 1;
+
+				if (last >= 0 && segments.get(last).index == -1 && !segments.get(last).attribute) {
+					// name[n]
+					Segment seg = segments.get(last);
+
+					segments.set(last, new Segment(seg.name, index, false));
+				} else {
+					segments.add(new Segment(null, index, false));
+				}
+
+				pos = end + 1;
+			} else {
+				throw new ApiException("Invalid Path: " + path, null);
+			}
+		}
+
+		for (int x = 0; x < segments.size() - 1; x++) {
+			if (segments.get(x).attribute) {
+				throw new ApiException("Attribute must be last in Path: " + path, null);
+			}
+		}
+
+		return new PathExtractor(original, segments.toArray(new Segment[0]));
+	}
+
+	public String getPath() {
+		return _path;
+	}
+
+	public String fromJson(String subject) throws ApiException {
+		return fromJson(new UTF8JsonParser(subject));
+	}
+
+	public String fromJson(byte[] subject) throws ApiException {
+		return fromJson(new UTF8JsonParser(subject));
+	}
+
+	public String fromJson(InputStream in) throws ApiException {
+		return fromJson(new UTF8JsonParser(in));
+	}
+
+	public String fromJson(Reader in) throws ApiException {
+		return fromJson(new UTF8JsonParser(in));
+	}
+
+	/**
+	 * Evaluate the path over a JSON parser
+	 *
+	 * @param parse Parser positioned before the document
+	 * @return The text of the value, or null if the path is not found or is
+	 * not a scalar
+	 * @throws ApiException The document could not be read
+	 */
+	public String fromJson(UTF8JsonParser parse) throws ApiException {
+		return evalJson(parse, parse.nextToken(), 0);
+	}
+
+	private String evalJson(UTF8JsonParser parse, UTF8JsonParser.Event event, int segIdx) throws ApiException {
+		if (segIdx == _segments.length) {
+			return switch (event) {
+				case VALUE_STRING, VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parse.getString();
+				case VALUE_TRUE -> "true";
+				case VALUE_FALSE -> "false";
+				default -> null;
+			};
+		}
+
+		Segment seg = _segments[segIdx];
+
+		if (seg.name == null) {
+			return evalJsonIndex(parse, event, seg.index, segIdx + 1);
+		}
+
+		if (event != UTF8JsonParser.Event.START_OBJECT) {
+			return null;
+		}
+
+		while (parse.nextToken() == UTF8JsonParser.Event.KEY_NAME) {
+			boolean bMatch = parse.textEquals(seg.name);
+
+			event = parse.nextToken();
+
+			if (bMatch) {
+				if (seg.index == -1) {
+					return evalJson(parse, event, segIdx + 1);
+				} else {
+					return evalJsonIndex(parse, event, seg.index, segIdx + 1);
+				}
+			}
+
+			parse.skipChildren();
+		}
+
+		return null;
+	}
+
+	private String evalJsonIndex(UTF8JsonParser parse, UTF8JsonParser.Event event, int index, int nextIdx) throws ApiException {
+		if (event != UTF8JsonParser.Event.START_ARRAY) {
+			return null;
+		}
+
+		for (int x = 0;; x++) {
+			event = parse.nextToken();
+
+			if (event == UTF8JsonParser.Event.END_ARRAY || event == UTF8JsonParser.Event.EOF) {
+				return null;
+			}
+
+			if (x == index) {
+				return evalJson(parse, event, nextIdx);
+			}
+
+			parse.skipChildren();
+		}
+	}
+
+	public String fromXml(String subject) throws ApiException {
+		return fromXml(new StringReader(subject));
+	}
+
+	public String fromXml(InputStream in) throws ApiException {
+		try {
+			return fromXml(XML_FACTORY.createXMLStreamReader(in));
+		} catch (XMLStreamException ex) {
+			throw new ApiException(ex.getMessage(), ex);
+		}
+	}
+
+	public String fromXml(Reader in) throws ApiException {
+		try {
+			return fromXml(XML_FACTORY.createXMLStreamReader(in));
+		} catch (XMLStreamException ex) {
+			throw new ApiException(ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * Evaluate the path over an XML stream. The reader is left positioned
+	 * after the value found.
+	 *
+	 * @param xml Reader positioned before the root element
+	 * @return The text of the element or attribute, or null if the path is not
+	 * found
+	 * @throws ApiException The document could not be read, or the element
+	 * found has child elements
+	 */
+	public String fromXml(XMLStreamReader xml) throws ApiException {
+		try {
+			while (xml.hasNext() && xml.next() != XMLStreamReader.START_ELEMENT) {
+				// Skip the prolog
+			}
+
+			if (!xml.isStartElement()) {
+				return null;
+			}
+
+			for (Segment seg : _segments) {
+				if (seg.attribute) {
+					return xml.getAttributeValue(null, seg.name);
+				}
+
+				if (seg.name == null || !findXmlChild(xml, seg)) {
+					return null;
+				}
+			}
+
+			return xml.getElementText();
+		} catch (XMLStreamException ex) {
+			throw new ApiException(ex.getMessage(), ex);
+		}
+	}
+
+	private boolean findXmlChild(XMLStreamReader xml, Segment seg) throws XMLStreamException {
+		int target = Math.max(seg.index, 0);
+		int count = 0;
+
+		while (xml.hasNext()) {
+			int event = xml.next();
+
+			if (event == XMLStreamReader.END_ELEMENT) {
+				return false;
+			} else if (event == XMLStreamReader.START_ELEMENT) {
+				if (seg.name.equals(xml.getLocalName()) && count++ == target) {
+					return true;
+				}
+
+				skipXmlElement(xml);
+			}
+		}
+
+		return false;
+	}
+
+	private void skipXmlElement(XMLStreamReader xml) throws XMLStreamException {
+		int depth = 1;
+
+		while (depth > 0) {
+			int event = xml.next();
+
+			if (event == XMLStreamReader.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamReader.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
+	public String fromYaml(String subject) throws ApiException {
+		return fromYaml(new StringReader(subject));
+	}
+
+	/**
+	 * Evaluate the path over the first YAML document in a stream
+	 *
+	 * @param in The YAML to read
+	 * @return The value, or null if the path is not found or is not a scalar
+	 * @throws ApiException The document could not be read
+	 */
+	public String fromYaml(Reader in) throws ApiException {
+		try {
+			Parser parser = new ParserImpl(new StreamReader(in), new LoaderOptions());
+			Event event;
+
+			do {
+				event = parser.getEvent();
+			} while (event.getEventId() == Event.ID.StreamStart || event.getEventId() == Event.ID.DocumentStart);
+
+			return evalYaml(parser, event, 0);
+		} catch (RuntimeException ex) {
+			// SnakeYAML reports parse errors as runtime exceptions
+			throw new ApiException(ex.getMessage(), ex);
+		}
+	}
+
+	private String evalYaml(Parser parser, Event event, int segIdx) {
+		if (segIdx == _segments.length) {
+			if (event instanceof ScalarEvent scalar) {
+				return isYamlNull(scalar) ? null : scalar.getValue();
+			}
+
+			return null;
+		}
+
+		Segment seg = _segments[segIdx];
+
+		if (seg.name == null) {
+			return evalYamlIndex(parser, event, seg.index, segIdx + 1);
+		}
+
+		if (event.getEventId() != Event.ID.MappingStart) {
+			return null;
+		}
+
+		while (true) {
+			Event key = parser.getEvent();
+
+			if (key.getEventId() == Event.ID.MappingEnd) {
+				return null;
+			}
+
+			boolean bMatch = key instanceof ScalarEvent scalar && seg.name.equals(scalar.getValue());
+
+			if (!bMatch) {
+				skipYaml(parser, key);
+			}
+
+			Event value = parser.getEvent();
+
+			if (bMatch) {
+				if (seg.index == -1) {
+					return evalYaml(parser, value, segIdx + 1);
+				} else {
+					return evalYamlIndex(parser, value, seg.index, segIdx + 1);
+				}
+			}
+
+			skipYaml(parser, value);
+		}
+	}
+
+	private String evalYamlIndex(Parser parser, Event event, int index, int nextIdx) {
+		if (event.getEventId() != Event.ID.SequenceStart) {
+			return null;
+		}
+
+		for (int x = 0;; x++) {
+			event = parser.getEvent();
+
+			if (event.getEventId() == Event.ID.SequenceEnd) {
+				return null;
+			}
+
+			if (x == index) {
+				return evalYaml(parser, event, nextIdx);
+			}
+
+			skipYaml(parser, event);
+		}
+	}
+
+	private void skipYaml(Parser parser, Event event) {
+		if (event.getEventId() != Event.ID.MappingStart && event.getEventId() != Event.ID.SequenceStart) {
+			return;
+		}
+
+		int depth = 1;
+
+		while (depth > 0) {
+			switch (parser.getEvent().getEventId()) {
+				case MappingStart, SequenceStart -> depth++;
+				case MappingEnd, SequenceEnd -> depth--;
+				default -> {
+				}
+			}
+		}
+	}
+
+	private boolean isYamlNull(ScalarEvent scalar) {
+		if (scalar.getScalarStyle() != DumperOptions.ScalarStyle.PLAIN) {
+			return false;
+		}
+
+		return switch (scalar.getValue()) {
+			case "", "~", "null", "Null", "NULL" -> true;
+			default -> false;
+		};
+	}
+
+	private static final class Segment {
+
+		private final String name;
+		private final int index;
+		private final boolean attribute;
+
+		private Segment(String name, int index, boolean attribute) {
+			this.name = name;
+			this.index = index;
+			this.attribute = attribute;
+		}
+	}
+}
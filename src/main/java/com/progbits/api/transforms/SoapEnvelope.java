@@ -0,0 +1,176 @@
+package com.progbits.api.transforms;
+
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import com.progbits.api.exception.ApiException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Locate the operation of a SOAP message in a single pass.
+ *
+ * <p>
+ * The Envelope is read with StAX, the Header is skipped, and the Body is
+ * matched by the namespace of the Envelope. The reader is left on the start of
+ * the first element in the Body, so the operation can be parsed from the same
+ * stream with
+ * {@link com.progbits.api.parser.XmlObjectParser#parseSingle(XMLStreamReader, String)}.
+ * </p>
+ *
+ * <pre>
+ * SoapEnvelope soap = SoapEnvelope.locate(in);
+ *
+ * ApiObject request = xmlParser.parseSingle(soap.getReader(), classFor(soap.getOperation()));
+ * </pre>
+ */
+public class SoapEnvelope {
+
+	public static final String SOAP11_NAMESPACE = "http://schemas.xmlsoap.org/soap/envelope/";
+	public static final String SOAP12_NAMESPACE = "http://www.w3.org/2003/05/soap-envelope";
+
+	private static final XMLInputFactory XML_FACTORY = new InputFactoryImpl();
+
+	private final XMLStreamReader _reader;
+	private final String _envelopeNamespace;
+	private final String _operation;
+	private final String _operationNamespace;
+
+	private SoapEnvelope(XMLStreamReader reader, String envelopeNamespace,
+			  String operation, String operationNamespace) {
+		_reader = reader;
+		_envelopeNamespace = envelopeNamespace;
+		_operation = operation;
+		_operationNamespace = operationNamespace;
+	}
+
+	public static SoapEnvelope locate(String subject) throws ApiException {
+		return locate(new StringReader(subject));
+	}
+
+	public static SoapEnvelope locate(Reader in) throws ApiException {
+		try {
+			return locate(XML_FACTORY.createXMLStreamReader(in));
+		} catch (XMLStreamException ex) {
+			throw new ApiException(ex.getMessage(), ex);
+		}
+	}
+
+	public static SoapEnvelope locate(InputStream in) throws ApiException {
+		try {
+			return locate(XML_FACTORY.createXMLStreamReader(in));
+		} catch (XMLStreamException ex) {
+			throw new ApiException(ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * Read up to the operation of a SOAP message
+	 *
+	 * @param xml Reader positioned before the Envelope
+	 * @return The envelope, with the reader on the start of the operation, or
+	 * at the end of the Body if the Body is empty
+	 * @throws ApiException The document is not a SOAP Envelope, has no Body,
+	 * or could not be read
+	 */
+	public static SoapEnvelope locate(XMLStreamReader xml) throws ApiException {
+		try {
+			while (xml.hasNext() && xml.next() != XMLStreamReader.START_ELEMENT) {
+				// Skip the prolog
+			}
+
+			if (!xml.isStartElement() || !"Envelope".equals(xml.getLocalName())) {
+				throw new ApiException("Not a SOAP Envelope", null);
+			}
+
+			String envNamespace = xml.getNamespaceURI();
+
+			while (xml.hasNext()) {
+				int event = xml.next();
+
+				if (event == XMLStreamReader.END_ELEMENT) {
+					break;
+				} else if (event != XMLStreamReader.START_ELEMENT) {
+					continue;
+				}
+
+				if ("Body".equals(xml.getLocalName()) && sameNamespace(envNamespace, xml.getNamespaceURI())) {
+					while (xml.hasNext()) {
+						event = xml.next();
+
+						if (event == XMLStreamReader.START_ELEMENT) {
+							return new SoapEnvelope(xml, envNamespace, xml.getLocalName(), xml.getNamespaceURI());
+						} else if (event == XMLStreamReader.END_ELEMENT) {
+							// Empty Body
+							return new SoapEnvelope(xml, envNamespace, null, null);
+						}
+					}
+				} else {
+					// Header, or another child of the Envelope
+					skipElement(xml);
+				}
+			}
+
+			throw new ApiException("SOAP Body Not Found", null);
+		} catch (XMLStreamException ex) {
+			throw new ApiException(ex.getMessage(), ex);
+		}
+	}
+
+	private static boolean sameNamespace(String envNamespace, String namespace) {
+		if (envNamespace == null || envNamespace.isEmpty()) {
+			return namespace == null || namespace.isEmpty();
+		}
+
+		return envNamespace.equals(namespace);
+	}
+
+	private static void skipElement(XMLStreamReader xml) throws XMLStreamException {
+		int depth = 1;
+
+		while (depth > 0) {
+			int event = xml.next();
+
+			if (event == XMLStreamReader.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamReader.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
+	/**
+	 * @return The reader, positioned on the start of the operation
+	 */
+	public XMLStreamReader getReader() {
+		return _reader;
+	}
+
+	/**
+	 * @return Local name of the first element in the Body, null if the Body
+	 * is empty
+	 */
+	public String getOperation() {
+		return _operation;
+	}
+
+	/**
+	 * @return Namespace of the operation element, null if it has none
+	 */
+	public String getOperationNamespace() {
+		return _operationNamespace;
+	}
+
+	public String getEnvelopeNamespace() {
+		return _envelopeNamespace;
+	}
+
+	/**
+	 * @return true if the Envelope uses the SOAP 1.2 namespace
+	 */
+	public boolean isSoap12() {
+		return SOAP12_NAMESPACE.equals(_envelopeNamespace);
+	}
+}
@@ -71,59 +71,26 @@ public class XmlTransform {
 	/**
 	 * Locate Body of Soap message and skip ahead to that location.
 	 *
+	 * @deprecated Use SoapEnvelope, which leaves the reader on the operation
+	 * so it can be parsed without reading the message again
+	 *
 	 * @param reader Reader to Skip ahead
 	 * @return First Tag After Body
 	 * @throws IOException
 	 */
+	@Deprecated
 	public static String skipToSoapFunction(Reader reader) throws IOException {
-		String strFunc = null;
-		StringBuilder curStream = new StringBuilder();
-		StringBuilder curTag = new StringBuilder();
-		char[] cb = new char[1];
-		boolean bSoapBody = false;
-		int iCnt = 0;
-		boolean bStart = false;
-
-		while (reader.read(cb) > -1) {
-			if (!bSoapBody) {
-				iCnt++;
-			}
-
-			curStream.append(cb);
-
-			if (cb[0] == '>') {
-				if (bSoapBody) {
-					strFunc = curTag.toString();
-
-					int iColonLoc = strFunc.indexOf(":");
-
-					if (iColonLoc > -1) {
-						strFunc = strFunc.substring(iColonLoc + 1);
-					}
-
-					break;
-				} else if (curTag.toString().contains("Body")) {
-					bSoapBody = true;
-				}
-
-				curTag = new StringBuilder();
-			} else if (cb[0] == '<') {
-				bStart = true;
-			} else if (cb[0] == ' ') {
-				if (bStart) {
-					bStart = false;
-				}
-			} else {
-				if (bStart) {
-					curTag.append(cb);
+		try {
+			return SoapEnvelope.locate(reader).getOperation();
+		} catch (ApiException ex) {
+			// Read errors are still reported, a message that is not SOAP has no function
+			for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+				if (cause instanceof IOException iex) {
+					throw iex;
 				}
 			}
-		}
 
-//        reader.reset();
-//        reader.skip(iCnt);
-//        System.out.println(strSoap);
-//        System.out.println("Found: " + iCnt);
-		return strFunc;
+			return null;
+		}
 	}
 }
@@ -0,0 +1,286 @@
+package com.progbits.api.writer;
+
+import com.progbits.api.exception.ApiException;
+import com.progbits.api.formaters.CodePage;
+import com.progbits.api.formaters.TransformDate;
+import com.progbits.api.formaters.TransformDecimal;
+import com.progbits.api.formaters.TransformMainframe;
+import com.progbits.api.formaters.TransformNumber;
+import com.progbits.api.formaters.TransformString;
+import com.progbits.api.model.ApiObject;
+import com.progbits.api.plan.FieldPlan;
+import com.progbits.api.plan.FieldUsage;
+import com.progbits.api.plan.FixedWidthLayout;
+
+/**
+ * Formatter plan of a fixed-width layout, compiled once per layout.
+ *
+ * <p>
+ * The type of each field, its justification and its format without the L
+ * flag are resolved when the plan is compiled. Fields are written padded and
+ * justified straight into a record buffer, plain Strings and whole numbers
+ * without a format are copied in without building a String for the field.
+ * </p>
+ */
+final class FixedWidthFormat {
+
+    enum Kind {
+        STRING, DECIMAL, DATETIME, INTEGER, BOOLEAN, LONG, OBJECT, ARRAYLIST, USAGE
+    }
+
+    private final FixedWidthLayout layout;
+    private final Kind[] kinds;
+    private final String[] formats;
+    private final boolean[] leftJustify;
+    private final int[] scales;
+    private final boolean[] signed;
+
+    /**
+     * @param layout The layout to compile
+     * @param segment true for the layout of a segment, whose attribute fields
+     * are written without a format
+     */
+    FixedWidthFormat(FixedWidthLayout layout, boolean segment) {
+        int iCount = layout.getFieldCount();
+
+        this.layout = layout;
+        this.kinds = new Kind[iCount];
+        this.formats = new String[iCount];
+        this.leftJustify = new boolean[iCount];
+        this.scales = new int[iCount];
+        this.signed = new boolean[iCount];
+
+        for (int x = 0; x < iCount; x++) {
+            FieldPlan fld = layout.getField(x);
+            String format = fld.getFormat();
+
+            Boolean bAttribute = fld.getField().getBoolean("attribute");
+
+            if (segment && bAttribute != null && bAttribute) {
+                format = null;
+            }
+
+            kinds[x] = kind(fld);
+            scales[x] = Math.max(0, layout.getImpliedScale(x));
+            signed[x] = format != null && format.startsWith("S");
+
+            switch (kinds[x]) {
+                case DECIMAL:
+                case INTEGER:
+                case LONG:
+                    // An L in the format left justifies the number
+                    if (format != null && format.contains("L")) {
+                        leftJustify[x] = true;
+                        format = format.replace("L", "");
+                    }
+                    break;
+
+                default:
+                    leftJustify[x] = true;
+                    break;
+            }
+
+            formats[x] = format;
+        }
+    }
+
+    /**
+     * The type names match exactly, anything else is written as a String
+     */
+    private static Kind kind(FieldPlan fld) {
+        if (fld.getUsage() != FieldUsage.DISPLAY) {
+            switch (fld.getType()) {
+                case DECIMAL:
+                case DOUBLE:
+                case INTEGER:
+                case LONG:
+                    return Kind.USAGE;
+
+                default:
+                    break;
+            }
+        }
+
+        if (fld.getRawType() == null) {
+            return Kind.STRING;
+        }
+
+        return switch (fld.getRawType()) {
+            case "Decimal", "Double" -> Kind.DECIMAL;
+            case "DateTime" -> Kind.DATETIME;
+            case "Integer" -> Kind.INTEGER;
+            case "Boolean" -> Kind.BOOLEAN;
+            case "Long" -> Kind.LONG;
+            case "Object" -> Kind.OBJECT;
+            case "ArrayList" -> Kind.ARRAYLIST;
+            default -> Kind.STRING;
+        };
+    }
+
+    FixedWidthLayout getLayout() {
+        return layout;
+    }
+
+    Kind getKind(int index) {
+        return kinds[index];
+    }
+
+    /**
+     * Write a field into buf, padded with spaces to the length of the field.
+     * Object and ArrayList fields write nothing.
+     *
+     * @param index Index of the field in the layout
+     * @param obj Object holding the value
+     * @param buf The record buffer
+     * @param offset Offset of the field in buf
+     * @param codePage Code page for packed and binary fields
+     * @throws ApiException The value could not be formatted
+     */
+    void write(int index, ApiObject obj, char[] buf, int offset, CodePage codePage) throws ApiException {
+        FieldPlan fld = layout.getField(index);
+        Object value = obj.getCoreObject(fld.getName());
+        int length = layout.getEnd(index) - layout.getStart(index);
+        String format = formats[index];
+
+        switch (kinds[index]) {
+            case STRING:
+                if (format == null || format.isEmpty()) {
+                    put(value instanceof String ? (String) value : "", true, buf, offset, length);
+                } else {
+                    put(TransformString.formatString(value, format), true, buf, offset, length);
+                }
+                break;
+
+            case DECIMAL:
+                put(TransformDecimal.formatDecimal(value, requireFormat(format)),
+                        leftJustify[index], buf, offset, length);
+                break;
+
+            case DATETIME:
+                put(TransformDate.formatDate(value, format), true, buf, offset, length);
+                break;
+
+            case INTEGER:
+                if (value instanceof Integer && requireFormat(format).isEmpty()) {
+                    putDigits((Integer) value, leftJustify[index], buf, offset, length);
+                } else {
+                    put(TransformNumber.formatInteger(value, requireFormat(format)),
+                            leftJustify[index], buf, offset, length);
+                }
+                break;
+
+            case LONG:
+                if (value instanceof Long && requireFormat(format).isEmpty()) {
+                    putDigits((Long) value, leftJustify[index], buf, offset, length);
+                } else {
+                    put(TransformNumber.formatLong(value, requireFormat(format)),
+                            leftJustify[index], buf, offset, length);
+                }
+                break;
+
+            case BOOLEAN:
+                put(obj.getBoolean(fld.getName()) ? "1" : "0", true, buf, offset, length);
+                break;
+
+            case USAGE:
+                put(usage(fld, value, length, scales[index], signed[index], codePage),
+                        true, buf, offset, length);
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    private static String usage(FieldPlan fld, Object value, int length, int scale,
+            boolean bSigned, CodePage codePage) {
+        switch (fld.getUsage()) {
+            case PACKED:
+                return TransformMainframe.formatPacked(value, length, scale, bSigned, codePage);
+            case ZONED:
+                return TransformMainframe.formatZoned(value, length, scale, bSigned);
+            default:
+                return TransformMainframe.formatBinary(value, length, scale, codePage);
+        }
+    }
+
+    /**
+     * Numbers are written with a format, as they always have been
+     */
+    private static String requireFormat(String format) {
+        if (format == null) {
+            throw new IllegalArgumentException("Format is required");
+        }
+
+        return format;
+    }
+
+    /**
+     * Copy a value into buf, cut to length, and padded on the right if left
+     * justified, otherwise on the left
+     */
+    static void put(String value, boolean left, char[] buf, int offset, int length) {
+        int iCopy = Math.min(value.length(), length);
+        int iPad = length - iCopy;
+
+        if (left) {
+            value.getChars(0, iCopy, buf, offset);
+
+            fill(buf, offset + iCopy, iPad);
+        } else {
+            fill(buf, offset, iPad);
+
+            value.getChars(0, iCopy, buf, offset + iPad);
+        }
+    }
+
+    /**
+     * Same as put of String.valueOf(value), without creating the String
+     */
+    static void putDigits(long value, boolean left, char[] buf, int offset, int length) {
+        if (value == Long.MIN_VALUE) {
+            put(String.valueOf(value), left, buf, offset, length);
+
+            return;
+        }
+
+        long abs = Math.abs(value);
+        int iDigits = 1;
+
+        for (long x = abs; x >= 10; x /= 10) {
+            iDigits++;
+        }
+
+        int iChars = value < 0 ? iDigits + 1 : iDigits;
+
+        if (iChars > length) {
+            // Cut like put, keeping the leading chars
+            put(String.valueOf(value), left, buf, offset, length);
+
+            return;
+        }
+
+        int iStart = left ? offset : offset + length - iChars;
+
+        if (left) {
+            fill(buf, offset + iChars, length - iChars);
+        } else {
+            fill(buf, offset, length - iChars);
+        }
+
+        if (value < 0) {
+            buf[iStart] = '-';
+        }
+
+        for (int pos = iStart + iChars - 1; pos >= iStart + iChars - iDigits; pos--) {
+            buf[pos] = (char) ('0' + abs % 10);
+            abs /= 10;
+        }
+    }
+
+    private static void fill(char[] buf, int offset, int length) {
+        for (int x = offset; x < offset + length; x++) {
+            buf[x] = ' ';
+        }
+    }
+}
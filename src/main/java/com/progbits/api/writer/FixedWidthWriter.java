@@ -3,14 +3,22 @@ package com.progbits.api.writer;
 import com.progbits.api.ObjectWriter;
 import com.progbits.api.exception.ApiClassNotFoundException;
 import com.progbits.api.exception.ApiException;
+import com.progbits.api.formaters.CodePage;
 import com.progbits.api.formaters.TransformDate;
 import com.progbits.api.formaters.TransformDecimal;
+import com.progbits.api.formaters.TransformMainframe;
 import com.progbits.api.formaters.TransformNumber;
 import com.progbits.api.formaters.TransformString;
 import com.progbits.api.model.ApiClass;
 import com.progbits.api.model.ApiClasses;
 import com.progbits.api.model.ApiObject;
+import com.progbits.api.plan.ClassPlan;
+import com.progbits.api.plan.FieldPlan;
+import com.progbits.api.plan.FieldUsage;
+import com.progbits.api.plan.FixedWidthLayout;
+import com.progbits.api.plan.SegmentedLayout;
 import java.io.BufferedWriter;
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
@@ -18,14 +26,24 @@ import java.io.Writer;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
+ * Properties:
+ * <ul>
+ * <li>CodePage: Single byte code page of the output, such as Cp037 for
+ * EBCDIC</li>
+ * <li>FlushSize: Flush once this many chars are pending, instead of after
+ * every record. ObjectWriter has no end of stream, so the records written
+ * since the last flush stay buffered until the caller casts the writer to
+ * Flushable and calls flush, or calls writeHeader</li>
+ * </ul>
  *
  * @author scarr
  */
-public class FixedWidthWriter implements ObjectWriter {
+public class FixedWidthWriter implements ObjectWriter, Flushable {
 
     private BufferedWriter _write;
     private Map<String, String> _props = null;
@@ -38,9 +56,15 @@ public class FixedWidthWriter implements ObjectWriter {
     private Boolean bSegmented = null;
     private List<String> writeErrors = new ArrayList<>();
     private Throwable throwException = null;
+    private CodePage _codePage = CodePage.ISO_8859_1;
+    private Map<FixedWidthLayout, FixedWidthFormat> _formats = new IdentityHashMap<>();
+    private Map<FixedWidthLayout, FixedWidthFormat> _segmentFormats = new IdentityHashMap<>();
+    private char[] _record = new char[256];
+    private int _flushSize = 0;
+    private int _pending = 0;
 
     private enum CONSTANTS {
-        format, name, attribute, value, field, fields, length, type, DisplayName, WithHeader
+        format, name, attribute, value, field, fields, length, type, DisplayName, WithHeader, CodePage, FlushSize
     }
 
     private enum TYPES {
@@ -57,6 +81,8 @@ public class FixedWidthWriter implements ObjectWriter {
         }
 
         this._props = props;
+        this._codePage = codePage(props);
+        this._flushSize = flushSize(props);
 
         // initialize the segment fixed-width attribute IDs
         this.attributeMaps = new HashMap<>();
@@ -75,6 +101,8 @@ public class FixedWidthWriter implements ObjectWriter {
         }
 
         this._props = properties;
+        this._codePage = codePage(properties);
+        this._flushSize = flushSize(properties);
         this.mainClassName = mainClassName;
         // initialize the segment fixed-width attribute IDs
         this.attributeMaps = new HashMap<>();
@@ -85,7 +113,16 @@ public class FixedWidthWriter implements ObjectWriter {
             OutputStream out) throws ApiException {
         this._classes = classes;
 
-        this._write = new BufferedWriter(new OutputStreamWriter(out));
+        this._codePage = codePage(properties);
+        this._flushSize = flushSize(properties);
+
+        // Packed and binary bytes would be expanded by the default charset
+        if ((properties != null && properties.containsKey(CONSTANTS.CodePage.name()))
+                || SegmentedLayout.isBinary(classes, mainClassName)) {
+            this._write = new BufferedWriter(new OutputStreamWriter(out, this._codePage.getCharset()));
+        } else {
+            this._write = new BufferedWriter(new OutputStreamWriter(out));
+        }
 
         this._props = properties;
         this.mainClassName = mainClassName;
@@ -93,6 +130,76 @@ public class FixedWidthWriter implements ObjectWriter {
         this.attributeMaps = new HashMap<>();
     }
 
+    /**
+     * Packed and binary fields are written as chars of the CodePage, so the
+     * Writer must encode with the same code page, ISO-8859-1 if not set.
+     */
+    private static CodePage codePage(Map<String, String> properties) throws ApiException {
+        String codePage = properties != null ? properties.get(CONSTANTS.CodePage.name()) : null;
+
+        if (codePage == null) {
+            return CodePage.ISO_8859_1;
+        }
+
+        try {
+            return CodePage.forName(codePage);
+        } catch (IllegalArgumentException iex) {
+            throw new ApiException(520, "Invalid CodePage: " + codePage + " " + iex.getMessage());
+        }
+    }
+
+    private static int flushSize(Map<String, String> properties) throws ApiException {
+        String flushSize = properties != null ? properties.get(CONSTANTS.FlushSize.name()) : null;
+
+        try {
+            return flushSize != null ? Integer.parseInt(flushSize) : 0;
+        } catch (NumberFormatException nfe) {
+            throw new ApiException(520, "FlushSize must be a number: " + flushSize);
+        }
+    }
+
+    /**
+     * Formatter plan of the class of an object, compiled once per layout
+     */
+    private FixedWidthFormat format(ApiObject obj, boolean segment) {
+        FixedWidthLayout layout = ClassPlan.of(obj.getApiClass()).getFixedWidthLayout();
+
+        return (segment ? _segmentFormats : _formats).computeIfAbsent(layout,
+                l -> new FixedWidthFormat(l, segment));
+    }
+
+    /**
+     * @return The record buffer, grown to hold at least length chars
+     */
+    private char[] recordBuffer(int length) {
+        if (_record.length < length) {
+            _record = new char[Math.max(length, _record.length * 2)];
+        }
+
+        return _record;
+    }
+
+    /**
+     * Flush after every record, or once FlushSize chars are pending
+     */
+    private void flushRecord(int length) throws IOException {
+        _pending += length;
+
+        if (_pending >= _flushSize) {
+            this._write.flush();
+            _pending = 0;
+        }
+    }
+
+    /**
+     * Flush records still pending when FlushSize is set
+     */
+    @Override
+    public void flush() throws IOException {
+        this._write.flush();
+        _pending = 0;
+    }
+
     @Override
     public void write(ApiObject ao) throws ApiException {
         if (bSegmented == null) {
@@ -125,97 +232,38 @@ public class FixedWidthWriter implements ObjectWriter {
     }
 
     public void writeObjectSingle(ApiObject fixedWidthObj) throws ApiException {
-        for (ApiObject fld : fixedWidthObj.getApiClass().getList(CONSTANTS.fields.name())) {
-            Object oFldLength = fld.getCoreObject(CONSTANTS.length.name());
-
-            int iFieldLength = 0; //
-            this.getWriteErrors().clear();
-            this.throwException = null;
-
-            if (oFldLength instanceof Integer) {
-                iFieldLength = (Integer) oFldLength;
-            } else if (oFldLength instanceof Long) {
-                iFieldLength = ((Long) oFldLength).intValue();
-            }
+        FixedWidthFormat format = format(fixedWidthObj, false);
+        FixedWidthLayout layout = format.getLayout();
 
-            Object fieldValue = fixedWidthObj.getCoreObject(fld.getString(CONSTANTS.name.name()));
-            String fieldFormat = fld.getString(CONSTANTS.format.name());
+        this.getWriteErrors().clear();
+        this.throwException = null;
 
-            try {
-                TYPES type = TYPES.String;
-                try {
-                    type = TYPES.valueOf(fld.getString(CONSTANTS.type.name()));
-                } catch (Exception e) {
-                    // use the String as default if no found on Eum.TYPES
-                    type = TYPES.String;
-                }
+        char[] record = recordBuffer(layout.getRecordLength() + 1);
+        int iCurLoc = 0;
 
-                switch (type) {
-                    case String:
-                        this._write.append(TransformString.forceRightSize(
-                                TransformString.formatString(fieldValue, fieldFormat), " ", iFieldLength));
-                        break;
-                    case Double:
-                    case Decimal:
-                        if (fieldFormat.contains("L")) {
-                            fieldFormat = fieldFormat.replace("L", "");
-
-                            this._write.append(TransformString.forceRightSize(
-                                    TransformDecimal.formatDecimal(fieldValue, fieldFormat),
-                                    " ", iFieldLength)
-                            );
-                        } else {
-                            this._write.append(TransformString.forceLeftSize(
-                                    TransformDecimal.formatDecimal(fieldValue, fieldFormat),
-                                    " ", iFieldLength)
-                            );
-                        }
+        for (int iField = 0; iField < layout.getFieldCount(); iField++) {
+            FixedWidthFormat.Kind kind = format.getKind(iField);
 
-                        break;
-                    case DateTime:
-                        this._write.append(TransformString.forceRightSize(TransformDate.formatDate(fieldValue, fieldFormat),
-                                " ", iFieldLength));
-                        break;
-                    case Integer:
-                        if (fieldFormat.contains("L")) {
-                            fieldFormat = fieldFormat.replace("L", "");
-
-                            this._write.append(TransformString.forceRightSize(TransformNumber
-                                    .formatInteger(fieldValue, fieldFormat), " ", iFieldLength));
-                        } else {
-                            this._write.append(TransformString.forceLeftSize(TransformNumber
-                                    .formatInteger(fieldValue, fieldFormat), " ", iFieldLength));
-                        }
-
-                        break;
-                    case Boolean:
-                        this._write.append(TransformString.forceRightSize(fixedWidthObj.getBoolean(fld.getString(CONSTANTS.name
-                                .name())) ? "1" : "0", " ", iFieldLength));
-                        break;
-                    case Long:
-                        if (fieldFormat.contains("L")) {
-                            fieldFormat = fieldFormat.replace("L", "");
-
-                            this._write.append(TransformString.forceRightSize(TransformNumber.
-                                    formatLong(fieldValue, fieldFormat),
-                                    " ", iFieldLength));
-                        } else {
-                            this._write.append(TransformString.
-                                    forceLeftSize(TransformNumber.formatLong(fieldValue, fieldFormat),
-                                            " ", iFieldLength));
-                        }
+            if (kind == FixedWidthFormat.Kind.OBJECT || kind == FixedWidthFormat.Kind.ARRAYLIST) {
+                // Only written as segments
+                continue;
+            }
 
-                        break;
-                }
+            try {
+                format.write(iField, fixedWidthObj, record, iCurLoc, _codePage);
             } catch (Exception ex) {
-                throw new ApiException("Field: " + fld.getString(CONSTANTS.name.name()) + " " + ex.
+                throw new ApiException("Field: " + layout.getField(iField).getName() + " " + ex.
                         getMessage(), ex);
             }
+
+            iCurLoc += layout.getEnd(iField) - layout.getStart(iField);
         }
 
+        record[iCurLoc++] = '\n';
+
         try {
-            this._write.append("\n");
-            this._write.flush();
+            this._write.write(record, 0, iCurLoc);
+            flushRecord(iCurLoc);
         } catch (IOException io) {
             throw new ApiException(io.getMessage(), io);
         }
@@ -252,19 +300,16 @@ public class FixedWidthWriter implements ObjectWriter {
             record_seq_id++;
 
             try {
-                for (ApiObject fld : object.getApiClass().getList(CONSTANTS.fields.name())) {
-                    Object oFldLength = fld.getCoreObject(CONSTANTS.length.name());
+                // Same compiled layout the parser reads the segment with
+                FixedWidthFormat format = format(object, true);
+                FixedWidthLayout layout = format.getLayout();
 
-                    int iFieldLength = 0; //
+                for (int iField = 0; iField < layout.getFieldCount(); iField++) {
+                    ApiObject fld = layout.getField(iField).getField();
 
-                    if (oFldLength instanceof Integer) {
-                        iFieldLength = (Integer) oFldLength;
-                    } else if (oFldLength instanceof Long) {
-                        iFieldLength = ((Long) oFldLength).intValue();
-                    }
+                    int iFieldLength = layout.getEnd(iField) - layout.getStart(iField);
 
                     Object fieldValue = object.getCoreObject(fld.getString(CONSTANTS.name.name()));
-                    String fieldFormat = fld.getString(CONSTANTS.format.name());
 
                     // Validate and compare the attributeId to write or bypass the record
                     boolean attribute = fld.getBoolean(CONSTANTS.attribute.name());
@@ -307,74 +352,19 @@ public class FixedWidthWriter implements ObjectWriter {
                             }
                         }
                         // For getting the Rec_type =HR,IN,IT etc
-                        // Do not use any format for the REC_TYPE Columns below
-                        fieldFormat = null;
+                        // The segment plan writes the REC_TYPE Columns without a format
                     } else if (ignoreDupliateRecord) {
                         continue;
                     }
 
                     try {
-                        TYPES type = TYPES.String;
-                        try {
-                            type = TYPES.valueOf(fld.getString(CONSTANTS.type.name()));
-                        } catch (Exception e) {
-                            // use the String as default if no found on Eum.TYPES
-                            type = TYPES.String;
-                        }
-
-                        switch (type) {
-                            case String:
-                                this._write.append(TransformString.forceRightSize(
-                                        TransformString.formatString(fieldValue, fieldFormat), " ", iFieldLength));
-                                break;
-                            case Decimal:
-                            case Double:
-                                if (fieldFormat.contains("L")) {
-                                    fieldFormat = fieldFormat.replace("L", "");
-
-                                    this._write.append(TransformString.forceRightSize(TransformDecimal.formatDecimal(fieldValue,
-                                            fieldFormat), " ", iFieldLength));
-                                } else {
-                                    this._write.append(TransformString.forceLeftSize(TransformDecimal.formatDecimal(fieldValue,
-                                            fieldFormat), " ", iFieldLength));
-                                }
-                                break;
-                            case DateTime:
-                                this._write.append(TransformString.forceRightSize(TransformDate.formatDate(fieldValue,
-                                        fieldFormat), " ", iFieldLength));
-                                break;
-                            case Integer:
-                                if (fieldFormat.contains("L")) {
-                                    fieldFormat = fieldFormat.replace("L", "");
-                                    this._write.append(TransformString.forceRightSize(TransformNumber.formatInteger(fieldValue,
-                                            fieldFormat), " ", iFieldLength));
-                                } else {
-                                    this._write.append(TransformString.forceLeftSize(TransformNumber.formatInteger(fieldValue,
-                                            fieldFormat), " ", iFieldLength));
-                                }
-                                break;
-                            case Boolean:
-                                this._write.append(TransformString.forceRightSize((object.getBoolean(fld.getString(CONSTANTS.name
-                                        .name())) ? "1" : "0"), " ", iFieldLength));
-                                break;
-                            case Long:
-                                if (fieldFormat.contains("L")) {
-                                    fieldFormat = fieldFormat.replace("L", "");
-
-                                    this._write.append(TransformString.forceRightSize(TransformNumber.formatLong(fieldValue,
-                                            fieldFormat), " ", iFieldLength));
-                                } else {
-                                    this._write.append(TransformString.forceLeftSize(TransformNumber.formatLong(fieldValue,
-                                            fieldFormat), " ", iFieldLength));
-                                }
-
-                                break;
-                            case Object:
+                        switch (format.getKind(iField)) {
+                            case OBJECT:
                                 this._write.append(fld.getString("name"));
                                 writeObjectSegmented(object.getObject(fld.getString(CONSTANTS.name.name())));
                                 this._write.append("\n");
                                 break;
-                            case ArrayList:
+                            case ARRAYLIST:
                                 for (ApiObject rowObj : object.
                                         getList(fld.getString(CONSTANTS.name.name()))) {
                                     this._write.append(TransformString.forceRightSize(fld.getString(CONSTANTS.name.name()), " ",
@@ -383,6 +373,12 @@ public class FixedWidthWriter implements ObjectWriter {
                                     this._write.append("\n");
                                 }
                                 break;
+                            default:
+                                char[] field = recordBuffer(iFieldLength);
+
+                                format.write(iField, object, field, 0, _codePage);
+                                this._write.write(field, 0, iFieldLength);
+                                break;
                         }
                     } catch (Exception ex) {
                         String errorMsg = "Field: " + fld.getString(CONSTANTS.name.name()) + " " + ex.
@@ -396,7 +392,7 @@ public class FixedWidthWriter implements ObjectWriter {
 
                 if (!ignoreDupliateRecord) {
                     this._write.append("\n");
-                    this._write.flush();
+                    flushRecord(layout.getRecordLength() + 1);
                 }
             } catch (Exception ex) {
                 if (!this.writeErrors.contains(ex.getMessage())) {
@@ -468,11 +464,17 @@ public class FixedWidthWriter implements ObjectWriter {
                 }
 
                 _write.append("\n");
-                _write.flush();
             } catch (IOException | ApiClassNotFoundException ex) {
                 throw new ApiException(510, ex.getMessage());
             }
         }
+
+        // Records pending under FlushSize are written with the header
+        try {
+            flush();
+        } catch (IOException io) {
+            throw new ApiException(710, io.getMessage());
+        }
     }
 
     @Override
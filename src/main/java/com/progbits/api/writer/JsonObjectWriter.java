@@ -2,10 +2,15 @@ package com.progbits.api.writer;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
 import com.progbits.api.ObjectWriter;
 import com.progbits.api.exception.ApiException;
+import com.progbits.api.json.JsonFactories;
 import com.progbits.api.model.ApiClasses;
 import com.progbits.api.model.ApiObject;
+import com.progbits.api.plan.ClassPlan;
+import com.progbits.api.plan.FieldPlan;
+import com.progbits.api.plan.FieldType;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -15,7 +20,6 @@ import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.slf4j.Logger;
@@ -29,7 +33,7 @@ public class JsonObjectWriter implements ObjectWriter {
 
 	private static final Logger log = LoggerFactory.getLogger(JsonObjectWriter.class);
 
-	private JsonFactory _jf;
+	private JsonFactory _jf = JsonFactories.get();
 	private ApiClasses _classes;
 	private JsonGenerator _out = null;
 	private Map<String, String> _props = null;
@@ -38,8 +42,6 @@ public class JsonObjectWriter implements ObjectWriter {
 
 	private String mainClassName = null;
 
-	private Map<String, DateTimeFormatter> _dtFormats = new HashMap<>();
-
 	@Override
 	public ObjectWriter getWriter() {
 		return new JsonObjectWriter();
@@ -55,8 +57,6 @@ public class JsonObjectWriter implements ObjectWriter {
 	}
 
 	private void internalInit(ApiClasses classes, Map<String, String> properties, Writer out) {
-		_jf = new JsonFactory();
-
 		if (out != null) {
 			try {
 				_out = _jf.createGenerator(out);
@@ -72,6 +72,8 @@ public class JsonObjectWriter implements ObjectWriter {
 	@Override
 	public void init(ApiClasses classes, Map<String, String> properties,
 			Writer out) throws ApiException {
+		_jf = JsonFactories.get(properties);
+
 		internalInit(classes, properties, out);
 	}
 
@@ -80,6 +82,8 @@ public class JsonObjectWriter implements ObjectWriter {
 			Writer out) throws ApiException {
 		this.mainClassName = mainClassName;
 
+		_jf = JsonFactories.get(properties);
+
 		internalInit(classes, properties, out);
 	}
 
@@ -96,7 +100,7 @@ public class JsonObjectWriter implements ObjectWriter {
 			bout = new BufferedOutputStream(out);
 		}
 
-		_jf = new JsonFactory();
+		_jf = JsonFactories.get(properties);
 
 		if (out != null) {
 			try {
@@ -124,8 +128,16 @@ public class JsonObjectWriter implements ObjectWriter {
 
 	public void convertObjectToJson(JsonGenerator writeOut, ApiObject apiObj,
 			String name) throws ApiException {
+		convertObjectToJson(writeOut, apiObj, name, null);
+	}
+
+	private void convertObjectToJson(JsonGenerator writeOut, ApiObject apiObj,
+			String name, SerializableString encodedName) throws ApiException {
 		try {
-			if (name != null) {
+			if (encodedName != null) {
+				writeOut.writeFieldName(encodedName);
+				writeOut.writeStartObject(name);
+			} else if (name != null) {
 				writeOut.writeFieldName(name);
 				writeOut.writeStartObject(name);
 			} else {
@@ -134,51 +146,45 @@ public class JsonObjectWriter implements ObjectWriter {
 			this.writeErrors.clear();
 			this.throwException = null;
 
+			ClassPlan plan = ClassPlan.of(apiObj.getApiClass());
+
 			apiObj.getFields().forEach((fldKey, fldValue) -> {
-				ApiObject fldDef = null;
-				String format = null;
+				FieldPlan fldDef = null;
 
 				try {
-					if (apiObj.getApiClass() != null) {
-						fldDef = apiObj.getApiClass().getListSearch(
-								"fields", "name", fldKey);
-
-						if (fldDef != null) {
-							format = fldDef.getString("format");
-						}
+					if (plan != null) {
+						fldDef = plan.get(fldKey);
 					}
+
 					if (fldValue instanceof String) {
-						writeOut.writeStringField(fldKey, (String) fldValue);
+						writeName(writeOut, fldKey, fldDef);
+						writeOut.writeString((String) fldValue);
 					} else if (fldValue instanceof List) {
-						String fldType = "arraylist";
+						FieldType fldType = FieldType.ARRAYLIST;
 
 						if (fldDef != null) {
-							fldType = fldDef.getString("type", "arraylist");
+							fldType = fldDef.getType();
 						} else {
-							int iType = apiObj.getType(fldKey);
-
 							List lstValue = (List) fldValue;
 
 							if (lstValue.size() > 0) {
 								Object obj = lstValue.get(0);
 
-								if (obj instanceof ApiObject) {
-									fldType = "arraylist";
-								} else if (obj instanceof String) {
-									fldType = "stringarray";
+								if (obj instanceof String) {
+									fldType = FieldType.STRINGARRAY;
 								} else if (obj instanceof Integer) {
-									fldType = "integerarray";
+									fldType = FieldType.INTEGERARRAY;
 								} else if (obj instanceof Double) {
-									fldType = "doublearray";
+									fldType = FieldType.DOUBLEARRAY;
 								}
 							}
 						}
 
-						switch (fldType.toLowerCase()) {
-							case "stringarray":
+						switch (fldType) {
+							case STRINGARRAY:
 								List<String> arrStrList = (List<String>) fldValue;
 
-								writeOut.writeFieldName(fldKey);
+								writeName(writeOut, fldKey, fldDef);
 								writeOut.writeStartArray(fldKey);
 
 								for (String objs : arrStrList) {
@@ -188,10 +194,10 @@ public class JsonObjectWriter implements ObjectWriter {
 								writeOut.writeEndArray();
 								break;
 
-							case "integerarray":
+							case INTEGERARRAY:
 								List<Integer> arrIntList = (List<Integer>) fldValue;
 
-								writeOut.writeFieldName(fldKey);
+								writeName(writeOut, fldKey, fldDef);
 								writeOut.writeStartArray(fldKey);
 
 								for (Integer objs : arrIntList) {
@@ -201,10 +207,10 @@ public class JsonObjectWriter implements ObjectWriter {
 								writeOut.writeEndArray();
 								break;
 
-							case "doublearray":
+							case DOUBLEARRAY:
 								List<Double> arrDblList = (List<Double>) fldValue;
 
-								writeOut.writeFieldName(fldKey);
+								writeName(writeOut, fldKey, fldDef);
 								writeOut.writeStartArray(fldKey);
 
 								for (Double objs : arrDblList) {
@@ -217,43 +223,45 @@ public class JsonObjectWriter implements ObjectWriter {
 							default:
 								List<ApiObject> arrList = (List<ApiObject>) fldValue;
 
-								writeArrayList(writeOut, fldKey, arrList);
+								writeArrayList(writeOut, fldKey, fldDef != null ? fldDef.getJsonName() : null, arrList);
 
 								break;
 						}
 					} else if (fldValue instanceof ApiObject) {
 						ApiObject obj = (ApiObject) fldValue;
 						try {
-							convertObjectToJson(writeOut, obj, fldKey);
+							convertObjectToJson(writeOut, obj, fldKey, fldDef != null ? fldDef.getJsonName() : null);
 						} catch (ApiException app) {
 							log.error("Internal Error", app);
 						}
 					} else if (fldValue instanceof Double) {
-						writeOut.writeNumberField(fldKey, (Double) fldValue);
+						writeName(writeOut, fldKey, fldDef);
+						writeOut.writeNumber((Double) fldValue);
 					} else if (fldValue instanceof BigDecimal) {
-						writeOut.writeNumberField(fldKey, (BigDecimal) fldValue);
+						writeName(writeOut, fldKey, fldDef);
+						writeOut.writeNumber((BigDecimal) fldValue);
 					} else if (fldValue instanceof Integer) {
-						writeOut.writeNumberField(fldKey, (Integer) fldValue);
+						writeName(writeOut, fldKey, fldDef);
+						writeOut.writeNumber((Integer) fldValue);
 					} else if (fldValue instanceof Boolean) {
-						writeOut.writeBooleanField(fldKey, (Boolean) fldValue);
+						writeName(writeOut, fldKey, fldDef);
+						writeOut.writeBoolean((Boolean) fldValue);
 					} else if (fldValue instanceof Long) {
-						writeOut.writeNumberField(fldKey, (Long) fldValue);
+						writeName(writeOut, fldKey, fldDef);
+						writeOut.writeNumber((Long) fldValue);
 					} else if (fldValue instanceof OffsetDateTime) {
-						if (!_dtFormats.containsKey(fldKey)) {
-							if (format != null && !format.isEmpty()) {
-								DateTimeFormatter dtFormat = DateTimeFormatter.ofPattern(format);
+						DateTimeFormatter dtFormat;
 
-								_dtFormats.put(fldKey, dtFormat);
-							} else {
-								_dtFormats.put(fldKey, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-							}
+						if (fldDef != null) {
+							dtFormat = fldDef.requireDateFormat();
+						} else {
+							dtFormat = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
 						}
 
 						OffsetDateTime dtValue = (OffsetDateTime) fldValue;
 
-						writeOut.writeStringField(fldKey, dtValue.format(_dtFormats.get(fldKey)));
-					} else if (fldValue instanceof Boolean) {
-						writeOut.writeBooleanField(fldKey, ((Boolean) fldValue));
+						writeName(writeOut, fldKey, fldDef);
+						writeOut.writeString(dtValue.format(dtFormat));
 					}
 				} catch (Exception ex) {
 					if (!this.writeErrors.contains(ex.getMessage())) {
@@ -269,9 +277,20 @@ public class JsonObjectWriter implements ObjectWriter {
 		}
 	}
 
-	private void writeArrayList(JsonGenerator writeOut, String fldKey, List<ApiObject> arrList) {
+	private void writeName(JsonGenerator writeOut, String fldKey, FieldPlan fldDef) throws IOException {
+		if (fldDef != null) {
+			writeOut.writeFieldName(fldDef.getJsonName());
+		} else {
+			writeOut.writeFieldName(fldKey);
+		}
+	}
+
+	private void writeArrayList(JsonGenerator writeOut, String fldKey, SerializableString encodedKey, List<ApiObject> arrList) {
 		try {
-			if (null != fldKey) {
+			if (null != encodedKey) {
+				writeOut.writeFieldName(encodedKey);
+				writeOut.writeStartArray(fldKey);
+			} else if (null != fldKey) {
 				writeOut.writeFieldName(fldKey);
 				writeOut.writeStartArray(fldKey);
 			} else {
@@ -300,7 +319,7 @@ public class JsonObjectWriter implements ObjectWriter {
 			JsonGenerator jsonWrite = _jf.createGenerator(retStr);
 
 			if (obj.size() == 1 && obj.containsKey("root")) {
-				writeArrayList(jsonWrite, null, obj.getList("root"));
+				writeArrayList(jsonWrite, null, null, obj.getList("root"));
 			} else {
 				convertObjectToJson(jsonWrite, obj, null);
 			}
@@ -0,0 +1,242 @@
+package com.progbits.api.writer;
+
+import com.progbits.api.exception.ApiClassNotFoundException;
+import com.progbits.api.exception.ApiException;
+import com.progbits.api.formaters.CodePage;
+import com.progbits.api.model.ApiClasses;
+import com.progbits.api.model.ApiObject;
+import com.progbits.api.plan.ClassPlan;
+import com.progbits.api.plan.FixedWidthLayout;
+import com.progbits.api.plan.SegmentedLayout;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Write a fixed-width file on disk with several threads.
+ *
+ * <p>
+ * Every record of a layout that is not segmented has the same length, so the
+ * offset of each record in the file is known before it is formatted. The file
+ * is preallocated, the records are split into slices of ChunkSize records,
+ * and each slice is formatted by its own FixedWidthWriter and written at its
+ * offset with a positional write.
+ * </p>
+ *
+ * <p>
+ * Each record is the layout length plus a \n, and must encode to one byte per
+ * char, so the Charset should be single byte unless the records are plain
+ * ASCII. Segmented layouts have records of varying length, so they can only
+ * be written in order with FixedWidthWriter.
+ * </p>
+ *
+ * <pre>
+ * ParallelFixedWidthWriter fixed = new ParallelFixedWidthWriter(classes, "com.example.Row", props);
+ *
+ * fixed.write(path, rows);
+ * </pre>
+ */
+public class ParallelFixedWidthWriter {
+
+    private static enum CONSTANTS {
+        ChunkSize, Charset, CodePage, FlushSize
+    };
+
+    private static final int DEFAULT_CHUNK_SIZE = 10000;
+
+    private final ApiClasses _classes;
+    private final String _mainClass;
+    private final Map<String, String> _props;
+    private final Map<String, String> _sliceProps;
+    private final int _chunkSize;
+    private final Charset _charset;
+
+    /**
+     * @param classes Classes to use for Writing
+     * @param mainClass The class of each record
+     * @param properties FixedWidthWriter properties, plus ChunkSize in
+     * records, and Charset, which defaults to the CodePage, or to ISO-8859-1
+     * for packed and binary layouts and UTF-8 otherwise
+     */
+    public ParallelFixedWidthWriter(ApiClasses classes, String mainClass,
+            Map<String, String> properties) {
+        _classes = classes;
+        _mainClass = mainClass;
+        _props = properties != null ? properties : new HashMap<>();
+
+        // Each slice is written to memory, and flushed once at its end
+        _sliceProps = new HashMap<>(_props);
+        _sliceProps.put(CONSTANTS.FlushSize.name(), String.valueOf(Integer.MAX_VALUE));
+
+        String chunkSize = _props.get(CONSTANTS.ChunkSize.name());
+
+        _chunkSize = Math.max(1, chunkSize != null ? Integer.parseInt(chunkSize) : DEFAULT_CHUNK_SIZE);
+
+        _charset = CodePage.charsetOf(_props.get(CONSTANTS.Charset.name()),
+                _props.get(CONSTANTS.CodePage.name()),
+                SegmentedLayout.isBinary(_classes, _mainClass));
+    }
+
+    /**
+     * Write the records, with the slices formatted on the common pool
+     *
+     * @param file The fixed-width file, replaced if it exists
+     * @param records The records to write, in file order
+     * @return Size of the file in bytes
+     */
+    public long write(Path file, List<ApiObject> records) throws ApiException {
+        return write(file, records, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Write the records, with each slice formatted and written as a task of
+     * the executor
+     *
+     * @param file The fixed-width file, replaced if it exists
+     * @param records The records to write, in file order
+     * @param executor Executor to format and write the slices on
+     * @return Size of the file in bytes
+     */
+    public long write(Path file, List<ApiObject> records,
+            ExecutorService executor) throws ApiException {
+        FixedWidthLayout layout = checkLayout();
+
+        long recordBytes = layout.getRecordLength() + "\n".getBytes(_charset).length;
+        long size = recordBytes * records.size();
+
+        FileChannel channel;
+
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException io) {
+            throw new ApiException(710, io.getMessage());
+        }
+
+        List<Future<?>> slices = new ArrayList<>();
+
+        try {
+            if (size > 0) {
+                // Preallocate, the last byte is overwritten by the last record
+                channel.write(ByteBuffer.allocate(1), size - 1);
+            }
+
+            for (int start = 0; start < records.size(); start += _chunkSize) {
+                int from = start;
+                int to = Math.min(records.size(), start + _chunkSize);
+
+                slices.add(executor.submit(() -> {
+                    writeSlice(channel, records, from, to, from * recordBytes, recordBytes);
+
+                    return null;
+                }));
+            }
+
+            for (Future<?> slice : slices) {
+                slice.get();
+            }
+        } catch (IOException io) {
+            throw new ApiException(710, io.getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+
+            throw new ApiException("Interrupted", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof ApiException api) {
+                throw api;
+            }
+
+            throw new ApiException(ex.getCause().getMessage(), ex.getCause());
+        } finally {
+            for (Future<?> slice : slices) {
+                slice.cancel(true);
+            }
+
+            try {
+                channel.close();
+            } catch (IOException io) {
+                // Nothing to do
+            }
+        }
+
+        return size;
+    }
+
+    private FixedWidthLayout checkLayout() throws ApiException {
+        ClassPlan plan;
+
+        try {
+            plan = ClassPlan.of(_classes.getClass(_mainClass));
+        } catch (ApiClassNotFoundException ex) {
+            throw new ApiException(550, "Class [" + _mainClass + "] NOT in map");
+        }
+
+        try {
+            if (SegmentedLayout.of(plan, _classes) != null) {
+                throw new ApiException(520, "Class [" + _mainClass
+                        + "] is Segmented, and must be written with FixedWidthWriter");
+            }
+        } catch (ApiClassNotFoundException ex) {
+            throw new ApiException(550, "Segment of Class [" + _mainClass + "] NOT in map: "
+                    + ex.getMessage());
+        }
+
+        return plan.getFixedWidthLayout();
+    }
+
+    /**
+     * Format the records from to to, and write them at offset
+     */
+    private void writeSlice(FileChannel channel, List<ApiObject> records, int from, int to,
+            long offset, long recordBytes) throws ApiException {
+        StringWriter out = new StringWriter((int) ((to - from) * recordBytes));
+        FixedWidthWriter writer = new FixedWidthWriter();
+
+        writer.init(_classes, _mainClass, _sliceProps, out);
+
+        ByteBuffer bytes;
+
+        try {
+            for (int x = from; x < to; x++) {
+                writer.writeObjectSingle(records.get(x));
+            }
+
+            writer.flush();
+
+            bytes = _charset.newEncoder().encode(CharBuffer.wrap(out.getBuffer()));
+        } catch (CharacterCodingException ex) {
+            throw new ApiException(520, "Records " + from + " to " + to + ": " + ex.getMessage());
+        } catch (IOException io) {
+            throw new ApiException(710, "Records " + from + " to " + to + ": " + io.getMessage());
+        } catch (ApiException ex) {
+            throw new ApiException("Records " + from + " to " + to + ": " + ex.getMessage(), ex);
+        }
+
+        if (bytes.remaining() != (to - from) * recordBytes) {
+            throw new ApiException(520, "Records " + from + " to " + to + " are not "
+                    + recordBytes + " bytes each, use a single byte Charset");
+        }
+
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes, offset + bytes.position());
+            }
+        } catch (IOException io) {
+            throw new ApiException(710, "Records " + from + " to " + to + ": " + io.getMessage());
+        }
+    }
+}
@@ -1,8 +1,20 @@
 package com.icg.api.json;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
 import com.progbits.api.exception.ApiException;
+import com.progbits.api.json.JsonFactories;
+import com.progbits.api.json.JsonSymbolTable;
+import com.progbits.api.json.JsonTape;
 import com.progbits.api.json.UTF8JsonParser;
+import com.progbits.api.parser.JsonObjectParser;
 import static com.progbits.api.json.UTF8JsonParser.Event.START_ARRAY;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 import org.testng.annotations.Test;
 
 /**
@@ -83,4 +95,161 @@ public class TestJson {
 
         }
     }
+
+    @Test
+    public void testJsonBytes() throws Exception {
+        String strUnicode = "{ \"Name\": \"Caf\u00e9 \u20ac \ud834\udd1e\", \"List\": [ 1, 2 ] }";
+        byte[] bytes = strUnicode.getBytes(StandardCharsets.UTF_8);
+
+        String strChars = readTokens(new UTF8JsonParser(strUnicode));
+
+        assert strChars.equals(readTokens(new UTF8JsonParser(bytes)));
+        assert strChars.equals(readTokens(new UTF8JsonParser(new ByteArrayInputStream(bytes), 3)));
+        assert strChars.contains("Caf\u00e9 \u20ac \ud834\udd1e");
+    }
+
+    @Test
+    public void testJsonNumbers() throws Exception {
+        UTF8JsonParser json = new UTF8JsonParser("[ 2134, -9223372036854775808, 9223372036854775808, 1e5, 123.31 ]");
+
+        json.nextToken();
+
+        assert json.nextToken() == UTF8JsonParser.Event.VALUE_NUMBER_INT;
+        assert json.getIntValue() == 2134;
+
+        json.nextToken();
+        assert json.getNumberType() == UTF8JsonParser.NumberType.LONG;
+        assert json.getLongValue() == Long.MIN_VALUE;
+
+        json.nextToken();
+        assert json.getNumberType() == UTF8JsonParser.NumberType.BIG_INTEGER;
+        assert json.getBigIntegerValue().toString().equals("9223372036854775808");
+
+        assert json.nextToken() == UTF8JsonParser.Event.VALUE_NUMBER_FLOAT;
+        assert json.getDoubleValue() == 100000D;
+
+        json.nextToken();
+        assert json.getDoubleValue() == 123.31D;
+    }
+
+    @Test
+    public void testJsonSymbols() throws Exception {
+        JsonSymbolTable symbols = new JsonSymbolTable();
+        String fieldName = new String("MyField");
+
+        symbols.canonicalize(fieldName);
+
+        UTF8JsonParser json = new UTF8JsonParser(strJsonTest.getBytes(StandardCharsets.UTF_8));
+        json.setSymbolTable(symbols);
+
+        json.nextToken();
+
+        assert json.nextToken() == UTF8JsonParser.Event.KEY_NAME;
+        assert json.getString() == fieldName;
+
+        json.nextToken();
+        json.nextToken();
+
+        String otherField = json.getString();
+
+        UTF8JsonParser second = new UTF8JsonParser(strJsonTest);
+        second.setSymbolTable(symbols);
+
+        second.nextToken();
+        second.nextToken();
+        second.nextToken();
+        second.nextToken();
+
+        assert second.getString() == otherField;
+    }
+
+    @Test
+    public void testJsonTape() throws Exception {
+        JsonTape tape = JsonTape.parse(strJsonTest);
+
+        int root = tape.root();
+
+        assert tape.getType(root) == JsonTape.OBJECT;
+        assert "ThisTest".equals(tape.getString(tape.find(root, "MyField")));
+        assert "2134".equals(tape.getText(tape.find(root, "IValue")));
+        assert tape.getType(tape.find(root, "AValue")) == JsonTape.TRUE;
+        assert tape.find(tape.find(root, "AnotherObject"), "TestVar2") != -1;
+
+        String strEscaped = "{ \"K\\u00e9y\": \"a\\\"b\\\\c\\/\\n\\u20ac \\ud834\\udd1e Caf\u00e9\" }";
+        JsonTape escaped = JsonTape.parse(strEscaped);
+
+        UTF8JsonParser json = new UTF8JsonParser(strEscaped);
+        json.nextToken();
+        json.nextToken();
+        json.nextToken();
+
+        assert escaped.find(escaped.root(), "K\u00e9y") == 2;
+        assert json.getString().equals(escaped.getString(2));
+        assert "a\"b\\c/\n\u20ac \ud834\udd1e Caf\u00e9".equals(escaped.getString(2));
+
+        assert JsonTape.parse(" ").root() == -1;
+        assert JsonTape.parse("[-0.5e+3, 0, {}, [], \"\", null, false]").size() == 11;
+
+        String[] invalid = {"[1 2]", "{\"a\" 1}", "{\"a\":1,}", "[1,]", "tru", "nulll",
+            "{} {}", "1 2", "{\"a\"}", "{1:2}", "[:1]", "01", "1.", "-", "[\"\\x\"]", "{"};
+
+        for (String strInvalid : invalid) {
+            try {
+                JsonTape.parse(strInvalid);
+
+                assert false : strInvalid;
+            } catch (ApiException ex) {
+                assert ex.getMessage() != null;
+            }
+        }
+    }
+
+    @Test
+    public void testJsonFactories() throws Exception {
+        Map<String, String> strict = new HashMap<>();
+        strict.put("StrictDuplicateDetection", "true");
+        strict.put("RecyclerPool", "bounded");
+
+        JsonFactory factory = JsonFactories.get(strict);
+
+        assert factory == JsonFactories.get(Map.of("StrictDuplicateDetection", "TRUE",
+                "RecyclerPool", "Bounded", "StreamArray", "true"));
+        assert factory != JsonFactories.get(Map.of("RecyclerPool", "bounded"));
+        assert factory.isEnabled(StreamReadFeature.STRICT_DUPLICATE_DETECTION);
+        assert JsonFactories.get(null) == JsonFactories.get();
+
+        try {
+            new JsonObjectParser().init(null, null, Map.of("RecyclerPool", "unknown"),
+                    new StringReader("{}"));
+
+            assert false;
+        } catch (ApiException ex) {
+            assert ex.getMessage().contains("Unknown RecyclerPool");
+        }
+
+        // The default pool is part of the key, nothing cached is dropped
+        JsonFactory defaults = JsonFactories.get();
+
+        JsonFactories.setDefaultRecyclerPool(JsonRecyclerPools.nonRecyclingPool());
+
+        try {
+            assert JsonFactories.get()._getRecyclerPool() == JsonRecyclerPools.nonRecyclingPool();
+            assert JsonFactories.get() == JsonFactories.get(Map.of("RecyclerPool", "none"));
+        } finally {
+            JsonFactories.setDefaultRecyclerPool(defaults._getRecyclerPool());
+        }
+
+        assert JsonFactories.get() == defaults;
+    }
+
+    private String readTokens(UTF8JsonParser json) throws ApiException {
+        StringBuilder sb = new StringBuilder();
+        UTF8JsonParser.Event currEvent;
+
+        while ((currEvent = json.nextToken()) != UTF8JsonParser.Event.EOF) {
+            sb.append(currEvent).append(":").append(json.getString()).append("|");
+        }
+
+        return sb.toString();
+    }
 }
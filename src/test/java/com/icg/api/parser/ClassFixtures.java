@@ -0,0 +1,58 @@
+package com.icg.api.parser;
+
+import com.progbits.api.model.ApiClass;
+import com.progbits.api.model.ApiClasses;
+import com.progbits.api.model.ApiObject;
+
+/**
+ * Builds the ApiClass definitions used by the parser tests
+ *
+ * @author scarr
+ */
+final class ClassFixtures {
+
+    private ClassFixtures() {
+    }
+
+    /**
+     * Create a class, named after the part of className after the package,
+     * and add it to classes
+     */
+    static ApiClass createClass(ApiClasses classes, String className) {
+        ApiClass cls = new ApiClass();
+        cls.setName("apiClass");
+        cls.setString("name", className.substring(className.indexOf('.') + 1));
+        cls.setString("className", className);
+        cls.createList("fields");
+
+        classes.addClass(cls);
+
+        return cls;
+    }
+
+    static ApiObject addField(ApiClass cls, String name, String type) {
+        ApiObject objField = cls.getListAdd("fields");
+        objField.setName("apiField");
+        objField.setString("name", name);
+        objField.setString("type", type);
+
+        return objField;
+    }
+
+    static ApiObject addField(ApiClass cls, String name, String type, int length) {
+        ApiObject objField = addField(cls, name, type);
+        objField.setInteger("length", length);
+
+        return objField;
+    }
+
+    static ApiObject addField(ApiClass cls, String name, String type, int length, String format) {
+        ApiObject objField = addField(cls, name, type, length);
+
+        if (format != null) {
+            objField.setString("format", format);
+        }
+
+        return objField;
+    }
+}
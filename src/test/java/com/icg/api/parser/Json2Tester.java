@@ -2,9 +2,16 @@ package com.icg.api.parser;
 
 import com.progbits.api.exception.ApiClassNotFoundException;
 import com.progbits.api.exception.ApiException;
+import com.progbits.api.model.ApiClass;
+import com.progbits.api.model.ApiClasses;
 import com.progbits.api.model.ApiObject;
 import com.progbits.api.parser.Json2ObjectParser;
+import com.progbits.api.parser.LazyJsonObject;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import static com.icg.api.parser.ClassFixtures.addField;
+import static com.icg.api.parser.ClassFixtures.createClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
@@ -84,4 +91,91 @@ public class Json2Tester {
             runTest();
         }
     }
+
+    @Test
+    public void testStreamArray() throws Exception {
+        Json2ObjectParser parser = new Json2ObjectParser();
+
+        parser.init(null, null, Map.of("StreamArray", "true"),
+            new StringReader("[ { \"Id\": 1, \"Name\": \"One\" }, { \"Id\": 2, \"Tags\": [ \"a\" ] } ]"));
+
+        assert parser.next();
+        assert parser.getObject().getLong("Id") == 1L;
+        assert "One".equals(parser.getObject().getString("Name"));
+
+        assert parser.next();
+        assert parser.getObject().getLong("Id") == 2L;
+
+        assert !parser.next();
+    }
+
+    @Test
+    public void testIncludeFields() throws Exception {
+        Json2ObjectParser parser = new Json2ObjectParser();
+
+        parser.init(null, null, Map.of("IncludeFields", "MyField,AnotherObject.TestVar2"),
+            new StringReader(strJsonTest));
+
+        parser.next();
+
+        ApiObject obj = parser.getObject();
+
+        assert "ThisTest".equals(obj.getString("MyField"));
+        assert !obj.containsKey("OtherField");
+        assert !obj.containsKey("MyIntArray");
+        assert "ThisVal".equals(obj.getObject("AnotherObject").getString("TestVar2"));
+        assert !obj.getObject("AnotherObject").containsKey("TestVar1");
+    }
+
+    @Test
+    public void testParseLazy() throws Exception {
+        LazyJsonObject lazy = _parser.parseLazy(strJsonTest.getBytes(StandardCharsets.UTF_8));
+
+        assert "ThisTest".equals(lazy.getString("MyField"));
+        assert lazy.getLong("IValue") == 2134L;
+        assert lazy.getBoolean("AValue");
+        assert lazy.getStringArray("MyStrArray").size() == 3;
+        assert "ThisVal".equals(lazy.getObject("AnotherObject").getString("TestVar2"));
+        assert !lazy.containsKey("Missing");
+
+        ApiObject obj = lazy.toApiObject();
+
+        assert "ThisValue".equals(obj.getString("OtherField"));
+    }
+
+    @Test
+    public void testParseLazyClasses() throws Exception {
+        ApiClasses classes = new ApiClasses();
+
+        ApiClass orderCls = createClass(classes, "test.Order");
+
+        addField(orderCls, "id", "String");
+        addField(orderCls, "customer", "Object").setString("subType", "test.Customer");
+        addField(orderCls, "lines", "ArrayList").setString("subType", "test.Line");
+
+        addField(createClass(classes, "test.Customer"), "name", "String");
+
+        ApiClass lineCls = createClass(classes, "test.Line");
+
+        addField(lineCls, "sku", "String");
+        addField(lineCls, "qty", "Integer");
+
+        Json2ObjectParser parser = new Json2ObjectParser();
+
+        parser.init(classes, "test.Order", null, new StringReader("{}"));
+
+        LazyJsonObject lazy = parser.parseLazy(("{ \"id\": \"A1\", \"customer\": { \"name\": \"Bob\" },"
+            + " \"lines\": [ { \"sku\": \"X12\", \"qty\": 5 } ] }").getBytes(StandardCharsets.UTF_8));
+
+        // Nested views are parsed with the subType of their field
+        ApiObject customer = lazy.getObject("customer").toApiObject();
+
+        assert customer.getApiClass() == classes.getClass("test.Customer");
+        assert "Bob".equals(customer.getString("name"));
+
+        ApiObject line = lazy.getList("lines").get(0).toApiObject();
+
+        assert line.getApiClass() == lineCls;
+        assert line.getInteger("qty") == 5;
+    }
 }
@@ -9,6 +9,7 @@ import com.progbits.api.exception.ApiException;
 import com.progbits.api.model.ApiObject;
 import com.progbits.api.parser.JsonObjectParser;
 import java.io.StringReader;
+import java.util.Map;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
@@ -88,4 +89,39 @@ public class JsonTester {
             runTest();
         }
     }
+
+    @Test
+    public void testStreamArray() throws Exception {
+        JsonObjectParser parser = new JsonObjectParser();
+
+        parser.init(null, null, Map.of("StreamArray", "true"),
+            new StringReader("[ { \"Id\": 1, \"Name\": \"One\" }, { \"Id\": 2, \"Tags\": [ \"a\" ] } ]"));
+
+        assert parser.next();
+        assert parser.getObject().getLong("Id") == 1L;
+        assert "One".equals(parser.getObject().getString("Name"));
+
+        assert parser.next();
+        assert parser.getObject().getLong("Id") == 2L;
+
+        assert !parser.next();
+    }
+
+    @Test
+    public void testIncludeFields() throws Exception {
+        JsonObjectParser parser = new JsonObjectParser();
+
+        parser.init(null, null, Map.of("IncludeFields", "MyField,AnotherObject.TestVar2"),
+            new StringReader(strJsonTest));
+
+        parser.next();
+
+        ApiObject obj = parser.getObject();
+
+        assert "ThisTest".equals(obj.getString("MyField"));
+        assert !obj.containsKey("OtherField");
+        assert !obj.containsKey("MyIntArray");
+        assert "ThisVal".equals(obj.getObject("AnotherObject").getString("TestVar2"));
+        assert !obj.getObject("AnotherObject").containsKey("TestVar1");
+    }
 }
@@ -0,0 +1,200 @@
+package com.icg.api.parser;
+
+import com.progbits.api.exception.ApiException;
+import com.progbits.api.model.ApiClass;
+import com.progbits.api.model.ApiClasses;
+import com.progbits.api.model.ApiObject;
+import com.progbits.api.parser.CsvObjectParser;
+import com.progbits.api.parser.ParallelCsvParser;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Stream;
+import static com.icg.api.parser.ClassFixtures.addField;
+import static com.icg.api.parser.ClassFixtures.createClass;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author scarr
+ */
+public class TestCsvParser {
+
+    String strCsvTest = "name,qty,price,active,total\r\n"
+            + "\"Smith, John\",5,12.50,true,9000000000\r\n"
+            + "\n"
+            + "\"Say \"\"hi\"\"\",x,1,FALSE,\r\n";
+
+    private ApiClasses createClasses() {
+        ApiClasses classes = new ApiClasses();
+
+        ApiClass cls = createClass(classes, "test.Row");
+
+        addField(cls, "name", "String");
+        addField(cls, "qty", "Integer");
+        addField(cls, "price", "Decimal");
+        addField(cls, "active", "Boolean");
+        addField(cls, "total", "Long");
+
+        return classes;
+    }
+
+    @Test
+    public void testParse() throws Exception {
+        CsvObjectParser parser = new CsvObjectParser();
+
+        parser.init(createClasses(), "test.Row", Map.of("IgnoreHeader", "true"),
+                new StringReader(strCsvTest));
+
+        assert parser.next();
+
+        ApiObject row = parser.getObject();
+
+        assert parser.getParseErrors().isEmpty();
+        assert "Smith, John".equals(row.getString("name"));
+        assert row.getInteger("qty") == 5;
+        assert new BigDecimal("12.50").equals(row.getDecimal("price"));
+        assert row.getBoolean("active");
+        assert row.getLong("total") == 9000000000L;
+
+        assert parser.next();
+
+        row = parser.getObject();
+
+        // The bad qty is reported, the columns after it are still read
+        assert parser.getParseErrors().size() == 1;
+        assert "Say \"hi\"".equals(row.getString("name"));
+        assert new BigDecimal("1").equals(row.getDecimal("price"));
+        assert !row.getBoolean("active");
+
+        assert !parser.next();
+    }
+
+    @Test
+    public void testHeaderMapping() throws Exception {
+        String strCsv = "Total,extra,\"Name\",qty\n"
+                + "7,\"skipped, \"\"quoted\"\"\",Bob,bad\n";
+
+        CsvObjectParser parser = new CsvObjectParser();
+
+        parser.init(createClasses(), "test.Row", Map.of("UseHeader", "true",
+                "IncludeFields", "name,total"), new StringReader(strCsv));
+
+        assert parser.next();
+
+        ApiObject row = parser.getObject();
+
+        // qty is not in IncludeFields, so the bad value is never converted
+        assert parser.getParseErrors().isEmpty();
+        assert "Bob".equals(row.getString("name"));
+        assert row.getLong("total") == 7L;
+        assert !row.getFields().containsKey("qty");
+        assert !row.getFields().containsKey("price");
+
+        assert !parser.next();
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+        StringBuilder sbCsv = new StringBuilder("name,qty,price,active,total\n");
+
+        for (int x = 0; x < 1000; x++) {
+            sbCsv.append("\"Line\n").append(x).append("\",").append(x).append(",1.5,true,1\n");
+        }
+
+        Path csvFile = Files.createTempFile("parallel", ".csv");
+
+        try {
+            Files.writeString(csvFile, sbCsv.toString());
+
+            // Small ranges, so most start next to a quoted newline
+            ParallelCsvParser parser = new ParallelCsvParser(createClasses(), "test.Row",
+                    Map.of("IgnoreHeader", "true", "ChunkSize", "100"));
+
+            try (Stream<ApiObject> rows = parser.parse(csvFile, true)) {
+                List<ApiObject> lstRows = rows.toList();
+
+                assert lstRows.size() == 1000;
+
+                for (int x = 0; x < lstRows.size(); x++) {
+                    assert lstRows.get(x).getInteger("qty") == x;
+                    assert ("Line\n" + x).equals(lstRows.get(x).getString("name"));
+                }
+            }
+
+            try (Stream<ApiObject> rows = parser.parse(csvFile, false)) {
+                assert rows.mapToInt(row -> row.getInteger("qty")).sum() == 999 * 1000 / 2;
+            }
+
+            assert parser.getParseErrors().isEmpty();
+
+            // Every range maps columns by the header in the first range
+            ParallelCsvParser named = new ParallelCsvParser(createClasses(), "test.Row",
+                    Map.of("UseHeader", "true", "IncludeFields", "qty", "ChunkSize", "100"));
+
+            try (Stream<ApiObject> rows = named.parse(csvFile, true)) {
+                List<ApiObject> lstRows = rows.toList();
+
+                assert lstRows.size() == 1000;
+                assert lstRows.get(999).getInteger("qty") == 999;
+                assert lstRows.get(999).getString("name") == null;
+            }
+        } finally {
+            Files.deleteIfExists(csvFile);
+        }
+    }
+
+    @Test
+    public void testParallelLineEnds() throws Exception {
+        StringBuilder sbCsv = new StringBuilder();
+
+        // Records end with \r only, the names hold an escaped quote and an escaped escape
+        for (int x = 0; x < 1000; x++) {
+            sbCsv.append("\"Line \\\"").append(x).append("\r\\\\\",").append(x).append(",1.5,true,1\r");
+        }
+
+        Path csvFile = Files.createTempFile("lineends", ".csv");
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(2);
+
+        try {
+            Files.writeString(csvFile, sbCsv.toString());
+
+            ParallelCsvParser parser = new ParallelCsvParser(createClasses(), "test.Row",
+                    Map.of("escapeCharacter", "\\", "ChunkSize", "100"));
+
+            try (Stream<ApiObject> rows = parser.parse(csvFile, true, executor)) {
+                List<ApiObject> lstRows = rows.toList();
+
+                assert lstRows.size() == 1000;
+
+                for (int x = 0; x < lstRows.size(); x++) {
+                    assert lstRows.get(x).getInteger("qty") == x;
+                    assert ("Line \"" + x + "\r\\").equals(lstRows.get(x).getString("name"));
+                }
+            }
+
+            assert parser.getParseErrors().isEmpty();
+
+            // One scan per ChunkSize, every other task parsed a range
+            long scans = (Files.size(csvFile) + 99) / 100;
+
+            assert executor.getTaskCount() - scans > 100;
+
+            try {
+                new ParallelCsvParser(createClasses(), "test.Row", Map.of("Charset", "UTF-16"));
+
+                assert false;
+            } catch (ApiException ex) {
+                assert ex.getMessage().contains("single bytes");
+            }
+        } finally {
+            executor.shutdownNow();
+            Files.deleteIfExists(csvFile);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.icg.api.parser;
+
+import com.progbits.api.exception.ApiException;
+import com.progbits.api.model.ApiClass;
+import com.progbits.api.model.ApiClasses;
+import com.progbits.api.model.ApiObject;
+import com.progbits.api.parser.FixedWidthNoLineParser;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import static com.icg.api.parser.ClassFixtures.addField;
+import static com.icg.api.parser.ClassFixtures.createClass;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author scarr
+ */
+public class TestFixedWidthNoLineParser {
+
+    private ApiClasses createClasses() {
+        ApiClasses classes = new ApiClasses();
+
+        ApiClass cls = createClass(classes, "test.Order");
+
+        addField(cls, "id", "String", 4);
+        addField(cls, "count", "Integer", 2);
+        addField(cls, "lines", "ArrayList", 0).setString("subType", "test.Line");
+        cls.getList("fields").get(2).setString("iterationCount", "count-1");
+        addField(cls, "codes", "StringArray", 2).setString("iterationCount", "count");
+
+        ApiClass lineCls = createClass(classes, "test.Line");
+
+        addField(lineCls, "sku", "String", 3);
+        addField(lineCls, "qty", "Integer", 2);
+
+        return classes;
+    }
+
+    private void checkFirst(ApiObject order) {
+        assert "A1".equals(order.getString("id"));
+        assert order.getList("lines").size() == 1;
+        assert "X12".equals(order.getList("lines").get(0).getString("sku"));
+        assert order.getList("lines").get(0).getInteger("qty") == 5;
+        assert order.getStringArray("codes").size() == 2;
+        assert "CD".equals(order.getStringArray("codes").get(1));
+    }
+
+    private void checkSecond(ApiObject order) {
+        assert "B2".equals(order.getString("id"));
+        assert order.getList("lines").size() == 2;
+        assert "Z99".equals(order.getList("lines").get(1).getString("sku"));
+        assert order.getStringArray("codes").size() == 3;
+        assert "GH".equals(order.getStringArray("codes").get(2));
+    }
+
+    @Test
+    public void testLines() throws Exception {
+        FixedWidthNoLineParser parser = new FixedWidthNoLineParser();
+
+        parser.init(createClasses(), "test.Order", null,
+                new StringReader("A1  02X12 5ABCD\r\nB2  03Y10 1Z99 2EFABGH\n"));
+
+        assert parser.next();
+        checkFirst(parser.getObject());
+
+        assert parser.next();
+        checkSecond(parser.getObject());
+
+        assert !parser.next();
+        assert parser.getParseErrors().isEmpty();
+    }
+
+    @Test
+    public void testRecordLength() throws Exception {
+        FixedWidthNoLineParser parser = new FixedWidthNoLineParser();
+        Map<String, String> props = new HashMap<>();
+
+        props.put("RecordLength", "20");
+
+        // Records are padded to 20 chars, without line endings
+        parser.init(createClasses(), "test.Order", props,
+                new StringReader("A1  02X12 5ABCD     B2  02Y10 1EFGH     "));
+
+        assert parser.next();
+        checkFirst(parser.getObject());
+
+        assert parser.next();
+        assert "B2".equals(parser.getObject().getString("id"));
+        assert "EF".equals(parser.getObject().getStringArray("codes").get(0));
+
+        assert !parser.next();
+    }
+
+    @Test
+    public void testLayoutRecords() throws Exception {
+        FixedWidthNoLineParser parser = new FixedWidthNoLineParser();
+        Map<String, String> props = new HashMap<>();
+
+        props.put("RecordLength", "layout");
+
+        // The length of each record is only known from count
+        parser.init(createClasses(), "test.Order", props,
+                new StringReader("A1  02X12 5ABCDB2  03Y10 1Z99 2EFABGH\n"));
+
+        assert parser.next();
+        checkFirst(parser.getObject());
+
+        assert parser.next();
+        checkSecond(parser.getObject());
+
+        assert !parser.next();
+        assert parser.getParseErrors().isEmpty();
+    }
+
+    @Test
+    public void testLayoutUnbounded() throws Exception {
+        FixedWidthNoLineParser parser = new FixedWidthNoLineParser();
+        Map<String, String> props = new HashMap<>();
+        ApiClasses classes = new ApiClasses();
+
+        ApiClass cls = createClass(classes, "test.Order");
+
+        addField(cls, "id", "String", 4);
+        // Without iterationCount the lines would be read to the end of the stream
+        addField(cls, "lines", "ArrayList", 0).setString("subType", "test.Line");
+
+        addField(createClass(classes, "test.Line"), "sku", "String", 3);
+
+        props.put("RecordLength", "layout");
+
+        try {
+            parser.init(classes, "test.Order", props, new StringReader("A1  02X12 5ABCD"));
+
+            assert false;
+        } catch (ApiException ex) {
+            assert ex.getMessage().contains("iterationCount");
+        }
+    }
+}
@@ -0,0 +1,670 @@
+package com.icg.api.parser;
+
+import com.progbits.api.ObjectWriter;
+import com.progbits.api.exception.ApiException;
+import com.progbits.api.model.ApiClass;
+import com.progbits.api.model.ApiClasses;
+import com.progbits.api.model.ApiObject;
+import com.progbits.api.parser.FixedWidthParser;
+import com.progbits.api.parser.ParallelFixedWidthParser;
+import com.progbits.api.parser.RandomFixedWidthReader;
+import com.progbits.api.plan.ClassPlan;
+import com.progbits.api.writer.FixedWidthWriter;
+import com.progbits.api.writer.ParallelFixedWidthWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Flushable;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import static com.icg.api.parser.ClassFixtures.addField;
+import static com.icg.api.parser.ClassFixtures.createClass;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author scarr
+ */
+public class TestFixedWidthParser {
+
+    @Test
+    public void testMainframeDefaultCodePage() throws Exception {
+        ApiClasses classes = createClasses();
+
+        ApiClass binCls = createClass(classes, "test.Bin");
+
+        addField(binCls, "id", "String", 2, null);
+        addField(binCls, "amount", "Decimal", 4, "S9999V99").setString("usage", "comp-3");
+        addField(binCls, "count", "Integer", 2, null).setString("usage", "binary");
+
+        // No CodePage, so the fields are bytes of ISO-8859-1
+        Map<String, String> props = Map.of("RecordLength", "9");
+
+        ApiObject first = classes.getInstance("test.Bin");
+        first.setString("id", "A1");
+        first.setDecimal("amount", new BigDecimal("-12.34"));
+        first.setInteger("count", -2);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        FixedWidthWriter writer = new FixedWidthWriter();
+        writer.initStream(classes, "test.Bin", props, out);
+        writer.write(first);
+
+        byte[] bytes = out.toByteArray();
+
+        assert bytes.length == 9;
+        assert bytes[0] == 'A' && bytes[1] == '1';
+        assert (bytes[4] & 0xFF) == 0x23 && (bytes[5] & 0xFF) == 0x4D;
+        assert (bytes[6] & 0xFF) == 0xFF && (bytes[7] & 0xFF) == 0xFE;
+
+        // Bytes from another system, packed and binary bytes above 0x7F
+        byte[] input = {'B', '2', (byte) 0x98, (byte) 0x76, (byte) 0x54, (byte) 0x3C,
+            (byte) 0x80, 0x00, '\n'};
+
+        FixedWidthParser parser = new FixedWidthParser();
+        parser.initStream(classes, "test.Bin", props, new ByteArrayInputStream(input));
+
+        assert parser.next();
+        assert parser.getParseErrors().isEmpty();
+        assert new BigDecimal("98765.43").equals(parser.getObject().getDecimal("amount"));
+        assert parser.getObject().getInteger("count") == -32768;
+        assert !parser.next();
+    }
+
+    String strFixedTest = "Bob     42  1250true 09000000000\r\n"
+            + "Jane     7-00075\n"
+            + "Sam   xx    0100\n";
+
+    String strSegmentedTest = "HDBob     42  1250\n"
+            + "TRJane     7-00075\n"
+            + "ZZignored\n"
+            + "FTSam      1  0100\n";
+
+    private ApiClasses createClasses() {
+        ApiClasses classes = new ApiClasses();
+
+        ApiClass cls = createClass(classes, "test.Row");
+
+        addField(cls, "name", "String", 6, null);
+        addField(cls, "qty", "Integer", 4, null);
+        addField(cls, "price", "Decimal", 6, "9999V99").setInteger("min", 1);
+        addField(cls, "active", "Boolean", 5, null);
+        addField(cls, "total", "Long", 11, null);
+
+        ApiClass segCls = createClass(classes, "test.Segments");
+
+        addField(segCls, "HD", "Object", 2, null).setString("subType", "test.Row");
+        addField(segCls, "TR", "ArrayList", 2, null).setString("subType", "test.Row");
+        addField(segCls, "FT", "Object", 2, null).setString("subType", "test.Row");
+
+        ApiClass hostCls = createClass(classes, "test.Host");
+
+        addField(hostCls, "name", "String", 6, null);
+        addField(hostCls, "amount", "Decimal", 4, "S9999V99").setString("usage", "comp-3");
+        addField(hostCls, "balance", "Decimal", 5, "S999V99").setString("usage", "zoned");
+        addField(hostCls, "count", "Integer", 4, null).setString("usage", "binary");
+        addField(hostCls, "total", "Long", 3, null).setString("usage", "packed");
+
+        return classes;
+    }
+
+    @Test
+    public void testParse() throws Exception {
+        FixedWidthParser parser = new FixedWidthParser();
+
+        parser.init(createClasses(), "test.Row", null, new StringReader(strFixedTest));
+
+        assert parser.next();
+
+        ApiObject row = parser.getObject();
+
+        assert parser.getParseErrors().isEmpty();
+        assert "Bob".equals(row.getString("name"));
+        assert row.getInteger("qty") == 42;
+        assert new BigDecimal("12.50").equals(row.getDecimal("price"));
+        assert row.getBoolean("active");
+        assert row.getLong("total") == 9000000000L;
+
+        assert parser.next();
+
+        row = parser.getObject();
+
+        // Fields past the end of the line are not set
+        assert parser.getParseErrors().isEmpty();
+        assert row.getInteger("qty") == 7;
+        assert new BigDecimal("-0.75").equals(row.getDecimal("price"));
+        assert !row.getFields().containsKey("active");
+
+        assert parser.next();
+
+        // The bad qty is reported, the fields after it are still read
+        assert parser.getParseErrors().size() == 1;
+        assert parser.getParseErrors().get(0).startsWith("Line: 3 Field: qty");
+        assert new BigDecimal("1.00").equals(parser.getObject().getDecimal("price"));
+
+        assert !parser.next();
+    }
+
+    @Test
+    public void testRequired() throws Exception {
+        FixedWidthParser parser = new FixedWidthParser();
+
+        parser.init(createClasses(), "test.Row", null, new StringReader("Bob     42      true "));
+
+        assert parser.next();
+        assert parser.getParseErrors().size() == 1;
+        assert parser.getParseErrors().get(0).endsWith("Is Required");
+        assert parser.getObject().getBoolean("active");
+    }
+
+    @Test
+    public void testRedefinedClass() throws Exception {
+        ApiClasses first = createClasses();
+        ApiClasses second = createClasses();
+
+        // Same className in another registry, with a shorter name
+        second.getClass("test.Row").getList("fields").get(0).setInteger("length", 3);
+
+        for (int x = 0; x < 2; x++) {
+            assert "Bob".equals(parseRow(first, "Bob     42").getString("name"));
+            assert parseRow(first, "Bob     42").getInteger("qty") == 42;
+            assert parseRow(second, "Bob  42").getInteger("qty") == 42;
+        }
+
+        assert parseRow(first, "Bob     42").getInteger("qty") == 42;
+
+        // One plan per ApiClass instance, shared by every parser
+        ClassPlan plan = ClassPlan.of(first.getClass("test.Row"));
+
+        assert plan == ClassPlan.of(first.getClass("test.Row"));
+        assert plan != ClassPlan.of(second.getClass("test.Row"));
+
+        // A field removed in place, compiled again for the next parser
+        first.getClass("test.Row").getList("fields").remove(0);
+
+        assert parseRow(first, "  42").getInteger("qty") == 42;
+    }
+
+    private ApiObject parseRow(ApiClasses classes, String line) throws Exception {
+        FixedWidthParser parser = new FixedWidthParser();
+        parser.init(classes, "test.Row", null, new StringReader(line + "\n"));
+
+        assert parser.next();
+        assert parser.getParseErrors().isEmpty();
+
+        return parser.getObject();
+    }
+
+    @Test
+    public void testSegmented() throws Exception {
+        FixedWidthParser parser = new FixedWidthParser();
+
+        parser.init(createClasses(), "test.Segments", null, new StringReader(strSegmentedTest));
+
+        assert parser.next();
+
+        ApiObject obj = parser.getObject();
+
+        assert parser.getParseErrors().isEmpty();
+        assert obj.getObject("HD").getInteger("qty") == 42;
+        assert "Sam".equals(obj.getObject("FT").getString("name"));
+
+        assert !parser.next();
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+        StringBuilder sbFixed = new StringBuilder();
+
+        for (int x = 0; x < 1000; x++) {
+            sbFixed.append(String.format("Row%-3d%4d%06dtrue %011d\n", x, x, x, x));
+        }
+
+        Path fixedFile = Files.createTempFile("parallel", ".txt");
+
+        try {
+            Files.writeString(fixedFile, sbFixed.toString());
+
+            // Small ranges, so most boundaries fall inside a line
+            ParallelFixedWidthParser parser = new ParallelFixedWidthParser(createClasses(),
+                    "test.Row", Map.of("ChunkSize", "100"));
+
+            try (Stream<ApiObject> rows = parser.parse(fixedFile, true)) {
+                List<ApiObject> lstRows = rows.toList();
+
+                assert lstRows.size() == 1000;
+
+                for (int x = 0; x < lstRows.size(); x++) {
+                    assert lstRows.get(x).getInteger("qty") == x;
+                    assert lstRows.get(x).getLong("total") == x;
+                }
+            }
+
+            // Every line is 33 bytes, so the ranges are found without scanning
+            ParallelFixedWidthParser fixedLength = new ParallelFixedWidthParser(createClasses(),
+                    "test.Row", Map.of("ChunkSize", "100", "RecordLength", "33"));
+
+            try (Stream<ApiObject> rows = fixedLength.parse(fixedFile, false)) {
+                assert rows.mapToInt(row -> row.getInteger("qty")).sum() == 999 * 1000 / 2;
+            }
+
+            assert parser.getParseErrors().isEmpty();
+            assert fixedLength.getParseErrors().isEmpty();
+        } finally {
+            Files.deleteIfExists(fixedFile);
+        }
+    }
+
+    @Test
+    public void testParallelCodePage() throws Exception {
+        StringBuilder sbFixed = new StringBuilder();
+
+        // U+008E is 0x0A in Cp037, which ends lines with 0x15
+        for (int x = 0; x < 1000; x++) {
+            sbFixed.append(String.format("Ro\u008E%-3d%4d%06dtrue %011d\n", x, x, x, x));
+        }
+
+        Path fixedFile = Files.createTempFile("codepage", ".txt");
+
+        try {
+            Files.write(fixedFile, sbFixed.toString().getBytes("Cp037"));
+
+            ParallelFixedWidthParser parser = new ParallelFixedWidthParser(createClasses(),
+                    "test.Row", Map.of("ChunkSize", "100", "CodePage", "Cp037"));
+
+            try (Stream<ApiObject> rows = parser.parse(fixedFile, true)) {
+                List<ApiObject> lstRows = rows.toList();
+
+                assert lstRows.size() == 1000;
+
+                for (int x = 0; x < lstRows.size(); x++) {
+                    assert ("Ro\u008E" + x).equals(lstRows.get(x).getString("name").trim());
+                    assert lstRows.get(x).getLong("total") == x;
+                }
+            }
+
+            assert parser.getParseErrors().isEmpty();
+
+            try {
+                new ParallelFixedWidthParser(createClasses(), "test.Row", Map.of("Charset", "UTF-16"));
+
+                assert false;
+            } catch (ApiException ex) {
+                assert ex.getMessage().contains("RecordLength");
+            }
+
+            try {
+                new ParallelFixedWidthParser(createClasses(), "test.Row", Map.of("RecordLength", "layout"));
+
+                assert false;
+            } catch (ApiException ex) {
+                assert ex.getMessage().contains("must be a number");
+            }
+        } finally {
+            Files.deleteIfExists(fixedFile);
+        }
+    }
+
+    @Test
+    public void testParallelInterrupted() throws Exception {
+        StringBuilder sbFixed = new StringBuilder();
+
+        for (int x = 0; x < 100; x++) {
+            sbFixed.append(String.format("Row%-3d%4d%06dtrue %011d\n", x, x, x, x));
+        }
+
+        Path fixedFile = Files.createTempFile("interrupted", ".txt");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch blocker = new CountDownLatch(1);
+
+        try {
+            Files.writeString(fixedFile, sbFixed.toString());
+
+            // The ranges stay queued behind the blocker, so hasNext waits
+            executor.submit(() -> {
+                blocker.await();
+
+                return null;
+            });
+
+            ParallelFixedWidthParser parser = new ParallelFixedWidthParser(createClasses(),
+                    "test.Row", Map.of("ChunkSize", "330", "RecordLength", "33"));
+
+            try (Stream<ApiObject> rows = parser.parse(fixedFile, true, executor)) {
+                Thread.currentThread().interrupt();
+
+                try {
+                    rows.iterator().hasNext();
+
+                    assert false;
+                } catch (IllegalStateException ex) {
+                    assert Thread.interrupted();
+                }
+
+                // Cancelled by hasNext, not by closing the Stream
+                List<Runnable> queued = executor.shutdownNow();
+
+                assert !queued.isEmpty();
+
+                for (Runnable task : queued) {
+                    assert ((Future<?>) task).isCancelled();
+                }
+            }
+        } finally {
+            blocker.countDown();
+            executor.shutdownNow();
+            Files.deleteIfExists(fixedFile);
+        }
+    }
+
+    @Test
+    public void testMainframe() throws Exception {
+        ApiClasses classes = createClasses();
+        Map<String, String> props = Map.of("CodePage", "Cp037", "RecordLength", "23");
+
+        ApiObject first = classes.getInstance("test.Host");
+        first.setString("name", "Bob");
+        first.setDecimal("amount", new BigDecimal("-12.34"));
+        first.setDecimal("balance", new BigDecimal("105.20"));
+        first.setInteger("count", -2);
+        first.setLong("total", 12345L);
+
+        ApiObject second = classes.getInstance("test.Host");
+        second.setString("name", "Jane");
+        second.setDecimal("amount", new BigDecimal("0.05"));
+        second.setDecimal("balance", new BigDecimal("-3.01"));
+        second.setInteger("count", 3085);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        FixedWidthWriter writer = new FixedWidthWriter();
+        writer.initStream(classes, "test.Host", props, out);
+        writer.write(first);
+        writer.write(second);
+
+        byte[] bytes = out.toByteArray();
+
+        // EBCDIC text, packed D sign, overpunched zoned, two's complement
+        assert bytes.length == 46;
+        assert (bytes[0] & 0xFF) == 0xC2;
+        assert (bytes[6] & 0xFF) == 0x00 && (bytes[8] & 0xFF) == 0x23 && (bytes[9] & 0xFF) == 0x4D;
+        assert (bytes[13] & 0xFF) == 0xF2 && (bytes[14] & 0xFF) == 0xC0;
+        assert (bytes[17] & 0xFF) == 0xFF && (bytes[18] & 0xFF) == 0xFE;
+        assert (bytes[19] & 0xFF) == 0x12 && (bytes[21] & 0xFF) == 0x5F;
+        assert (bytes[37] & 0xFF) == 0xD1;
+
+        FixedWidthParser parser = new FixedWidthParser();
+        parser.initStream(classes, "test.Host", props, new ByteArrayInputStream(bytes));
+
+        assert parser.next();
+
+        ApiObject row = parser.getObject();
+
+        assert parser.getParseErrors().isEmpty();
+        assert "Bob".equals(row.getString("name"));
+        assert new BigDecimal("-12.34").equals(row.getDecimal("amount"));
+        assert new BigDecimal("105.20").equals(row.getDecimal("balance"));
+        assert row.getInteger("count") == -2;
+        assert row.getLong("total") == 12345L;
+
+        assert parser.next();
+
+        row = parser.getObject();
+
+        assert parser.getParseErrors().isEmpty();
+        assert "Jane".equals(row.getString("name"));
+        assert new BigDecimal("0.05").equals(row.getDecimal("amount"));
+        assert new BigDecimal("-3.01").equals(row.getDecimal("balance"));
+        assert row.getInteger("count") == 3085;
+
+        // Spaces are a blank packed field
+        assert !row.getFields().containsKey("total");
+
+        assert !parser.next();
+    }
+
+    @Test
+    public void testRandomAccess() throws Exception {
+        StringBuilder sbFixed = new StringBuilder();
+        StringBuilder sbSegmented = new StringBuilder();
+
+        for (int x = 0; x < 100; x++) {
+            sbFixed.append(String.format("Row%-3d%4d%06dtrue %011d\n", x, x, x, x));
+
+            sbSegmented.append(String.format("HDRow%-3d%4d\n", x, x));
+
+            // A varying number of lines per record
+            for (int y = 0; y < x % 3; y++) {
+                sbSegmented.append(String.format("TRLine%-2d%4d\n", y, y));
+            }
+
+            sbSegmented.append(String.format("FTEnd%-3d%4d\n", x, x));
+        }
+
+        Path fixedFile = Files.createTempFile("random", ".txt");
+        Path segmentedFile = Files.createTempFile("random", ".txt");
+        Path indexFile = segmentedFile.resolveSibling(segmentedFile.getFileName() + ".idx");
+
+        try {
+            Files.writeString(fixedFile, sbFixed.toString());
+            Files.writeString(segmentedFile, sbSegmented.toString());
+
+            // Every line is 33 bytes, so records are found by arithmetic
+            try (RandomFixedWidthReader records = new RandomFixedWidthReader(createClasses(),
+                    "test.Row", Map.of("RecordLength", "33"), fixedFile)) {
+                assert records.count() == 100;
+                assert records.readAt(57).getInteger("qty") == 57;
+
+                records.skip(10);
+
+                assert records.next();
+                assert records.getObject().getLong("total") == 68;
+                assert records.position() == 69;
+
+                assert records.readAt(100) == null;
+
+                // The parser is moved back after the end of the file
+                assert records.readAt(3).getInteger("qty") == 3;
+            }
+
+            try {
+                new RandomFixedWidthReader(createClasses(), "test.Row",
+                        Map.of("RecordLength", "layout"), fixedFile).close();
+
+                assert false;
+            } catch (ApiException ex) {
+                assert ex.getMessage().contains("must be a number");
+            }
+
+            try (RandomFixedWidthReader records = new RandomFixedWidthReader(createClasses(),
+                    "test.Segments", null, segmentedFile)) {
+                assert records.count() == 100;
+
+                ApiObject record = records.readAt(41);
+
+                assert record.getObject("HD").getInteger("qty") == 41;
+                assert "Line1".equals(record.getObject("TR").getString("name"));
+                assert record.getObject("FT").getInteger("qty") == 41;
+
+                assert records.next();
+                assert records.getObject().getObject("FT").getInteger("qty") == 42;
+
+                assert records.readAt(7).getObject("TR").getString("name").equals("Line0");
+                assert records.readAt(7).getObject("FT").getInteger("qty") == 7;
+            }
+
+            assert Files.exists(indexFile);
+
+            // The index is reused while the file is unchanged
+            try (RandomFixedWidthReader records = new RandomFixedWidthReader(createClasses(),
+                    "test.Segments", null, segmentedFile)) {
+                assert records.count() == 100;
+                assert records.readAt(99).getObject("HD").getInteger("qty") == 99;
+            }
+
+            long lines = sbSegmented.chars().filter(c -> c == '\n').count();
+
+            // An index built for another layout is not reused
+            try (RandomFixedWidthReader records = new RandomFixedWidthReader(createClasses(),
+                    "test.Row", null, segmentedFile)) {
+                assert records.count() == lines;
+            }
+
+            try (RandomFixedWidthReader records = new RandomFixedWidthReader(createClasses(),
+                    "test.Segments", null, segmentedFile)) {
+                assert records.count() == 100;
+            }
+        } finally {
+            Files.deleteIfExists(fixedFile);
+            Files.deleteIfExists(segmentedFile);
+            Files.deleteIfExists(indexFile);
+        }
+    }
+
+    @Test
+    public void testParallelWrite() throws Exception {
+        ApiClasses classes = createClasses();
+
+        ApiClass outCls = createClass(classes, "test.Out");
+
+        addField(outCls, "name", "String", 6, null);
+        addField(outCls, "qty", "Integer", 5, "");
+        addField(outCls, "total", "Long", 8, "L");
+
+        List<ApiObject> lstRows = new ArrayList<>();
+
+        for (int x = 0; x < 1000; x++) {
+            ApiObject row = classes.getInstance("test.Out");
+            row.setString("name", "Row" + x);
+            row.setInteger("qty", x);
+            row.setLong("total", x * 1000L);
+
+            lstRows.add(row);
+        }
+
+        Path fixedFile = Files.createTempFile("parallel", ".txt");
+
+        try {
+            // Small slices, so many slices are written at once
+            ParallelFixedWidthWriter writer = new ParallelFixedWidthWriter(classes,
+                    "test.Out", Map.of("ChunkSize", "37"));
+
+            assert writer.write(fixedFile, lstRows) == 20 * 1000;
+            assert Files.size(fixedFile) == 20 * 1000;
+
+            List<String> lstLines = Files.readAllLines(fixedFile);
+
+            assert lstLines.size() == 1000;
+            assert "Row0      00       ".equals(lstLines.get(0));
+            assert "Row999  999999000  ".equals(lstLines.get(999));
+
+            FixedWidthParser parser = new FixedWidthParser();
+            parser.init(classes, "test.Out", null, Files.newBufferedReader(fixedFile));
+
+            for (int x = 0; x < 1000; x++) {
+                assert parser.next();
+                assert parser.getObject().getInteger("qty") == x;
+                assert parser.getObject().getLong("total") == x * 1000L;
+            }
+
+            try {
+                new ParallelFixedWidthWriter(classes, "test.Segments", null).write(fixedFile, lstRows);
+
+                assert false;
+            } catch (ApiException ex) {
+                assert ex.getMessage().contains("Segmented");
+            }
+        } finally {
+            Files.deleteIfExists(fixedFile);
+        }
+    }
+
+    @Test
+    public void testFlushSize() throws Exception {
+        ApiClasses classes = createClasses();
+
+        ApiClass outCls = createClass(classes, "test.Out");
+
+        addField(outCls, "name", "String", 6, null);
+        addField(outCls, "qty", "Integer", 5, "");
+        addField(outCls, "total", "Long", 8, "L");
+
+        StringWriter out = new StringWriter();
+        FixedWidthWriter writer = new FixedWidthWriter();
+
+        // Each record is 20 chars, so the third record flushes
+        writer.init(classes, "test.Out", Map.of("FlushSize", "50"), out);
+
+        for (int x = 0; x < 4; x++) {
+            ApiObject row = classes.getInstance("test.Out");
+            row.setString("name", "Row" + x);
+            row.setInteger("qty", x);
+            row.setLong("total", x * 1000L);
+
+            writer.write(row);
+
+            assert out.toString().length() == (x < 2 ? 0 : 60);
+        }
+
+        writer.flush();
+
+        assert "Row0      00       \nRow1      11000    \nRow2      22000    \nRow3      33000    \n"
+                .equals(out.toString());
+    }
+
+    @Test
+    public void testFlushSizeObjectWriter() throws Exception {
+        ApiClasses classes = createClasses();
+
+        ApiClass outCls = createClass(classes, "test.Out");
+
+        addField(outCls, "name", "String", 6, null);
+        addField(outCls, "qty", "Integer", 5, "");
+        addField(outCls, "total", "Long", 8, "L");
+
+        StringWriter out = new StringWriter();
+        ObjectWriter writer = new FixedWidthWriter();
+
+        writer.init(classes, "test.Out", Map.of("FlushSize", "50"), out);
+
+        for (int x = 0; x < 4; x++) {
+            ApiObject row = classes.getInstance("test.Out");
+            row.setString("name", "Row" + x);
+            row.setInteger("qty", x);
+            row.setLong("total", x * 1000L);
+
+            writer.write(row);
+        }
+
+        // The last record is still pending after the write calls
+        assert out.toString().length() == 60;
+
+        writer.writeHeader();
+
+        assert out.toString().length() == 80;
+
+        ApiObject row = classes.getInstance("test.Out");
+        row.setString("name", "Row4");
+        row.setInteger("qty", 4);
+        row.setLong("total", 4000L);
+
+        writer.write(row);
+
+        assert out.toString().length() == 80;
+
+        ((Flushable) writer).flush();
+
+        assert out.toString().endsWith("Row3      33000    \nRow4      44000    \n");
+    }
+}
@@ -0,0 +1,139 @@
+package com.icg.api.parser;
+
+import com.progbits.api.exception.ApiException;
+import com.progbits.api.model.ApiClass;
+import com.progbits.api.model.ApiClasses;
+import com.progbits.api.model.ApiObject;
+import com.progbits.api.parser.XmlObjectParser;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import static com.icg.api.parser.ClassFixtures.addField;
+import static com.icg.api.parser.ClassFixtures.createClass;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author scarr
+ */
+public class TestXmlParser {
+
+    String strXmlTest = "<?xml version=\"1.0\"?><Orders><Count>2</Count>"
+            + "<Order><id>A</id><qty>5</qty><skip><x>1</x></skip></Order>"
+            + "<Order type=\"rush\"><id>B</id><qty>7</qty></Order></Orders>";
+
+    private ApiClasses createClasses() {
+        ApiClasses classes = new ApiClasses();
+
+        ApiClass ordersCls = createClass(classes, "test.Orders");
+
+        addField(ordersCls, "Count", "Integer");
+        addField(ordersCls, "Order", "ArrayList").setString("subType", "test.Order");
+
+        ApiClass orderCls = createClass(classes, "test.Order");
+
+        addField(orderCls, "id", "String");
+        addField(orderCls, "qty", "Long");
+        addField(orderCls, "type", "String").setBoolean("attribute", true);
+
+        return classes;
+    }
+
+    private void checkOrders(ApiObject obj) {
+        assert obj != null;
+        assert obj.getInteger("Count") == 2;
+        assert obj.getList("Order").size() == 2;
+        assert "B".equals(obj.getList("Order").get(1).getString("id"));
+        assert obj.getList("Order").get(1).getLong("qty") == 7L;
+        assert "rush".equals(obj.getList("Order").get(1).getString("type"));
+    }
+
+    @Test
+    public void testParse() throws Exception {
+        XmlObjectParser parser = new XmlObjectParser();
+
+        parser.init(createClasses(), "test.Orders", null, new StringReader(strXmlTest));
+        parser.next();
+
+        assert parser.getParseErrors().isEmpty();
+        checkOrders(parser.getObject());
+    }
+
+    @Test
+    public void testAsyncFeed() throws Exception {
+        XmlObjectParser parser = new XmlObjectParser();
+        byte[] bytes = strXmlTest.getBytes(StandardCharsets.UTF_8);
+        List<ApiObject> objs = new ArrayList<>();
+
+        parser.initAsync(createClasses(), "test.Orders", null);
+
+        for (int x = 0; x < bytes.length; x += 5) {
+            objs.addAll(parser.feed(bytes, x, Math.min(5, bytes.length - x)));
+        }
+
+        // The root end tag completes the object before the end of input
+        assert objs.size() == 1;
+
+        objs.addAll(parser.endOfInput());
+
+        assert objs.size() == 1;
+        checkOrders(objs.get(0));
+    }
+
+    @Test
+    public void testAsyncTrailing() throws Exception {
+        XmlObjectParser parser = new XmlObjectParser();
+        List<ApiObject> objs = new ArrayList<>();
+
+        parser.initAsync(createClasses(), "test.Order", null);
+
+        objs.addAll(parser.feed(bytes("<Order><id>x</id></Order>\n")));
+
+        assert objs.size() == 1;
+        assert "x".equals(objs.get(0).getString("id"));
+
+        // Comments and whitespace may follow the root, in later chunks
+        objs.addAll(parser.feed(bytes("<!-- tail -->")));
+        objs.addAll(parser.feed(bytes("\n<?done?>\n")));
+        objs.addAll(parser.endOfInput());
+
+        assert objs.size() == 1;
+        assert parser.getParseErrors().isEmpty();
+
+        parser.initAsync(createClasses(), "test.Order", null);
+
+        assert parser.feed(bytes("<Order><id>y</id></Order>")).size() == 1;
+
+        try {
+            parser.feed(bytes("<Order>"));
+
+            assert false;
+        } catch (ApiException ex) {
+            assert ex.getMessage().contains("Parsing XML Error");
+        }
+    }
+
+    private ByteBuffer bytes(String xml) {
+        return ByteBuffer.wrap(xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRecordElement() throws Exception {
+        XmlObjectParser parser = new XmlObjectParser();
+        List<String> ids = new ArrayList<>();
+
+        parser.init(createClasses(), "test.Order", Map.of("RecordElement", "Order"),
+                new StringReader(strXmlTest));
+
+        while (parser.next()) {
+            assert parser.getParseErrors().isEmpty();
+
+            ids.add(parser.getObject().getString("id"));
+        }
+
+        assert ids.equals(List.of("A", "B"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.icg.api.transforms;
+
+import com.progbits.api.transforms.PathExtractor;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author scarr
+ */
+public class TestPathExtractor {
+
+    @Test
+    public void testJson() throws Exception {
+        String strJson = """
+                         {
+                            "skip": { "a": [ 1, { "b": "}" } ] },
+                            "header": { "x": 1, "correlationId": "abc" },
+                            "items": [ { "sku": "s0" }, { "sku": 12 } ]
+                         }
+                         """;
+
+        assert "abc".equals(PathExtractor.compile("$.header.correlationId").fromJson(strJson));
+        assert "12".equals(PathExtractor.compile("$.items[1].sku").fromJson(strJson));
+        assert PathExtractor.compile("$.header.missing").fromJson(strJson) == null;
+    }
+
+    @Test
+    public void testXml() throws Exception {
+        String strXml = "<msg><header id=\"7\"><correlationId>abc</correlationId></header>"
+            + "<items><item><sku>s0</sku></item><item><sku>s1</sku></item></items></msg>";
+
+        assert "abc".equals(PathExtractor.compile("$.header.correlationId").fromXml(strXml));
+        assert "s1".equals(PathExtractor.compile("$.items.item[1].sku").fromXml(strXml));
+        assert "7".equals(PathExtractor.compile("$.header.@id").fromXml(strXml));
+    }
+
+    @Test
+    public void testYaml() throws Exception {
+        String strYaml = """
+                         header:
+                           correlationId: abc
+                         items:
+                           - sku: s0
+                           - sku: s1
+                         """;
+
+        assert "abc".equals(PathExtractor.compile("$.header.correlationId").fromYaml(strYaml));
+        assert "s1".equals(PathExtractor.compile("$.items[1].sku").fromYaml(strYaml));
+    }
+}
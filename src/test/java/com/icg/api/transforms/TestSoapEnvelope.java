@@ -0,0 +1,64 @@
+package com.icg.api.transforms;
+
+import com.progbits.api.model.ApiClass;
+import com.progbits.api.model.ApiClasses;
+import com.progbits.api.model.ApiObject;
+import com.progbits.api.parser.XmlObjectParser;
+import com.progbits.api.transforms.SoapEnvelope;
+import com.progbits.api.transforms.XmlTransform;
+import java.io.StringReader;
+import javax.xml.stream.XMLStreamReader;
+import org.testng.annotations.Test;
+
+/**
+ *
+ * @author scarr
+ */
+public class TestSoapEnvelope {
+
+    String strSoap = "<?xml version=\"1.0\"?>"
+            + "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+            + "<soap:Header><auth><Body>not this one</Body></auth></soap:Header>"
+            + "<soap:Body><m:GetPrice xmlns:m=\"urn:prices\"><Item>Apples</Item></m:GetPrice></soap:Body>"
+            + "</soap:Envelope>";
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testLocate() throws Exception {
+        SoapEnvelope soap = SoapEnvelope.locate(strSoap);
+
+        assert "GetPrice".equals(soap.getOperation());
+        assert "urn:prices".equals(soap.getOperationNamespace());
+        assert !soap.isSoap12();
+        assert soap.getReader().getEventType() == XMLStreamReader.START_ELEMENT;
+
+        assert "GetPrice".equals(XmlTransform.skipToSoapFunction(new StringReader(strSoap)));
+    }
+
+    @Test
+    public void testParseOperation() throws Exception {
+        ApiClasses classes = new ApiClasses();
+
+        ApiClass cls = new ApiClass();
+        cls.setName("apiClass");
+        cls.setString("name", "GetPrice");
+        cls.setString("className", "test.GetPrice");
+        cls.createList("fields");
+
+        ApiObject objItem = cls.getListAdd("fields");
+        objItem.setName("apiField");
+        objItem.setString("name", "Item");
+        objItem.setString("type", "String");
+
+        classes.addClass(cls);
+
+        XmlObjectParser parser = new XmlObjectParser();
+
+        parser.init(classes, "test.GetPrice", null, null);
+
+        SoapEnvelope soap = SoapEnvelope.locate(strSoap);
+        ApiObject obj = parser.parseSingle(soap.getReader(), null);
+
+        assert "Apples".equals(obj.getString("Item"));
+    }
+}